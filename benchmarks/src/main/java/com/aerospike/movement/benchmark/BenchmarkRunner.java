@@ -0,0 +1,23 @@
+package com.aerospike.movement.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Entry point for the shaded benchmarks jar. Accepts the usual JMH command line and always attaches the
+ * gc profiler so allocation rate is reported next to throughput and per element latency, e.g.
+ *   java -jar benchmarks/target/benchmarks.jar MockPipelineBenchmark -p threads=8 -p batchSize=100
+ */
+public class BenchmarkRunner {
+    public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
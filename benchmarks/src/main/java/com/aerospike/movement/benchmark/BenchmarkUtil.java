@@ -0,0 +1,30 @@
+package com.aerospike.movement.benchmark;
+
+import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime;
+import com.aerospike.movement.runtime.core.local.RunningPhase;
+import com.aerospike.movement.test.core.AbstractMovementTest;
+import org.apache.commons.configuration2.Configuration;
+
+import java.util.Iterator;
+import java.util.List;
+
+public class BenchmarkUtil {
+    public static final List<Runtime.PHASE> BOTH_PHASES = List.of(Runtime.PHASE.ONE, Runtime.PHASE.TWO);
+
+    public static void runPhases(final List<Runtime.PHASE> phases, final Configuration config) {
+        final Runtime runtime = LocalParallelStreamRuntime.open(config);
+        try {
+            final Iterator<RunningPhase> x = runtime.runPhases(phases, config);
+            AbstractMovementTest.iteratePhasesAndCloseRuntime(x, runtime);
+        } finally {
+            shutdown(runtime);
+        }
+    }
+
+    // Each runtime instance owns a ForkJoinPool, release it so repeated invocations do not leak threads.
+    private static void shutdown(final Runtime runtime) {
+        ((LocalParallelStreamRuntime) runtime).customThreadPool.shutdown();
+        LocalParallelStreamRuntime.closeStatic();
+    }
+}
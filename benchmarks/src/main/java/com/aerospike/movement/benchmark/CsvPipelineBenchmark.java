@@ -0,0 +1,132 @@
+package com.aerospike.movement.benchmark;
+
+import com.aerospike.movement.emitter.files.DirectoryEmitter;
+import com.aerospike.movement.emitter.files.RecursiveDirectoryTraversalDriver;
+import com.aerospike.movement.emitter.tinkerpop.TinkerPopGraphEmitter;
+import com.aerospike.movement.encoding.files.csv.GraphCSVDecoder;
+import com.aerospike.movement.encoding.files.csv.GraphCSVEncoder;
+import com.aerospike.movement.encoding.tinkerpop.TinkerPopGraphEncoder;
+import com.aerospike.movement.output.files.DirectoryOutput;
+import com.aerospike.movement.output.tinkerpop.TinkerPopGraphOutput;
+import com.aerospike.movement.runtime.core.driver.impl.PassthroughOutputIdDriver;
+import com.aerospike.movement.runtime.core.driver.impl.RangedOutputIdDriver;
+import com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime;
+import com.aerospike.movement.runtime.tinkerpop.TinkerPopGraphDriver;
+import com.aerospike.movement.test.tinkerpop.SharedEmptyTinkerGraphGraphProvider;
+import com.aerospike.movement.tinkerpop.common.GraphProvider;
+import com.aerospike.movement.util.core.runtime.IOUtil;
+import com.aerospike.movement.util.files.FileUtil;
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.MapConfiguration;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.aerospike.movement.config.core.ConfigurationBase.Keys.*;
+import static com.aerospike.movement.output.files.DirectoryOutput.EDGES;
+import static com.aerospike.movement.output.files.DirectoryOutput.VERTICES;
+
+/*
+ * Exercises the real encode and decode paths:
+ *  export: TinkerGraph -> GraphCSVEncoder -> DirectoryOutput
+ *  load:   DirectoryEmitter -> GraphCSVDecoder -> TinkerPopGraphEncoder -> TinkerGraph
+ * Width is the number of properties on every vertex and edge.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class CsvPipelineBenchmark {
+    public static final int VERTICES_PER_PHASE = 20_000;
+
+    @Param({"1", "4"})
+    public int threads;
+    @Param({"10", "1000"})
+    public int batchSize;
+    @Param({"2", "16"})
+    public int width;
+    @Param({"pipeline", "workstealing"})
+    public String executor;
+
+    private Path exportDirectory;
+    private Path loadDirectory;
+    private Configuration exportConfig;
+    private Configuration loadConfig;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        exportDirectory = IOUtil.createTempDir();
+        loadDirectory = IOUtil.createTempDir();
+        exportConfig = exportConfig(exportDirectory);
+        loadConfig = loadConfig(loadDirectory);
+        BenchmarkUtil.runPhases(BenchmarkUtil.BOTH_PHASES, exportConfig(loadDirectory));
+    }
+
+    @Setup(Level.Invocation)
+    public void clean() throws Exception {
+        FileUtil.recursiveDelete(exportDirectory);
+        final Graph shared = SharedEmptyTinkerGraphGraphProvider.open().getProvided(GraphProvider.GraphProviderContext.OUTPUT);
+        shared.traversal().V().drop().iterate();
+        shared.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FileUtil.recursiveDelete(exportDirectory);
+        FileUtil.recursiveDelete(loadDirectory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VERTICES_PER_PHASE * 2)
+    public void exportToCsv() {
+        BenchmarkUtil.runPhases(BenchmarkUtil.BOTH_PHASES, exportConfig);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VERTICES_PER_PHASE * 2)
+    public void loadFromCsv() {
+        BenchmarkUtil.runPhases(BenchmarkUtil.BOTH_PHASES, loadConfig);
+    }
+
+    private Configuration exportConfig(final Path directory) {
+        return new MapConfiguration(new HashMap<>() {{
+            put(LocalParallelStreamRuntime.Config.Keys.THREADS, String.valueOf(threads));
+            put(LocalParallelStreamRuntime.Config.Keys.BATCH_SIZE, String.valueOf(batchSize));
+            put(LocalParallelStreamRuntime.Config.Keys.EXECUTOR, executor);
+            put(EMITTER, TinkerPopGraphEmitter.class.getName());
+            put(TinkerPopGraphEmitter.Config.Keys.GRAPH_PROVIDER, SyntheticGraphProvider.class.getName());
+            put(SyntheticGraphProvider.Keys.VERTEX_COUNT, String.valueOf(VERTICES_PER_PHASE));
+            put(SyntheticGraphProvider.Keys.WIDTH, String.valueOf(width));
+            put(ENCODER, GraphCSVEncoder.class.getName());
+            put(OUTPUT, DirectoryOutput.class.getName());
+            put(DirectoryOutput.Config.Keys.OUTPUT_DIRECTORY, directory.toAbsolutePath().toString());
+            put(WORK_CHUNK_DRIVER_PHASE_ONE, TinkerPopGraphDriver.class.getName());
+            put(WORK_CHUNK_DRIVER_PHASE_TWO, TinkerPopGraphDriver.class.getName());
+            put(OUTPUT_ID_DRIVER, RangedOutputIdDriver.class.getName());
+        }});
+    }
+
+    private Configuration loadConfig(final Path directory) {
+        return new MapConfiguration(new HashMap<>() {{
+            put(LocalParallelStreamRuntime.Config.Keys.THREADS, String.valueOf(threads));
+            put(LocalParallelStreamRuntime.Config.Keys.BATCH_SIZE, String.valueOf(batchSize));
+            put(LocalParallelStreamRuntime.Config.Keys.EXECUTOR, executor);
+            put(EMITTER, DirectoryEmitter.class.getName());
+            put(DECODER, GraphCSVDecoder.class.getName());
+            put(ENCODER, TinkerPopGraphEncoder.class.getName());
+            put(OUTPUT, TinkerPopGraphOutput.class.getName());
+            put(TinkerPopGraphEncoder.Config.Keys.GRAPH_PROVIDER, SharedEmptyTinkerGraphGraphProvider.class.getName());
+            put(DirectoryEmitter.Config.Keys.BASE_PATH, directory.toAbsolutePath().toString());
+            put(DirectoryEmitter.Config.Keys.PHASE_ONE_SUBDIR, VERTICES);
+            put(DirectoryEmitter.Config.Keys.PHASE_TWO_SUBDIR, EDGES);
+            put(WORK_CHUNK_DRIVER_PHASE_ONE, RecursiveDirectoryTraversalDriver.class.getName());
+            put(WORK_CHUNK_DRIVER_PHASE_TWO, RecursiveDirectoryTraversalDriver.class.getName());
+            put(OUTPUT_ID_DRIVER, PassthroughOutputIdDriver.class.getName());
+        }});
+    }
+}
@@ -0,0 +1,81 @@
+package com.aerospike.movement.benchmark;
+
+import com.aerospike.movement.config.core.ConfigurationBase;
+import com.aerospike.movement.emitter.core.Emitable;
+import com.aerospike.movement.runtime.core.driver.impl.RangedOutputIdDriver;
+import com.aerospike.movement.runtime.core.driver.impl.RangedWorkChunkDriver;
+import com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime;
+import com.aerospike.movement.test.core.AbstractMovementTest;
+import com.aerospike.movement.test.mock.MockCallback;
+import com.aerospike.movement.test.mock.MockUtil;
+import com.aerospike.movement.test.mock.emitter.MockEmitable;
+import org.apache.commons.configuration2.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/*
+ * Drives the runtime with the mock emitter, encoder and output, isolating the cost of the runtime itself.
+ * Width is the number of child elements each emitted element fans out to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class MockPipelineBenchmark {
+    public static final int ELEMENTS = 100_000;
+
+    @Param({"1", "4"})
+    public int threads;
+    @Param({"10", "1000"})
+    public int batchSize;
+    @Param({"0", "8"})
+    public int width;
+    @Param({"pipeline", "workstealing"})
+    public String executor;
+
+    private Configuration config;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        config = AbstractMovementTest.getMockConfiguration(new HashMap<>() {{
+            put(LocalParallelStreamRuntime.Config.Keys.THREADS, String.valueOf(threads));
+            put(LocalParallelStreamRuntime.Config.Keys.BATCH_SIZE, String.valueOf(batchSize));
+            put(LocalParallelStreamRuntime.Config.Keys.EXECUTOR, executor);
+            put(ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_ONE, RangedWorkChunkDriver.class.getName());
+            put(ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_TWO, RangedWorkChunkDriver.class.getName());
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_BOTTOM, "0");
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_TOP, String.valueOf(ELEMENTS));
+            put(ConfigurationBase.Keys.OUTPUT_ID_DRIVER, RangedOutputIdDriver.class.getName());
+        }});
+    }
+
+    @Setup(Level.Invocation)
+    public void setupMock() {
+        MockUtil.clear();
+        MockUtil.setDefaultMockCallbacks();
+        MockUtil.setCallback(MockEmitable.class, MockEmitable.Methods.EMIT,
+                MockCallback.create((object, args) -> Optional.of(children(width))));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        MockUtil.clear();
+    }
+
+    private Stream<Emitable> children(final int width) {
+        return IntStream.range(0, width).mapToObj(i -> new MockEmitable(i, true, config));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ELEMENTS * 2)
+    public void runPhases() {
+        BenchmarkUtil.runPhases(BenchmarkUtil.BOTH_PHASES, config);
+    }
+}
@@ -0,0 +1,66 @@
+package com.aerospike.movement.benchmark;
+
+import com.aerospike.movement.tinkerpop.common.GraphProvider;
+import com.aerospike.movement.tinkerpop.common.RefrenceCountedSharedGraph;
+import org.apache.commons.configuration2.Configuration;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+
+/*
+ * Generates a ring shaped TinkerGraph with a configurable number of vertices and properties per element.
+ * The generated graph is shared by name and never closed, so it is built once per parameter set.
+ */
+public class SyntheticGraphProvider implements GraphProvider {
+    public static class Keys {
+        public static final String VERTEX_COUNT = "benchmark.graph.vertexCount";
+        public static final String WIDTH = "benchmark.graph.width";
+    }
+
+    public static final String VERTEX_LABEL = "node";
+    public static final String EDGE_LABEL = "next";
+
+    private final Configuration config;
+
+    private SyntheticGraphProvider(final Configuration config) {
+        this.config = config;
+    }
+
+    public static GraphProvider open(final Configuration config) {
+        return new SyntheticGraphProvider(config);
+    }
+
+    @Override
+    public Graph getProvided(final GraphProviderContext ctx) {
+        final long vertexCount = config.getLong(Keys.VERTEX_COUNT);
+        final int width = config.getInt(Keys.WIDTH);
+        return RefrenceCountedSharedGraph.from(
+                (c) -> generate(vertexCount, width),
+                (c) -> false,
+                String.format("synthetic_%d_%d", vertexCount, width),
+                config);
+    }
+
+    public static Graph generate(final long vertexCount, final int width) {
+        final Graph graph = TinkerGraph.open();
+        final Vertex[] vertices = new Vertex[(int) vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            vertices[i] = graph.addVertex(properties(width, T.id, (long) i, T.label, VERTEX_LABEL));
+        }
+        for (int i = 0; i < vertexCount; i++) {
+            vertices[i].addEdge(EDGE_LABEL, vertices[(int) ((i + 1) % vertexCount)], properties(width, T.id, vertexCount + i));
+        }
+        return graph;
+    }
+
+    private static Object[] properties(final int width, final Object... prefix) {
+        final Object[] keyValues = new Object[prefix.length + width * 2];
+        System.arraycopy(prefix, 0, keyValues, 0, prefix.length);
+        for (int i = 0; i < width; i++) {
+            keyValues[prefix.length + i * 2] = "p" + i;
+            keyValues[prefix.length + i * 2 + 1] = "value_" + i;
+        }
+        return keyValues;
+    }
+}
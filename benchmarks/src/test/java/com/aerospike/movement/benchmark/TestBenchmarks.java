@@ -0,0 +1,47 @@
+package com.aerospike.movement.benchmark;
+
+import com.aerospike.movement.test.mock.MockUtil;
+import com.aerospike.movement.test.tinkerpop.SharedEmptyTinkerGraphGraphProvider;
+import com.aerospike.movement.tinkerpop.common.GraphProvider;
+import com.aerospike.movement.test.mock.encoder.MockEncoder;
+import com.aerospike.movement.test.mock.output.MockOutput;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.junit.Test;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class TestBenchmarks {
+    @Test
+    public void testMockPipelineBenchmarkInvocation() {
+        final MockPipelineBenchmark benchmark = new MockPipelineBenchmark();
+        benchmark.threads = 2;
+        benchmark.batchSize = 100;
+        benchmark.width = 2;
+        benchmark.executor = "pipeline";
+        benchmark.setup();
+        benchmark.setupMock();
+        benchmark.runPhases();
+        final long expected = MockPipelineBenchmark.ELEMENTS * 2L * (1 + benchmark.width);
+        assertEquals(expected, MockUtil.getHitCounter(MockOutput.class, MockOutput.Methods.WRITE_TO_OUTPUT));
+        assertEquals(expected, MockUtil.getHitCounter(MockEncoder.class, MockEncoder.Methods.ENCODE));
+        benchmark.tearDown();
+    }
+
+    @Test
+    public void testCsvPipelineBenchmarkInvocation() throws Exception {
+        final CsvPipelineBenchmark benchmark = new CsvPipelineBenchmark();
+        benchmark.threads = 2;
+        benchmark.batchSize = 100;
+        benchmark.width = 2;
+        benchmark.executor = "workstealing";
+        benchmark.setup();
+        benchmark.clean();
+        benchmark.exportToCsv();
+        benchmark.loadFromCsv();
+        final Graph shared = SharedEmptyTinkerGraphGraphProvider.open().getProvided(GraphProvider.GraphProviderContext.OUTPUT);
+        assertEquals(CsvPipelineBenchmark.VERTICES_PER_PHASE, shared.traversal().V().count().next().intValue());
+        assertEquals(CsvPipelineBenchmark.VERTICES_PER_PHASE, shared.traversal().E().count().next().intValue());
+        shared.close();
+        benchmark.tearDown();
+    }
+}
@@ -11,6 +11,7 @@ package com.aerospike.movement.emitter.core;
 
 import com.aerospike.movement.output.core.Output;
 
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -24,6 +25,10 @@ public interface Emitable {
                 return Stream.empty();
             }
 
+            @Override
+            public void emitTo(final Output output, final Consumer<Emitable> sink) {
+            }
+
             @Override
             public String type() {
                 return "";
@@ -31,5 +36,19 @@ public interface Emitable {
         };
     }
     Stream<Emitable> emit(Output output);
+
+    /*
+     * Push style emit(): hands the emitables this one produces to the sink instead of returning them as a Stream.
+     * The runtime calls it instead of emit() on classes that override it, so a leaf element that only writes itself
+     * builds no Stream at all. The sink must be called on the calling thread, before emitTo returns. The runtime holds
+     * on to every emitable handed to the sink until emitTo returns, and then walks them in the order they were handed
+     * over, so emitTo suits elements with a few children; emitables producing many should stay with emit().
+     */
+    default void emitTo(final Output output, final Consumer<Emitable> sink) {
+        try (final Stream<Emitable> emitables = emit(output)) {
+            emitables.forEach(sink);
+        }
+    }
+
     String type();
 }
@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 public class LogMessage implements Emitable {
@@ -45,8 +46,13 @@ public class LogMessage implements Emitable {
 
     @Override
     public Stream<Emitable> emit(final Output output) {
+        emitTo(output, emitable -> {});
+        return Stream.empty();
+    }
+
+    @Override
+    public void emitTo(final Output output, final Consumer<Emitable> sink) {
         output.writer(LogMessage.class, this.getClass().getName()).writeToOutput(Optional.of(this));
-        return stream();
     }
 
     protected Logger getLogger() {
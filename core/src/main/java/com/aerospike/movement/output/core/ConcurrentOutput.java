@@ -0,0 +1,9 @@
+package com.aerospike.movement.output.core;
+
+/*
+ * Marks an Output whose writers may be called from many threads at once, for instance because every write is a
+ * self contained remote call. The virtual executor shares one Output between all elements of a pipeline in flight,
+ * and only accepts outputs that implement this.
+ */
+public interface ConcurrentOutput extends Output {
+}
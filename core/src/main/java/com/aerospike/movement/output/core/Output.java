@@ -34,6 +34,10 @@ public interface Output extends AutoCloseable {
 
     void close();
 
+    // Writes out whatever the writers of this output still buffer, so the chunks written so far can be checkpointed.
+    default void flush() {
+    }
+
     void dropStorage();
     Optional<Encoder> getEncoder();
 
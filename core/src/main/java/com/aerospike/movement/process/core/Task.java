@@ -11,14 +11,23 @@ import com.aerospike.movement.config.core.ConfigurationBase;
 import com.aerospike.movement.output.core.Output;
 import com.aerospike.movement.runtime.core.Handler;
 import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.driver.CheckpointLog;
 import com.aerospike.movement.runtime.core.driver.WorkChunkDriver;
 import com.aerospike.movement.runtime.core.local.Loadable;
 import com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime;
+import com.aerospike.movement.runtime.core.local.PipelineProfiler;
 import com.aerospike.movement.runtime.core.local.RunningPhase;
+import com.aerospike.movement.runtime.core.local.StagedScheduler;
+import com.aerospike.movement.runtime.core.local.VirtualThreadScheduler;
+import com.aerospike.movement.structure.core.graph.VertexIdFilter;
+import com.aerospike.movement.util.core.metrics.MetricsRegistry;
 import com.aerospike.movement.util.core.runtime.IOUtil;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import org.apache.commons.configuration2.Configuration;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -58,11 +67,26 @@ public abstract class Task extends Loadable {
         return phaseList.stream()
                 .map(it -> {
                     RuntimeUtil.getLogger(task).info("running phase: " + it);
+                    logResume(task, it, jobConfig);
                     return runtime.runPhase(it, jobConfig);
                 }).iterator();
     }
 
 
+    // the work chunk drivers skip the chunks in the checkpoint log, this only reports how much work is skipped
+    private static void logResume(final Task task, final Runtime.PHASE phase, final Configuration config) {
+        final String path = CheckpointLog.Config.INSTANCE.getOrDefault(CheckpointLog.Config.Keys.PATH, config);
+        if (path.isEmpty())
+            return;
+        try {
+            final int acknowledged = CheckpointLog.read(Path.of(path)).getOrDefault(phase, Set.of()).size();
+            if (acknowledged > 0)
+                RuntimeUtil.getLogger(task).info("resuming phase " + phase + ", skipping " + acknowledged + " acknowledged work chunks");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     public abstract Map<String, Object> getMetrics();
 
     public boolean isRunning() {
@@ -237,6 +261,14 @@ public abstract class Task extends Loadable {
                     put("AVERAGE_IO", outputData.stream().map(ev -> (Double) ev.getValue().get(Keys.AVERAGE)).reduce((a, b) -> a + b).orElse(0.0));
                 }});
                 statusMessageData.put("WORK_CHUNKS", workChunks);
+                Optional.ofNullable(LocalParallelStreamRuntime.workChunkDriver.get())
+                        .ifPresent(driver -> statusMessageData.put("BATCH_SIZE", driver.getBatchSize().status()));
+                VertexIdFilter.current().ifPresent(filter -> statusMessageData.put("DANGLING_EDGE_FILTER", filter.status()));
+                StagedScheduler.runningStatus().ifPresent(stages -> statusMessageData.put("STAGES", stages));
+                VirtualThreadScheduler.runningStatus().ifPresent(inFlight -> statusMessageData.put("IN_FLIGHT", inFlight));
+                PipelineProfiler.runningStatus().ifPresent(profile -> statusMessageData.put("PROFILE", profile));
+                if (MetricsRegistry.isEnabled())
+                    statusMessageData.put("STAGE_METRICS", MetricsRegistry.INSTANCE.status());
                 statusMessageData.put("OUTPUTS", outputData.stream().map(it -> List.of(it.getKey(), formatter.apply(it.getValue()))).collect(Collectors.toList()));
                 if (debug)
                     potentialRunningPhase.ifPresent(runningPhase -> statusMessageData.put("RUNNING_PHASE", potentialRunningPhase.map(thing -> thing.status().next()).orElse(Map.of())));
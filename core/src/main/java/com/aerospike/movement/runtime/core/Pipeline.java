@@ -12,6 +12,7 @@ import com.aerospike.movement.output.core.Output;
 import com.aerospike.movement.runtime.core.local.Loadable;
 import com.aerospike.movement.runtime.core.driver.WorkChunkDriver;
 import com.aerospike.movement.util.core.iterator.ext.IteratorUtils;
+import com.aerospike.movement.util.core.metrics.MetricsRegistry;
 import com.aerospike.movement.util.core.runtime.CheckedNotThreadSafe;
 import com.aerospike.movement.util.core.configuration.ConfigUtil;
 import com.aerospike.movement.util.core.runtime.IOUtil;
@@ -50,6 +51,7 @@ public class Pipeline extends CheckedNotThreadSafe implements AutoCloseable {
         else
             driver = (WorkChunkDriver) RuntimeUtil.lookupOrLoad(WorkChunkDriver.class, config);
         final Output output = RuntimeUtil.loadOutput(ConfigUtil.withOverrides(config, Map.of(PIPELINE_ID, id)));
+        MetricsRegistry.bindOutput(output, id);
         return new Pipeline(id, driver, emitter, output, phase);
     }
 
@@ -0,0 +1,115 @@
+package com.aerospike.movement.runtime.core.driver;
+
+import com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime;
+import com.aerospike.movement.util.core.runtime.RuntimeUtil;
+import org.apache.commons.configuration2.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.*;
+
+/*
+ * Chooses the size of the next work chunk. With driver.batchSize.adaptive unset this is always driver.batchSize.
+ *
+ * Adaptive sizing is additive increase, multiplicative decrease on the time a consumer spent on its previous chunk,
+ * measured between two calls to next() on the same thread: a pipeline asks for its next chunk once it has written
+ * the last one. Chunks finishing under the target latency, or consumers queueing on the driver, grow the size by
+ * the starting batch size, a chunk over the target halves it. Drivers that know how much work is left also cap the
+ * size so every consumer still gets a chunk, which keeps stragglers off the end of the phase.
+ *
+ * Checkpoint keys are derived from chunk boundaries, which adaptive sizing moves from run to run, so sizing stays
+ * fixed at driver.batchSize while a checkpoint log is configured.
+ */
+public class AdaptiveBatchSize {
+    private final boolean adaptive;
+    private final int increment;
+    private final int min;
+    private final int max;
+    private final long targetLatencyNanos;
+    private final int consumers;
+    private final AtomicInteger size;
+    private final AtomicInteger waiting = new AtomicInteger(0);
+    private final AtomicLong lastLatencyNanos = new AtomicLong(0);
+    private final AtomicLong increases = new AtomicLong(0);
+    private final AtomicLong decreases = new AtomicLong(0);
+    // when this thread took its last chunk
+    private final ThreadLocal<Long> chunkStart = new ThreadLocal<>();
+
+    private AdaptiveBatchSize(final Configuration config) {
+        final LocalParallelStreamRuntime.Config runtimeConfig = LocalParallelStreamRuntime.Config.INSTANCE;
+        final boolean adaptiveConfigured = Boolean.parseBoolean(runtimeConfig.getOrDefault(BATCH_SIZE_ADAPTIVE, config));
+        this.adaptive = adaptiveConfigured && !CheckpointLog.isEnabled(config);
+        if (adaptiveConfigured && !adaptive)
+            RuntimeUtil.getLogger(AdaptiveBatchSize.class).info("checkpointing is on, adaptive batch size disabled");
+        this.increment = Math.max(1, RuntimeUtil.getBatchSize(config));
+        this.min = Math.max(1, Integer.parseInt(runtimeConfig.getOrDefault(BATCH_SIZE_MIN, config)));
+        this.max = Math.max(min, Integer.parseInt(runtimeConfig.getOrDefault(BATCH_SIZE_MAX, config)));
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(runtimeConfig.getOrDefault(BATCH_SIZE_TARGET_LATENCY_MS, config)));
+        this.consumers = Math.max(1, Integer.parseInt(runtimeConfig.getOrDefault(THREADS, config)));
+        this.size = new AtomicInteger(adaptive ? Math.min(max, Math.max(min, increment)) : increment);
+    }
+
+    public static AdaptiveBatchSize open(final Configuration config) {
+        return new AdaptiveBatchSize(config);
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public int current() {
+        return size.get();
+    }
+
+    // Consumers call this around waiting for the driver, so the queue depth can be taken into account.
+    public void waiting() {
+        waiting.incrementAndGet();
+    }
+
+    public void done() {
+        waiting.decrementAndGet();
+    }
+
+    public int next() {
+        return next(Long.MAX_VALUE);
+    }
+
+    // remaining is how much work the driver has left, or Long.MAX_VALUE if it does not know
+    public int next(final long remaining) {
+        if (!adaptive)
+            return size.get();
+        final long now = System.nanoTime();
+        final Long previous = chunkStart.get();
+        chunkStart.set(now);
+        if (previous != null)
+            observe(now - previous);
+        final long fairShare = Math.max(min, remaining / consumers);
+        return (int) Math.min(size.get(), fairShare);
+    }
+
+    private void observe(final long latencyNanos) {
+        lastLatencyNanos.set(latencyNanos);
+        // a queue on the driver means coordination, not the chunks themselves, is what costs time
+        if (latencyNanos > targetLatencyNanos && waiting.get() <= consumers / 2) {
+            size.updateAndGet(it -> Math.max(min, it / 2));
+            decreases.incrementAndGet();
+        } else {
+            size.updateAndGet(it -> Math.min(max, it + increment));
+            increases.incrementAndGet();
+        }
+    }
+
+    public Map<String, Object> status() {
+        return new HashMap<>() {{
+            put("ADAPTIVE", adaptive);
+            put("SIZE", size.get());
+            put("LAST_CHUNK_LATENCY_MS", TimeUnit.NANOSECONDS.toMillis(lastLatencyNanos.get()));
+            put("INCREASES", increases.get());
+            put("DECREASES", decreases.get());
+        }};
+    }
+}
@@ -0,0 +1,161 @@
+package com.aerospike.movement.runtime.core.driver;
+
+import com.aerospike.movement.config.core.ConfigurationBase;
+import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.util.core.configuration.ConfigUtil;
+import org.apache.commons.configuration2.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Append only log of the WorkChunks acknowledged in each phase, one "PHASE<tab>checkpointKey" line per chunk.
+ * A driver opened against an existing log skips the chunks it already holds for the current phase, so a restarted
+ * job only redoes the chunks that were in flight when it stopped. A line cut short by a crash has no newline and
+ * is ignored. Once the last phase of a job completes the log is moved aside to checkpoint.path + ".completed", so
+ * running the job again starts over.
+ */
+public class CheckpointLog implements AutoCloseable {
+    public static class Config extends ConfigurationBase {
+        public static final Config INSTANCE = new Config();
+
+        private Config() {
+            super();
+        }
+
+        @Override
+        public Map<String, String> defaultConfigMap(final Map<String, Object> config) {
+            return DEFAULTS;
+        }
+
+        @Override
+        public List<String> getKeys() {
+            return ConfigUtil.getKeysFromClass(Config.Keys.class);
+        }
+
+        public static class Keys {
+            // empty disables checkpointing
+            public static final String PATH = "checkpoint.path";
+            public static final String FORCE = "checkpoint.force";
+            // chunks written to an output between the flushes that let them be acknowledged
+            public static final String CHUNKS_PER_FLUSH = "checkpoint.chunksPerFlush";
+        }
+
+        private static final Map<String, String> DEFAULTS = new HashMap<>() {{
+            put(Keys.PATH, "");
+            put(Keys.FORCE, "true");
+            put(Keys.CHUNKS_PER_FLUSH, "8");
+        }};
+    }
+
+    private static final char SEPARATOR = '\t';
+    private static final String COMPLETED_SUFFIX = ".completed";
+
+    private final Runtime.PHASE phase;
+    private final FileChannel channel;
+    private final boolean force;
+    private final Set<String> acknowledged;
+
+    private CheckpointLog(final Runtime.PHASE phase, final FileChannel channel, final boolean force, final Set<String> acknowledged) {
+        this.phase = phase;
+        this.channel = channel;
+        this.force = force;
+        this.acknowledged = acknowledged;
+    }
+
+    public static Optional<CheckpointLog> open(final Runtime.PHASE phase, final Configuration config) {
+        final String path = Config.INSTANCE.getOrDefault(Config.Keys.PATH, config);
+        if (path.isEmpty())
+            return Optional.empty();
+        final boolean force = Boolean.parseBoolean(Config.INSTANCE.getOrDefault(Config.Keys.FORCE, config));
+        try {
+            final Set<String> acknowledged = ConcurrentHashMap.newKeySet();
+            acknowledged.addAll(read(Path.of(path)).getOrDefault(phase, Set.of()));
+            final FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            return Optional.of(new CheckpointLog(phase, channel, force, acknowledged));
+        } catch (IOException e) {
+            throw new UncheckedIOException(new IOException("Could not open checkpoint log " + path, e));
+        }
+    }
+
+    public static boolean isEnabled(final Configuration config) {
+        return !((String) Config.INSTANCE.getOrDefault(Config.Keys.PATH, config)).isEmpty();
+    }
+
+    public static Path completedPath(final Path path) {
+        return path.resolveSibling(path.getFileName() + COMPLETED_SUFFIX);
+    }
+
+    // Moves the log of a job whose last phase completed aside, replacing the log of the job completed before it.
+    public static void complete(final Configuration config) {
+        if (!isEnabled(config))
+            return;
+        final Path path = Path.of((String) Config.INSTANCE.getOrDefault(Config.Keys.PATH, config));
+        try {
+            if (Files.exists(path))
+                Files.move(path, completedPath(path), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(new IOException("Could not move aside checkpoint log " + path, e));
+        }
+    }
+
+    // Acknowledged chunk keys by phase, empty if the log does not exist yet.
+    public static Map<Runtime.PHASE, Set<String>> read(final Path path) throws IOException {
+        final Map<Runtime.PHASE, Set<String>> results = new EnumMap<>(Runtime.PHASE.class);
+        if (!Files.exists(path))
+            return results;
+        final String log = Files.readString(path, StandardCharsets.UTF_8);
+        final int complete = log.lastIndexOf('\n') + 1;
+        for (final String line : log.substring(0, complete).split("\n")) {
+            final int separator = line.indexOf(SEPARATOR);
+            if (separator < 0)
+                continue;
+            results.computeIfAbsent(Runtime.PHASE.valueOf(line.substring(0, separator)), it -> new HashSet<>())
+                    .add(line.substring(separator + 1));
+        }
+        return results;
+    }
+
+    public boolean isAcknowledged(final String key) {
+        return acknowledged.contains(key);
+    }
+
+    public int size() {
+        return acknowledged.size();
+    }
+
+    public void acknowledge(final String key) {
+        if (!acknowledged.add(key))
+            return;
+        final ByteBuffer line = ByteBuffer.wrap((phase.name() + SEPARATOR + key + '\n').getBytes(StandardCharsets.UTF_8));
+        try {
+            synchronized (channel) {
+                while (line.hasRemaining()) {
+                    channel.write(line);
+                }
+                if (force)
+                    channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.aerospike.movement.runtime.core.driver;
+
+import com.aerospike.movement.util.core.iterator.PrimitiveIteratorWrap;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PrimitiveIterator;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * A WorkChunk of the ids [start, end), held as two longs.
+ * Emitters that recognize it should use the primitive API (start, end, longIterator, forEachId)
+ * and avoid a WorkItem and an Optional per id. getNext is kept for everything else.
+ **/
+public class LongRangeWorkChunk implements WorkChunk {
+    private final long start;
+    private final long end;
+    private final AtomicLong cursor;
+
+    private LongRangeWorkChunk(final long start, final long end) {
+        if (end < start)
+            throw new IllegalArgumentException(String.format("invalid range [%d,%d)", start, end));
+        this.start = start;
+        this.end = end;
+        this.cursor = new AtomicLong(start);
+    }
+
+    public static LongRangeWorkChunk of(final long start, final long end) {
+        return new LongRangeWorkChunk(start, end);
+    }
+
+    public long start() {
+        return start;
+    }
+
+    public long end() {
+        return end;
+    }
+
+    public long size() {
+        return end - start;
+    }
+
+    // The id is derived from the range, so it is stable across runs and costs no random number generation.
+    @Override
+    public UUID getId() {
+        return new UUID(start, end);
+    }
+
+    // The range is the same across runs as long as the batch size is, which checkpointing pins.
+    @Override
+    public Optional<String> checkpointKey() {
+        return Optional.of(start + "-" + end);
+    }
+
+    @Override
+    public Optional<WorkItem> getNext() {
+        final long next = cursor.getAndIncrement();
+        return next < end ? Optional.of(new WorkItem(next)) : Optional.empty();
+    }
+
+    public PrimitiveIterator.OfLong longIterator() {
+        return new PrimitiveIterator.OfLong() {
+            private long next = start;
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            public long nextLong() {
+                if (next >= end)
+                    throw new NoSuchElementException();
+                return next++;
+            }
+        };
+    }
+
+    // Boxing view of the range, for callers that need an Iterator<Object>.
+    public Iterator<Object> iterator() {
+        return PrimitiveIteratorWrap.wrap(longIterator());
+    }
+
+    public void forEachId(final LongConsumer consumer) {
+        for (long id = start; id < end; id++) {
+            consumer.accept(id);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LongRangeWorkChunk[%d,%d)", start, end);
+    }
+}
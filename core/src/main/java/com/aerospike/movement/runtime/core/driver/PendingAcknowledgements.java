@@ -0,0 +1,81 @@
+package com.aerospike.movement.runtime.core.driver;
+
+import com.aerospike.movement.output.core.Output;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * The WorkChunks one pipeline has written to its Output but not acknowledged yet. A written chunk may still sit in
+ * the buffers of the output, so chunks are only acknowledged once the output has been flushed, every
+ * checkpoint.chunksPerFlush chunks and again when the pipeline finishes. Chunks still pending when the pipeline
+ * fails are not acknowledged, and are redone on the next run. Without a checkpoint log there is nothing to protect
+ * and chunks are acknowledged as they are added.
+ *
+ * Chunks taken apart by the emitter are followed through WorkChunkDriver.handOut: every chunk the driver handed the
+ * pipeline before the one it is working on has been written.
+ */
+public class PendingAcknowledgements {
+    private final WorkChunkDriver driver;
+    private final Output output;
+    private final int chunksPerFlush;
+    private final List<WorkChunk> pending = new ArrayList<>();
+    private WorkChunk current = null;
+
+    private PendingAcknowledgements(final WorkChunkDriver driver, final Output output, final int chunksPerFlush) {
+        this.driver = driver;
+        this.output = output;
+        this.chunksPerFlush = chunksPerFlush;
+    }
+
+    public static PendingAcknowledgements create(final WorkChunkDriver driver, final Output output) {
+        return new PendingAcknowledgements(driver, output,
+                Math.max(1, Integer.parseInt(CheckpointLog.Config.INSTANCE.getOrDefault(CheckpointLog.Config.Keys.CHUNKS_PER_FLUSH, driver.config))));
+    }
+
+    public void add(final WorkChunk chunk) {
+        if (!driver.isCheckpointing()) {
+            driver.acknowledge(chunk);
+            return;
+        }
+        pending.add(chunk);
+        if (pending.size() >= chunksPerFlush)
+            commit();
+    }
+
+    // Called after each element the emitter produced, adds the chunks written since the last call.
+    public void advance() {
+        if (!driver.isCheckpointing())
+            return;
+        final List<WorkChunk> handedOut = driver.takeHandedOut();
+        if (handedOut.isEmpty())
+            return;
+        if (current != null)
+            add(current);
+        for (int i = 0; i < handedOut.size() - 1; i++) {
+            add(handedOut.get(i));
+        }
+        current = handedOut.get(handedOut.size() - 1);
+    }
+
+    // The emitter is exhausted, so the chunk it was working on has been written too.
+    public void finish() {
+        advance();
+        if (current != null)
+            add(current);
+        current = null;
+        commit();
+    }
+
+    public void commit() {
+        if (pending.isEmpty())
+            return;
+        output.flush();
+        pending.forEach(driver::acknowledge);
+        pending.clear();
+    }
+
+    public int size() {
+        return pending.size();
+    }
+}
@@ -13,6 +13,7 @@ import com.aerospike.movement.util.core.stream.sequence.PotentialSequence;
 import org.apache.commons.configuration2.Configuration;
 
 import java.util.Iterator;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -24,4 +25,9 @@ public interface WorkChunk extends PotentialSequence<WorkItem> {
 
     UUID getId();
 
+    // A key that identifies the same chunk across runs, chunks without one are never checkpointed.
+    default Optional<String> checkpointKey() {
+        return Optional.empty();
+    }
+
 }
@@ -15,6 +15,9 @@ import com.aerospike.movement.util.core.stream.sequence.PotentialSequence;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import org.apache.commons.configuration2.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -32,6 +35,9 @@ public abstract class WorkChunkDriver extends Loadable implements PotentialSeque
     private static final AtomicReference<WorkChunkDriver> INSTANCE = new AtomicReference<>();
     protected final Configuration config;
     private final AtomicLong chunksAcknowledged;
+    private final Optional<CheckpointLog> checkpoint;
+    protected final AdaptiveBatchSize batchSize;
+    private final ThreadLocal<List<WorkChunk>> handedOut = ThreadLocal.withInitial(ArrayList::new);
 
     protected final ErrorHandler errorHandler;
     public static final AtomicLong metric = new AtomicLong(0);
@@ -41,6 +47,8 @@ public abstract class WorkChunkDriver extends Loadable implements PotentialSeque
         this.config = config;
         this.chunksAcknowledged = new AtomicLong(0);
         this.errorHandler = RuntimeUtil.getErrorHandler(this, config);
+        this.checkpoint = CheckpointLog.open(RuntimeUtil.getCurrentPhase(config), config);
+        this.batchSize = AdaptiveBatchSize.open(config);
     }
 
 
@@ -52,7 +60,66 @@ public abstract class WorkChunkDriver extends Loadable implements PotentialSeque
         return value;
     }
 
+    /*
+    Called once every element of the chunk has been written to the output, and the output flushed.
+    Chunks with a checkpoint key are recorded in the checkpoint log, if one is configured, and skipped on the next run.
+     */
+    public void acknowledge(final WorkChunk chunk) {
+        chunksAcknowledged.incrementAndGet();
+        checkpoint.ifPresent(log -> chunk.checkpointKey().ifPresent(log::acknowledge));
+    }
+
+    public boolean isCheckpointing() {
+        return checkpoint.isPresent();
+    }
+
+    /*
+    Whether the executor can tell when a whole chunk of this driver has been written: either the chunks reach it as
+    emitables of their own, or the driver records the chunks it hands out with handOut(). Only such drivers skip
+    acknowledged chunks.
+     */
+    public boolean supportsCheckpoint() {
+        return false;
+    }
+
+    /*
+    Records a chunk handed to the calling thread, for drivers whose chunks are taken apart by the emitter. The emitter
+    must only pull the next chunk once every element of the previous one has been consumed, as a stream flatMapped
+    over getNext() does, so a chunk has been written once the thread that took it is handed the next one.
+     */
+    protected WorkChunk handOut(final WorkChunk chunk) {
+        if (isCheckpointing())
+            handedOut.get().add(chunk);
+        return chunk;
+    }
+
+    // The chunks handed out to the calling thread since it last asked, in order.
+    public List<WorkChunk> takeHandedOut() {
+        final List<WorkChunk> chunks = handedOut.get();
+        if (chunks.isEmpty())
+            return List.of();
+        handedOut.remove();
+        return chunks;
+    }
+
+    public AdaptiveBatchSize getBatchSize() {
+        return batchSize;
+    }
+
+    public long getChunksAcknowledged() {
+        return chunksAcknowledged.get();
+    }
+
+    protected boolean isAcknowledged(final WorkChunk chunk) {
+        return checkpoint.isPresent() && chunk.checkpointKey().map(checkpoint.get()::isAcknowledged).orElse(false);
+    }
+
+    protected void closeCheckpoint() {
+        checkpoint.ifPresent(CheckpointLog::close);
+    }
+
     public void onClose()  {
+        closeCheckpoint();
         chunksAcknowledged.set(0);
         metric.set(0);
         getInitialized().set(false);
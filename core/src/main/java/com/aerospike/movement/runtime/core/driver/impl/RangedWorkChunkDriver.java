@@ -8,23 +8,18 @@
 package com.aerospike.movement.runtime.core.driver.impl;
 
 import com.aerospike.movement.config.core.ConfigurationBase;
-import com.aerospike.movement.emitter.core.Emitable;
 import com.aerospike.movement.runtime.core.driver.*;
 import com.aerospike.movement.util.core.configuration.ConfigUtil;
-import com.aerospike.movement.util.core.iterator.ext.IteratorUtils;
-import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import org.apache.commons.configuration2.Configuration;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.LongStream;
 
 public class RangedWorkChunkDriver extends WorkChunkDriver {
 
     private final long rangeTop;
-    private final int batchSize;
 
 
     public static class Config extends ConfigurationBase {
@@ -58,13 +53,22 @@ public class RangedWorkChunkDriver extends WorkChunkDriver {
 
 
     public Optional<WorkChunk> getNext() {
-        final long nextStart = counter.getAndAdd(batchSize);
-        if (nextStart >= rangeTop) {
-            return Optional.empty();
+        while (true) {
+            final int size = batchSize.next(Math.max(0, rangeTop - counter.get()));
+            final long nextStart = counter.getAndAdd(size);
+            if (nextStart >= rangeTop) {
+                return Optional.empty();
+            }
+            final WorkChunk chunk = LongRangeWorkChunk.of(nextStart, Math.min(nextStart + size, rangeTop));
+            if (!isAcknowledged(chunk))
+                return Optional.of(handOut(chunk));
         }
-        long end = Math.min(nextStart + batchSize, rangeTop);
-        final List<Long> workIds = IteratorUtils.list(LongStream.range(nextStart,end).iterator());
-        return Optional.of(WorkList.from(workIds));
+    }
+
+    // ranges are taken apart by the emitter, and recorded as they are handed out
+    @Override
+    public boolean supportsCheckpoint() {
+        return true;
     }
 
 
@@ -76,7 +80,6 @@ public class RangedWorkChunkDriver extends WorkChunkDriver {
         super(Config.INSTANCE, config);
         this.counter = new AtomicLong(Long.parseLong(Config.INSTANCE.getOrDefault(Config.Keys.RANGE_BOTTOM, config)));
         this.rangeTop = Long.parseLong(Config.INSTANCE.getOrDefault(Config.Keys.RANGE_TOP, config));
-        this.batchSize = RuntimeUtil.getBatchSize(config);
 
     }
 
@@ -100,6 +103,7 @@ public class RangedWorkChunkDriver extends WorkChunkDriver {
 
     @Override
     public void onClose()  {
+        closeCheckpoint();
         closeInstance();
     }
 
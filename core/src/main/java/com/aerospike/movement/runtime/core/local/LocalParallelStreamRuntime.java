@@ -21,6 +21,9 @@ import com.aerospike.movement.util.core.error.ErrorHandler;
 import com.aerospike.movement.output.core.Output;
 import com.aerospike.movement.process.core.Task;
 import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.structure.core.graph.VertexIdFilter;
+import com.aerospike.movement.structure.core.graph.VertexIdIndex;
+import com.aerospike.movement.util.core.metrics.MetricsRegistry;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import org.apache.commons.configuration2.Configuration;
 
@@ -79,6 +82,18 @@ public class LocalParallelStreamRuntime implements Runtime {
             public static final String DROP_OUTPUT = "runtime.dropOutput";
             public static final String DELAY_MS = "runtime.outputStallTimeMs";
             public static final String BATCH_SIZE = "driver.batchSize";
+            public static final String BATCH_SIZE_ADAPTIVE = "driver.batchSize.adaptive";
+            public static final String BATCH_SIZE_MIN = "driver.batchSize.min";
+            public static final String BATCH_SIZE_MAX = "driver.batchSize.max";
+            public static final String BATCH_SIZE_TARGET_LATENCY_MS = "driver.batchSize.targetLatencyMs";
+            public static final String EXECUTOR = "runtime.executor";
+            public static final String MAX_IN_FLIGHT = "runtime.maxInFlight";
+            public static final String STAGED_EMIT_THREADS = "runtime.staged.emitThreads";
+            public static final String STAGED_QUEUE_SIZE = "runtime.staged.queueSize";
+            public static final String PROFILE = "runtime.profile";
+            public static final String PROFILE_INTERVAL_MS = "runtime.profile.intervalMs";
+            public static final String PROFILE_MAX_DEPTH = "runtime.profile.maxDepth";
+            public static final String PROFILE_DIRECTORY = "runtime.profile.directory";
 
         }
 
@@ -87,7 +102,34 @@ public class LocalParallelStreamRuntime implements Runtime {
             put(Keys.DROP_OUTPUT, "false");
             put(Keys.DELAY_MS, "100");
             put(Keys.BATCH_SIZE, "100");
+            put(Keys.BATCH_SIZE_ADAPTIVE, "false");
+            put(Keys.BATCH_SIZE_MIN, "1");
+            put(Keys.BATCH_SIZE_MAX, "100000");
+            put(Keys.BATCH_SIZE_TARGET_LATENCY_MS, "250");
+            put(Keys.EXECUTOR, Executor.PIPELINE.name().toLowerCase());
+            put(Keys.MAX_IN_FLIGHT, "1024");
+            put(Keys.STAGED_EMIT_THREADS, String.valueOf(Math.max(1, RuntimeUtil.getAvailableProcessors() / 4)));
+            put(Keys.STAGED_QUEUE_SIZE, "4096");
+            put(Keys.PROFILE, "false");
+            put(Keys.PROFILE_INTERVAL_MS, "20");
+            put(Keys.PROFILE_MAX_DEPTH, "128");
+            put(Keys.PROFILE_DIRECTORY, "");
         }};
+
+        public enum Executor {
+            // one thread per pipeline, each draining its own emitter stream
+            PIPELINE,
+            // batches of emitted elements are ForkJoin tasks that idle workers can steal
+            WORKSTEALING,
+            // every emitted element is encoded and written on its own virtual thread, bounded by runtime.maxInFlight
+            VIRTUAL,
+            // runtime.staged.emitThreads emitters feed every pipeline's output through a bounded queue
+            STAGED;
+
+            public static Executor fromConfig(final Configuration config) {
+                return valueOf(((String) CONFIG.getOrDefault(Keys.EXECUTOR, config)).toUpperCase());
+            }
+        }
     }
 
     public static Config CONFIG = new Config();
@@ -218,6 +260,9 @@ public class LocalParallelStreamRuntime implements Runtime {
         outputIdDriver.set(null);
         workChunkDriver.set(null);
         ErrorHandler.trigger.set(null);
+        MetricsRegistry.close();
+        VertexIdIndex.close();
+        VertexIdFilter.close();
         initialized.set(false);
         INSTANCE = null;
     }
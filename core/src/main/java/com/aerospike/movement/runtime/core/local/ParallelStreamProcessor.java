@@ -14,15 +14,19 @@ import com.aerospike.movement.output.core.Output;
 import com.aerospike.movement.runtime.core.Handler;
 import com.aerospike.movement.runtime.core.Pipeline;
 import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.driver.CheckpointLog;
+import com.aerospike.movement.runtime.core.driver.PendingAcknowledgements;
+import com.aerospike.movement.runtime.core.driver.WorkChunk;
 import com.aerospike.movement.runtime.core.driver.WorkChunkDriver;
 
 import com.aerospike.movement.util.core.coordonation.WaitGroup;
 import com.aerospike.movement.util.core.error.ErrorHandler;
 import com.aerospike.movement.util.core.iterator.ext.CloseableIterator;
-import com.aerospike.movement.util.core.iterator.ext.IteratorUtils;
+import com.aerospike.movement.util.core.metrics.MetricsRegistry;
+import com.aerospike.movement.util.core.metrics.MetricsRegistry.PipelineMetrics;
+import com.aerospike.movement.util.core.metrics.MetricsRegistry.Stage;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import org.apache.commons.configuration2.Configuration;
-import org.apache.commons.configuration2.MapConfiguration;
 
 import java.util.*;
 import java.util.concurrent.ExecutionException;
@@ -30,6 +34,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static com.aerospike.movement.util.core.runtime.RuntimeUtil.getAvailableProcessors;
@@ -77,6 +82,77 @@ public class ParallelStreamProcessor implements Runnable {
 
     @Override
     public void run() {
+        MetricsRegistry.open(phase, config);
+        final Optional<PipelineProfiler> profiler = PipelineProfiler.start(phase, config);
+        try {
+            final LocalParallelStreamRuntime.Config.Executor executor = LocalParallelStreamRuntime.Config.Executor.fromConfig(config);
+            if (CheckpointLog.isEnabled(config)) {
+                try {
+                    checkCheckpointSupported(executor, (WorkChunkDriver) RuntimeUtil.lookupOrLoad(WorkChunkDriver.class, config));
+                } catch (IllegalArgumentException e) {
+                    throw errorHandler.handleFatalError(e, phase);
+                }
+            }
+            switch (executor) {
+                case WORKSTEALING:
+                    runWorkStealing();
+                    break;
+                case VIRTUAL:
+                    runVirtual();
+                    break;
+                case STAGED:
+                    runStaged();
+                    break;
+                case PIPELINE:
+                default:
+                    runPipelinePerThread();
+            }
+        } finally {
+            profiler.ifPresent(PipelineProfiler::stop);
+        }
+    }
+
+    /*
+     * A chunk may only be acknowledged once all of it has been written and flushed. The pipeline and staged executors
+     * know when that is, for drivers that support it: their chunks reach them as emitables of their own, or are
+     * handed out to the emitting thread one after the other.
+     */
+    static void checkCheckpointSupported(final LocalParallelStreamRuntime.Config.Executor executor, final WorkChunkDriver driver) {
+        if (executor.equals(LocalParallelStreamRuntime.Config.Executor.WORKSTEALING) || executor.equals(LocalParallelStreamRuntime.Config.Executor.VIRTUAL))
+            throw new IllegalArgumentException(CheckpointLog.Config.Keys.PATH + " is not supported by the " + executor + " executor");
+        if (!driver.supportsCheckpoint())
+            throw new IllegalArgumentException(CheckpointLog.Config.Keys.PATH + " is not supported by " + driver.getClass().getSimpleName());
+    }
+
+    private void runWorkStealing() {
+        WorkStealingScheduler.create(this, pipelines, phase, config).run();
+        closePhase();
+    }
+
+    private void runVirtual() {
+        VirtualThreadScheduler.create(this, pipelines, phase, config).run();
+        closePhase();
+    }
+
+    private void runStaged() {
+        StagedScheduler.create(this, pipelines, phase, config).run();
+        closePhase();
+    }
+
+    private void closePhase() {
+        final List<Runtime.PHASE> phases = pipelines.get(0).getEmitter().phases();
+        RuntimeUtil.closeAllInstancesOfLoadable(WorkChunkDriver.class);
+        RuntimeUtil.closeAllInstancesOfLoadable(Emitter.class);
+        RuntimeUtil.closeAllInstancesOfLoadable(Encoder.class);
+        RuntimeUtil.closeAllInstancesOfLoadable(Output.class);
+        RuntimeUtil.unload(WorkChunkDriver.class);
+        // the job is done, a rerun should start over rather than skip every chunk
+        if (phases.get(phases.size() - 1).equals(phase))
+            CheckpointLog.complete(config);
+        MetricsRegistry.phaseComplete();
+    }
+
+    private void runPipelinePerThread() {
         final WaitGroup waitGroup = WaitGroup.of(pipelines.size());
         final ExecutorService executorService = Executors.newFixedThreadPool(pipelines.size()+1);
         List<Future> futures = new ArrayList<>();
@@ -90,6 +166,7 @@ public class ParallelStreamProcessor implements Runnable {
                 final Output output = pipeline.getOutput();
                 final WorkChunkDriver driver = (WorkChunkDriver) RuntimeUtil.lookupOrLoad(WorkChunkDriver.class, config);
                 final ErrorHandler errorHandler = RuntimeUtil.getErrorHandler(this, config);
+                PipelineProfiler.register("pipeline");
                 try {
                     driveIndividualThreadSync(phase,
                             driver,
@@ -103,6 +180,8 @@ public class ParallelStreamProcessor implements Runnable {
                 } catch (Exception e) {
                     runningTasks.decrementAndGet();
                     throw errorHandler.handleFatalError(e, pipeline);
+                } finally {
+                    PipelineProfiler.unregister();
                 }
 
                 runningTasks.decrementAndGet();
@@ -119,11 +198,7 @@ public class ParallelStreamProcessor implements Runnable {
                 }
             });
             executorService.shutdown();
-            RuntimeUtil.closeAllInstancesOfLoadable(WorkChunkDriver.class);
-            RuntimeUtil.closeAllInstancesOfLoadable(Emitter.class);
-            RuntimeUtil.closeAllInstancesOfLoadable(Encoder.class);
-            RuntimeUtil.closeAllInstancesOfLoadable(Output.class);
-            RuntimeUtil.unload(WorkChunkDriver.class);
+            closePhase();
         } catch (InterruptedException e) {
             throw errorHandler.handleError(e, phase, pipelines, waitGroup);
         }
@@ -136,10 +211,18 @@ public class ParallelStreamProcessor implements Runnable {
                                                  final Runnable completionHandler,
                                                  final Handler<Throwable> errorHandler) {
         try {
-            final Iterator<Emitable> emitableIterator = emitter.stream(driver, phase).iterator();
+            final PendingAcknowledgements acknowledgements = PendingAcknowledgements.create(driver, output);
+            final Iterator<Emitable> emitableIterator = MetricsRegistry.timeFetches(emitter.stream(driver, phase).iterator(), output, driver.getClass().getSimpleName());
             while (emitableIterator.hasNext()) {
-                processEmitable(emitableIterator.next(), output);
+                final Emitable emitable = emitableIterator.next();
+                processEmitable(emitable, output);
+                // a chunk that is its own emitable has been fully written once processEmitable returns
+                if (emitable instanceof WorkChunk)
+                    acknowledgements.add((WorkChunk) emitable);
+                else
+                    acknowledgements.advance();
             }
+            acknowledgements.finish();
         } catch (Exception e) {
             errorHandler.handle(RuntimeUtil.getErrorHandler(LocalParallelStreamRuntime.class).handleFatalError(e, output), output);
         }
@@ -147,16 +230,121 @@ public class ParallelStreamProcessor implements Runnable {
     }
 
     public static void processEmitable(final Emitable emitable, final Output output) {
-        IteratorUtils.iterate(walk(emitable.emit(output), output));
+        WALKS.get().walk(emitable, output);
     }
 
-    public static Iterator<Emitable> walk(final Stream<Emitable> input, final Output output) {
-        return IteratorUtils.flatMap(input.iterator(), emitable -> {
+    private static final ThreadLocal<EmitableWalk> WALKS = ThreadLocal.withInitial(EmitableWalk::new);
+
+    // whether a class overrides Emitable.emitTo, checked once per class
+    private static final ClassValue<Boolean> PUSH_STYLE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
             try {
-                return walk(emitable.emit(output), output);
-            } catch (final Exception e) {
-                throw RuntimeUtil.getErrorHandler(output, new MapConfiguration(new HashMap<>())).handleFatalError(e, output);
+                return type.getMethod("emitTo", Output.class, Consumer.class).getDeclaringClass() != Emitable.class;
+            } catch (NoSuchMethodException e) {
+                return false;
             }
-        });
+        }
+    };
+
+    /*
+     * Depth first walk of the emitables an emitable produces, on an explicit stack. An emitable overriding emitTo()
+     * pushes its children straight onto the stack, a leaf element that only writes itself pushes nothing. The children
+     * are reversed once emitTo returns, so they are walked in the order they were handed to the sink. Otherwise
+     * emit() is called and the spliterator of the returned stream becomes a frame, unless the stream is known to be
+     * empty. Each thread reuses its own stack, streams are closed as soon as they are exhausted. A nested walk on the
+     * same thread, from inside an emit() call, works above the entries of the walk it interrupted.
+     */
+    private static final class EmitableWalk implements Consumer<Emitable> {
+        // an entry is either an emitable still to expand, or a stream frame with its spliterator
+        private Object[] entries = new Object[16];
+        @SuppressWarnings("unchecked")
+        private Stream<Emitable>[] streams = new Stream[16];
+        private int depth = 0;
+        private Emitable next = null;
+        private final Consumer<Emitable> take = emitable -> next = emitable;
+
+        @Override
+        public void accept(final Emitable emitable) {
+            push(emitable, null);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void walk(final Emitable root, final Output output) {
+            final int base = depth;
+            final PipelineMetrics metrics = MetricsRegistry.isEnabled() ? MetricsRegistry.of(output) : null;
+            final PipelineMetrics outer = metrics != null ? MetricsRegistry.bind(metrics) : null;
+            try {
+                expand(root, output);
+                while (depth > base) {
+                    final Emitable child;
+                    if (streams[depth - 1] == null) {
+                        child = (Emitable) entries[--depth];
+                        entries[depth] = null;
+                    } else {
+                        final long start = metrics != null ? MetricsRegistry.start() : 0;
+                        if (!((Spliterator<Emitable>) entries[depth - 1]).tryAdvance(take)) {
+                            pop();
+                            continue;
+                        }
+                        child = next;
+                        next = null;
+                        if (metrics != null)
+                            metrics.record(Stage.EMIT, child.type(), start);
+                    }
+                    final long start = metrics != null ? MetricsRegistry.start() : 0;
+                    try {
+                        expand(child, output);
+                    } catch (final Exception e) {
+                        throw RuntimeUtil.getErrorHandler(output).handleFatalError(e, output);
+                    }
+                    if (metrics != null)
+                        metrics.record(Stage.WRITE, child.type(), start);
+                }
+            } finally {
+                next = null;
+                while (depth > base) {
+                    pop();
+                }
+                if (metrics != null)
+                    MetricsRegistry.bind(outer);
+            }
+        }
+
+        private void expand(final Emitable emitable, final Output output) {
+            if (PUSH_STYLE.get(emitable.getClass())) {
+                final int first = depth;
+                emitable.emitTo(output, this);
+                for (int i = first, j = depth - 1; i < j; i++, j--) {
+                    final Object child = entries[i];
+                    entries[i] = entries[j];
+                    entries[j] = child;
+                }
+                return;
+            }
+            final Stream<Emitable> stream = emitable.emit(output);
+            final Spliterator<Emitable> spliterator = stream.spliterator();
+            if (spliterator.getExactSizeIfKnown() == 0)
+                stream.close();
+            else
+                push(spliterator, stream);
+        }
+
+        private void push(final Object entry, final Stream<Emitable> stream) {
+            if (depth == entries.length) {
+                entries = Arrays.copyOf(entries, depth * 2);
+                streams = Arrays.copyOf(streams, depth * 2);
+            }
+            streams[depth] = stream;
+            entries[depth++] = entry;
+        }
+
+        private void pop() {
+            final Stream<Emitable> stream = streams[--depth];
+            streams[depth] = null;
+            entries[depth] = null;
+            if (stream != null)
+                stream.close();
+        }
     }
 }
@@ -0,0 +1,246 @@
+package com.aerospike.movement.runtime.core.local;
+
+import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.util.core.runtime.RuntimeUtil;
+import org.apache.commons.configuration2.Configuration;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.*;
+
+/*
+ * Sampling profiler for the threads running a phase, on when runtime.profile is set. The executors register their
+ * worker threads, and every runtime.profile.intervalMs a daemon thread reads their stacks through the ThreadMXBean.
+ * Stacks are folded into the collapsed format flame graph tools read, one "role;frame;...;frame count" line per
+ * distinct stack, rooted at the role of the thread. A thread that was not runnable gets its state as a last frame.
+ * When the phase ends the stacks go to profile-<phase>-<time>.collapsed in runtime.profile.directory, and the CPU
+ * and wall time of every registered thread to a .threads file next to it.
+ *
+ * CPU time well below wall time means the threads wait, on a remote encoder or on IO. Close to it, the frames of
+ * the flame graph show which class, a decoder, an encoder or an output, is using it. Virtual threads cannot be
+ * sampled this way and are not registered.
+ */
+public class PipelineProfiler {
+    private static final AtomicReference<PipelineProfiler> running = new AtomicReference<>();
+    private static final String MOVEMENT_PACKAGE = "com.aerospike.movement.";
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final Runtime.PHASE phase;
+    private final Path directory;
+    private final long intervalMs;
+    private final int maxDepth;
+    private final boolean cpuTime;
+    private final ScheduledExecutorService sampler;
+    private final Map<Long, ProfiledThread> registered = new ConcurrentHashMap<>();
+    private final List<ProfiledThread> finished = new ArrayList<>();
+    private final Map<String, Long> stacks = new HashMap<>();
+    private final Map<String, long[]> movementFrames = new HashMap<>();
+    private long samples = 0;
+
+    private static final class ProfiledThread {
+        private final long id;
+        private final String name;
+        private final String role;
+        private final long startWall;
+        private final long startCpu;
+        private long wallNanos = 0;
+        private long cpuNanos = 0;
+
+        private ProfiledThread(final Thread thread, final String role, final long startCpu) {
+            this.id = thread.getId();
+            this.name = thread.getName();
+            this.role = role;
+            this.startWall = System.nanoTime();
+            this.startCpu = startCpu;
+        }
+    }
+
+    private PipelineProfiler(final Runtime.PHASE phase, final Configuration config) {
+        this.phase = phase;
+        final String directory = LocalParallelStreamRuntime.CONFIG.getOrDefault(PROFILE_DIRECTORY, config);
+        this.directory = directory.isEmpty() ? Path.of(System.getProperty("java.io.tmpdir")) : Path.of(directory);
+        this.intervalMs = Math.max(1, Long.parseLong(LocalParallelStreamRuntime.CONFIG.getOrDefault(PROFILE_INTERVAL_MS, config)));
+        this.maxDepth = Integer.parseInt(LocalParallelStreamRuntime.CONFIG.getOrDefault(PROFILE_MAX_DEPTH, config));
+        this.cpuTime = enableCpuTime(threads);
+        this.sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "pipeline-profiler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static boolean enableCpuTime(final ThreadMXBean threads) {
+        try {
+            if (threads.isThreadCpuTimeSupported() && !threads.isThreadCpuTimeEnabled())
+                threads.setThreadCpuTimeEnabled(true);
+            return threads.isThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return false;
+        }
+    }
+
+    // starts sampling the phase, if runtime.profile is set
+    public static Optional<PipelineProfiler> start(final Runtime.PHASE phase, final Configuration config) {
+        if (!Boolean.parseBoolean(LocalParallelStreamRuntime.CONFIG.getOrDefault(PROFILE, config)))
+            return Optional.empty();
+        final PipelineProfiler profiler = new PipelineProfiler(phase, config);
+        running.set(profiler);
+        profiler.sampler.scheduleAtFixedRate(profiler::sample, profiler.intervalMs, profiler.intervalMs, TimeUnit.MILLISECONDS);
+        return Optional.of(profiler);
+    }
+
+    // profiles the calling thread under the given role until it calls unregister(), if a profiler is running
+    public static void register(final String role) {
+        final PipelineProfiler profiler = running.get();
+        if (profiler == null)
+            return;
+        final Thread thread = Thread.currentThread();
+        profiler.registered.put(thread.getId(), new ProfiledThread(thread, role, profiler.cpuTime ? profiler.threads.getCurrentThreadCpuTime() : 0));
+    }
+
+    public static void unregister() {
+        final PipelineProfiler profiler = running.get();
+        if (profiler == null)
+            return;
+        final ProfiledThread thread = profiler.registered.remove(Thread.currentThread().getId());
+        if (thread != null)
+            profiler.finish(thread, profiler.cpuTime ? profiler.threads.getCurrentThreadCpuTime() : 0);
+    }
+
+    public static Optional<Map<String, Object>> runningStatus() {
+        return Optional.ofNullable(running.get()).map(PipelineProfiler::status);
+    }
+
+    private synchronized void finish(final ProfiledThread thread, final long cpu) {
+        thread.wallNanos = System.nanoTime() - thread.startWall;
+        thread.cpuNanos = cpuTime ? Math.max(0, cpu - thread.startCpu) : 0;
+        finished.add(thread);
+    }
+
+    private void sample() {
+        final long[] ids = registered.keySet().stream().mapToLong(Long::longValue).toArray();
+        if (ids.length == 0)
+            return;
+        final ThreadInfo[] infos = threads.getThreadInfo(ids, maxDepth);
+        synchronized (this) {
+            for (final ThreadInfo info : infos) {
+                final ProfiledThread thread = info == null ? null : registered.get(info.getThreadId());
+                if (thread == null)
+                    continue;
+                final StackTraceElement[] frames = info.getStackTrace();
+                final StringBuilder stack = new StringBuilder(thread.role);
+                for (int i = frames.length - 1; i >= 0; i--) {
+                    stack.append(';').append(frames[i].getClassName()).append('.').append(frames[i].getMethodName());
+                }
+                final boolean runnable = info.getThreadState().equals(Thread.State.RUNNABLE);
+                if (!runnable)
+                    stack.append(";[").append(info.getThreadState().name()).append(']');
+                stacks.merge(stack.toString(), 1L, Long::sum);
+                // the innermost movement class on the stack, where the thread is spending its time
+                for (final StackTraceElement frame : frames) {
+                    if (frame.getClassName().startsWith(MOVEMENT_PACKAGE)) {
+                        final String className = frame.getClassName().split("\\$")[0];
+                        movementFrames.computeIfAbsent(className, it -> new long[2])[runnable ? 0 : 1]++;
+                        break;
+                    }
+                }
+                samples++;
+            }
+        }
+    }
+
+    /*
+     * Stops sampling and writes the phase's profile. Threads still registered, like the worker threads of a pool
+     * that outlives the phase, are timed up to now.
+     */
+    public void stop() {
+        sampler.shutdownNow();
+        try {
+            sampler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        running.compareAndSet(this, null);
+        registered.values().forEach(thread -> finish(thread, cpuTime ? threads.getThreadCpuTime(thread.id) : 0));
+        registered.clear();
+        write();
+    }
+
+    private synchronized void write() {
+        final String name = String.format("profile-%s-%d", phase.name().toLowerCase(), System.currentTimeMillis());
+        final Path collapsed = directory.resolve(name + ".collapsed");
+        try {
+            Files.createDirectories(directory);
+            Files.write(collapsed, stacks.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .map(it -> it.getKey() + " " + it.getValue())
+                    .collect(Collectors.toList()));
+            final List<String> threadLines = new ArrayList<>();
+            threadLines.add("role\tthread\twall_ms\tcpu_ms\tcpu_percent");
+            finished.forEach(thread -> threadLines.add(String.join("\t", thread.role, thread.name,
+                    String.valueOf(TimeUnit.NANOSECONDS.toMillis(thread.wallNanos)),
+                    cpuTime ? String.valueOf(TimeUnit.NANOSECONDS.toMillis(thread.cpuNanos)) : "",
+                    cpuTime ? String.valueOf(percent(thread.cpuNanos, thread.wallNanos)) : "")));
+            Files.write(directory.resolve(name + ".threads"), threadLines);
+            RuntimeUtil.getLogger(this).info(String.format("wrote %d samples of %s to %s", samples, phase, collapsed));
+        } catch (IOException e) {
+            RuntimeUtil.getLogger(this).warn("could not write profile to " + collapsed + ": " + e.getMessage());
+        }
+    }
+
+    private static long percent(final long part, final long whole) {
+        return whole == 0 ? 0 : Math.round(100.0 * part / whole);
+    }
+
+    /*
+     * Samples taken so far, CPU and wall time per role over the threads that have finished and those still running,
+     * and the movement classes most often innermost on a sampled stack, with the share of those samples on CPU.
+     */
+    public synchronized Map<String, Object> status() {
+        final Map<String, long[]> roles = new HashMap<>();
+        finished.forEach(thread -> {
+            final long[] role = roles.computeIfAbsent(thread.role, it -> new long[3]);
+            role[0]++;
+            role[1] += thread.wallNanos;
+            role[2] += thread.cpuNanos;
+        });
+        registered.values().forEach(thread -> {
+            final long[] role = roles.computeIfAbsent(thread.role, it -> new long[3]);
+            role[0]++;
+            role[1] += System.nanoTime() - thread.startWall;
+            role[2] += cpuTime ? Math.max(0, threads.getThreadCpuTime(thread.id) - thread.startCpu) : 0;
+        });
+        final Map<String, Object> threadTimes = new HashMap<>();
+        roles.forEach((role, times) -> threadTimes.put(role, Map.of(
+                "THREADS", times[0],
+                "WALL_MS", TimeUnit.NANOSECONDS.toMillis(times[1]),
+                "CPU_MS", TimeUnit.NANOSECONDS.toMillis(times[2]),
+                "CPU_PERCENT", cpuTime ? percent(times[2], times[1]) : -1)));
+        final Map<String, Object> hotClasses = new LinkedHashMap<>();
+        movementFrames.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> it) -> it.getValue()[0] + it.getValue()[1]).reversed())
+                .limit(10)
+                .forEach(it -> hotClasses.put(it.getKey(), Map.of(
+                        "SAMPLES", it.getValue()[0] + it.getValue()[1],
+                        "ON_CPU_PERCENT", percent(it.getValue()[0], it.getValue()[0] + it.getValue()[1]))));
+        return new HashMap<>() {{
+            put("PHASE", phase.name());
+            put("SAMPLES", samples);
+            put("INTERVAL_MS", intervalMs);
+            put("THREAD_TIME", threadTimes);
+            put("HOT_CLASSES", hotClasses);
+        }};
+    }
+}
@@ -13,6 +13,7 @@ import com.aerospike.movement.runtime.core.Pipeline;
 import com.aerospike.movement.runtime.core.Runtime;
 
 import com.aerospike.movement.util.core.error.ErrorHandler;
+import com.aerospike.movement.util.core.metrics.MetricsRegistry;
 import com.aerospike.movement.util.core.runtime.IOUtil;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import org.apache.commons.configuration2.Configuration;
@@ -32,6 +33,7 @@ public class RunningPhase implements Iterator<Map<String, Object>> {
         public static final String OUTPUTS = "outputs";
         public static final String PIPELINES = "pipelines";
         public static final String PIPELINE_COUNT = "pipelineCount";
+        public static final String STAGES = "stages";
 
 
     }
@@ -90,6 +92,8 @@ public class RunningPhase implements Iterator<Map<String, Object>> {
 
                 return new HashMap<>() {{
                     put(Keys.OUTPUTS, status);
+                    if (MetricsRegistry.isEnabled())
+                        put(Keys.STAGES, MetricsRegistry.INSTANCE.status());
                 }};
             }
         };
@@ -0,0 +1,317 @@
+package com.aerospike.movement.runtime.core.local;
+
+import com.aerospike.movement.emitter.core.Emitable;
+import com.aerospike.movement.emitter.core.Emitter;
+import com.aerospike.movement.output.core.Output;
+import com.aerospike.movement.runtime.core.Pipeline;
+import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.driver.WorkChunk;
+import com.aerospike.movement.runtime.core.driver.WorkChunkDriver;
+import com.aerospike.movement.util.core.coordonation.RingBuffer;
+import com.aerospike.movement.util.core.error.ErrorHandler;
+import com.aerospike.movement.util.core.metrics.MetricsRegistry;
+import com.aerospike.movement.util.core.runtime.RuntimeUtil;
+import org.apache.commons.configuration2.Configuration;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.STAGED_EMIT_THREADS;
+import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.STAGED_QUEUE_SIZE;
+
+/*
+ * Splits a phase into an emit stage and a write stage joined by a bounded RingBuffer, so the two can be sized
+ * separately, e.g. a few CSV parsers feeding many remote writers. runtime.staged.emitThreads pipelines pull work
+ * chunks from the driver: a chunk that is its own emitable, such as a file chunk, is read and decoded on the emit
+ * thread and its elements are queued, anything else is queued as is. Every pipeline then drains the queue into its
+ * Output. A full queue stalls the emitters, an empty one the writers, both stall times are reported by status().
+ * A stalled stage parks with exponential backoff, so a queue that stays full or empty costs at most a wakeup per
+ * millisecond and thread, while a short stall is still noticed within microseconds.
+ *
+ * A chunk is acknowledged to the checkpoint log once every element queued from it has been written, and every writer
+ * has flushed its Output since. Each chunk that completes bumps a counter, a writer that sees the counter past its
+ * last flush flushes and records the count it flushed up to, and chunks are acknowledged up to the lowest count
+ * recorded by any writer.
+ */
+public class StagedScheduler {
+    private static final AtomicReference<StagedScheduler> running = new AtomicReference<>();
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final List<Pipeline> pipelines;
+    private final Runtime.PHASE phase;
+    private final Configuration config;
+    private final ParallelStreamProcessor processor;
+    private final ErrorHandler errorHandler;
+    private final RingBuffer<Staged> queue;
+    private final int emitThreads;
+    private final AtomicInteger emittersRunning;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AtomicLong queued = new AtomicLong(0);
+    private final AtomicLong written = new AtomicLong(0);
+    private final AtomicLong emitStallNanos = new AtomicLong(0);
+    private final AtomicLong writeStallNanos = new AtomicLong(0);
+    private final AtomicInteger maxDepth = new AtomicInteger(0);
+    private final AtomicLong completedChunks = new AtomicLong(0);
+    // chunks written but not acknowledged yet, in order of completion
+    private final Queue<ChunkTracker> completed = new ArrayDeque<>();
+    private final AtomicLongArray flushed;
+
+    private StagedScheduler(final ParallelStreamProcessor processor, final List<Pipeline> pipelines, final Runtime.PHASE phase, final Configuration config) {
+        this.processor = processor;
+        this.pipelines = pipelines;
+        this.phase = phase;
+        this.config = config;
+        this.errorHandler = RuntimeUtil.getErrorHandler(this, config);
+        this.queue = new RingBuffer<>(Integer.parseInt(LocalParallelStreamRuntime.CONFIG.getOrDefault(STAGED_QUEUE_SIZE, config)));
+        this.emitThreads = Math.max(1, Math.min(pipelines.size(),
+                Integer.parseInt(LocalParallelStreamRuntime.CONFIG.getOrDefault(STAGED_EMIT_THREADS, config))));
+        this.emittersRunning = new AtomicInteger(emitThreads);
+        this.flushed = new AtomicLongArray(pipelines.size());
+    }
+
+    public static StagedScheduler create(final ParallelStreamProcessor processor, final List<Pipeline> pipelines, final Runtime.PHASE phase, final Configuration config) {
+        return new StagedScheduler(processor, pipelines, phase, config);
+    }
+
+    // Stage metrics of the phase running in the staged executor, if there is one.
+    public static Optional<Map<String, Object>> runningStatus() {
+        return Optional.ofNullable(running.get()).map(StagedScheduler::status);
+    }
+
+    private static final class Staged {
+        private final Emitable emitable;
+        private final ChunkTracker chunk;
+
+        private Staged(final Emitable emitable, final ChunkTracker chunk) {
+            this.emitable = emitable;
+            this.chunk = chunk;
+        }
+    }
+
+    // counts the elements of a chunk still to be written, plus one held by the emitter until the chunk is read
+    private final class ChunkTracker {
+        private final WorkChunkDriver driver;
+        private final WorkChunk chunk;
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private long completion;
+
+        private ChunkTracker(final WorkChunkDriver driver, final WorkChunk chunk) {
+            this.driver = driver;
+            this.chunk = chunk;
+        }
+
+        private void release() {
+            if (pending.decrementAndGet() > 0)
+                return;
+            if (!driver.isCheckpointing()) {
+                driver.acknowledge(chunk);
+                return;
+            }
+            synchronized (completed) {
+                completion = completedChunks.incrementAndGet();
+                completed.add(this);
+            }
+        }
+    }
+
+    // Flushes the output of a writer that has not flushed since the last chunk completed.
+    private void flushIfBehind(final int writer, final Output output) {
+        final long completion = completedChunks.get();
+        if (completion <= flushed.get(writer))
+            return;
+        output.flush();
+        flushed.set(writer, completion);
+        acknowledgeFlushed();
+    }
+
+    private void acknowledgeFlushed() {
+        synchronized (completed) {
+            long upTo = Long.MAX_VALUE;
+            for (int i = 0; i < flushed.length(); i++) {
+                upTo = Math.min(upTo, flushed.get(i));
+            }
+            while (!completed.isEmpty() && completed.peek().completion <= upTo) {
+                final ChunkTracker chunk = completed.poll();
+                chunk.driver.acknowledge(chunk.chunk);
+            }
+        }
+    }
+
+    public void run() {
+        running.set(this);
+        final ExecutorService executor = Executors.newFixedThreadPool(emitThreads + pipelines.size());
+        try {
+            final List<Future<?>> stages = new ArrayList<>();
+            for (int i = 0; i < emitThreads; i++) {
+                final Pipeline pipeline = pipelines.get(i);
+                stages.add(executor.submit(() -> emit(pipeline)));
+            }
+            for (int i = 0; i < pipelines.size(); i++) {
+                final int writer = i;
+                stages.add(executor.submit(() -> write(writer, pipelines.get(writer).getOutput())));
+            }
+            for (final Future<?> stage : stages) {
+                stage.get();
+            }
+        } catch (Exception e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            executor.shutdown();
+            running.compareAndSet(this, null);
+            pipelines.forEach(RuntimeUtil::closeWrap);
+        }
+        if (failure.get() != null)
+            throw errorHandler.handleFatalError(failure.get(), phase);
+    }
+
+    private void emit(final Pipeline pipeline) {
+        processor.maxRunningTasks.getAndUpdate(existingMax -> Math.max(existingMax, processor.runningTasks.incrementAndGet()));
+        PipelineProfiler.register("staged-emit");
+        try {
+            final Emitter emitter = pipeline.getEmitter();
+            final WorkChunkDriver driver = (WorkChunkDriver) RuntimeUtil.lookupOrLoad(WorkChunkDriver.class, config);
+            final Iterator<Emitable> emitables = MetricsRegistry.timeFetches(emitter.stream(driver, phase).iterator(), pipeline.getOutput(), driver.getClass().getSimpleName());
+            // the chunk handed out to this thread that the elements of the emitter come from, if the driver records it
+            ChunkTracker handedOut = null;
+            while (emitables.hasNext() && failure.get() == null) {
+                final Emitable emitable = emitables.next();
+                if (!(emitable instanceof WorkChunk)) {
+                    handedOut = advance(driver, handedOut);
+                    if (handedOut != null)
+                        handedOut.pending.incrementAndGet();
+                    enqueue(new Staged(emitable, handedOut));
+                    continue;
+                }
+                final ChunkTracker chunk = new ChunkTracker(driver, (WorkChunk) emitable);
+                try (final Stream<Emitable> elements = emitable.emit(pipeline.getOutput())) {
+                    final Iterator<Emitable> iterator = elements.iterator();
+                    while (iterator.hasNext() && failure.get() == null) {
+                        chunk.pending.incrementAndGet();
+                        enqueue(new Staged(iterator.next(), chunk));
+                    }
+                }
+                if (failure.get() == null)
+                    chunk.release();
+            }
+            if (failure.get() == null) {
+                handedOut = advance(driver, handedOut);
+                if (handedOut != null)
+                    handedOut.release();
+            }
+        } catch (Exception e) {
+            failure.compareAndSet(null, RuntimeUtil.getErrorHandler(pipeline.getOutput(), config).handleError(e, pipeline.getOutput()));
+        } finally {
+            emittersRunning.decrementAndGet();
+            processor.runningTasks.decrementAndGet();
+            PipelineProfiler.unregister();
+        }
+    }
+
+    /*
+     * Once the driver hands this thread another chunk, the emitter is done with the one before: its tracker, and those
+     * of chunks that produced no elements at all, are released. Returns the tracker of the chunk now being emitted.
+     */
+    private ChunkTracker advance(final WorkChunkDriver driver, final ChunkTracker current) {
+        if (!driver.isCheckpointing())
+            return current;
+        final List<WorkChunk> handedOut = driver.takeHandedOut();
+        if (handedOut.isEmpty())
+            return current;
+        if (current != null)
+            current.release();
+        for (int i = 0; i < handedOut.size() - 1; i++) {
+            new ChunkTracker(driver, handedOut.get(i)).release();
+        }
+        return new ChunkTracker(driver, handedOut.get(handedOut.size() - 1));
+    }
+
+    private void enqueue(final Staged staged) {
+        if (!queue.offer(staged)) {
+            final long start = System.nanoTime();
+            long park = MIN_PARK_NANOS;
+            while (!queue.offer(staged)) {
+                if (failure.get() != null)
+                    return;
+                park = backOff(park);
+            }
+            emitStallNanos.addAndGet(System.nanoTime() - start);
+        }
+        queued.incrementAndGet();
+        final int depth = queue.size();
+        maxDepth.getAndUpdate(it -> Math.max(it, depth));
+    }
+
+    // parks for the given time and returns the time to park for next, doubled up to MAX_PARK_NANOS
+    private static long backOff(final long park) {
+        LockSupport.parkNanos(park);
+        return Math.min(MAX_PARK_NANOS, park * 2);
+    }
+
+    private void write(final int writer, final Output output) {
+        processor.maxRunningTasks.getAndUpdate(existingMax -> Math.max(existingMax, processor.runningTasks.incrementAndGet()));
+        PipelineProfiler.register("staged-write");
+        try {
+            final boolean checkpointing = ((WorkChunkDriver) RuntimeUtil.lookupOrLoad(WorkChunkDriver.class, config)).isCheckpointing();
+            while (failure.get() == null) {
+                Staged staged = queue.poll();
+                if (staged == null) {
+                    final long start = System.nanoTime();
+                    long park = MIN_PARK_NANOS;
+                    // the emitters finish before their last element is polled, check the queue once more after
+                    while ((staged = queue.poll()) == null && emittersRunning.get() > 0 && failure.get() == null) {
+                        flushIfBehind(writer, output);
+                        park = backOff(park);
+                    }
+                    if (staged == null && (staged = queue.poll()) == null)
+                        break;
+                    writeStallNanos.addAndGet(System.nanoTime() - start);
+                }
+                ParallelStreamProcessor.processEmitable(staged.emitable, output);
+                written.incrementAndGet();
+                if (staged.chunk != null)
+                    staged.chunk.release();
+                flushIfBehind(writer, output);
+            }
+            if (failure.get() != null)
+                return;
+            // nothing more is written here, what this writer wrote since its last flush may belong to chunks still being completed
+            if (checkpointing)
+                output.flush();
+            flushed.set(writer, Long.MAX_VALUE);
+            acknowledgeFlushed();
+        } catch (Exception e) {
+            failure.compareAndSet(null, RuntimeUtil.getErrorHandler(output, config).handleError(e, output));
+        } finally {
+            processor.runningTasks.decrementAndGet();
+            PipelineProfiler.unregister();
+        }
+    }
+
+    public Map<String, Object> status() {
+        return new HashMap<>() {{
+            put("EMIT", Map.of(
+                    "THREADS", emitThreads,
+                    "RUNNING", emittersRunning.get(),
+                    "QUEUED", queued.get(),
+                    "STALL_MS", TimeUnit.NANOSECONDS.toMillis(emitStallNanos.get())));
+            put("WRITE", Map.of(
+                    "THREADS", pipelines.size(),
+                    "WRITTEN", written.get(),
+                    "STALL_MS", TimeUnit.NANOSECONDS.toMillis(writeStallNanos.get())));
+            put("QUEUE", Map.of(
+                    "DEPTH", queue.size(),
+                    "MAX_DEPTH", maxDepth.get(),
+                    "CAPACITY", queue.capacity()));
+        }};
+    }
+}
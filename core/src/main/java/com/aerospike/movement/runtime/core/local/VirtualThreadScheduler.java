@@ -0,0 +1,167 @@
+package com.aerospike.movement.runtime.core.local;
+
+import com.aerospike.movement.emitter.core.Emitable;
+import com.aerospike.movement.emitter.core.Emitter;
+import com.aerospike.movement.output.core.ConcurrentOutput;
+import com.aerospike.movement.output.core.Output;
+import com.aerospike.movement.runtime.core.Pipeline;
+import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.driver.WorkChunkDriver;
+import com.aerospike.movement.util.core.error.ErrorHandler;
+import com.aerospike.movement.util.core.metrics.MetricsRegistry;
+import com.aerospike.movement.util.core.runtime.RuntimeUtil;
+import org.apache.commons.configuration2.Configuration;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Runs each pipeline, and the walk of every element its emitter produces, as its own task on a virtual thread.
+ * Elements are walked depth first with ParallelStreamProcessor.processEmitable, as the pipeline executor does.
+ * The number of elements in flight is bounded by runtime.maxInFlight, status() reports how many are in flight and
+ * the peak. Blocking on remote writes parks the virtual thread instead of a platform thread, so thousands of writes
+ * can be outstanding at once.
+ * Elements of a pipeline share its Output concurrently, so this mode only runs outputs that implement
+ * ConcurrentOutput, such as TinkerPopTraversalOutput, and refuses any other before the phase starts.
+ */
+public class VirtualThreadScheduler {
+    private static final String VIRTUAL_EXECUTOR_FACTORY = "newVirtualThreadPerTaskExecutor";
+    private static final AtomicReference<VirtualThreadScheduler> running = new AtomicReference<>();
+
+    private final List<Pipeline> pipelines;
+    private final Runtime.PHASE phase;
+    private final Configuration config;
+    private final ParallelStreamProcessor processor;
+    private final ErrorHandler errorHandler;
+    private final int maxInFlight;
+    private final Semaphore inFlightPermits;
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final AtomicInteger peakInFlight = new AtomicInteger(0);
+    private final AtomicLong pending = new AtomicLong(1);
+    private final CompletableFuture<Void> drained = new CompletableFuture<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private VirtualThreadScheduler(final ParallelStreamProcessor processor, final List<Pipeline> pipelines, final Runtime.PHASE phase, final Configuration config) {
+        this.processor = processor;
+        this.pipelines = pipelines;
+        this.phase = phase;
+        this.config = config;
+        this.errorHandler = RuntimeUtil.getErrorHandler(this, config);
+        this.maxInFlight = Integer.parseInt(LocalParallelStreamRuntime.CONFIG.getOrDefault(LocalParallelStreamRuntime.Config.Keys.MAX_IN_FLIGHT, config));
+        this.inFlightPermits = new Semaphore(maxInFlight);
+    }
+
+    public static VirtualThreadScheduler create(final ParallelStreamProcessor processor, final List<Pipeline> pipelines, final Runtime.PHASE phase, final Configuration config) {
+        return new VirtualThreadScheduler(processor, pipelines, phase, config);
+    }
+
+    // In flight counters of the phase running in the virtual executor, if there is one.
+    public static Optional<Map<String, Object>> runningStatus() {
+        return Optional.ofNullable(running.get()).map(VirtualThreadScheduler::status);
+    }
+
+    /*
+     * Virtual threads are only available on Java 21+, the build targets 11, so they are looked up reflectively.
+     * On older runtimes this falls back to an unbounded cached pool, concurrency is still capped by runtime.maxInFlight.
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod(VIRTUAL_EXECUTOR_FACTORY).invoke(null);
+        } catch (ReflectiveOperationException e) {
+            RuntimeUtil.getLogger(VirtualThreadScheduler.class).warn("virtual threads are not available on this JVM, falling back to platform threads");
+            return Executors.newCachedThreadPool(runnable -> {
+                final Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public void run() {
+        pipelines.stream()
+                .map(Pipeline::getOutput)
+                .filter(output -> !(output instanceof ConcurrentOutput))
+                .findFirst()
+                .ifPresent(output -> {
+                    throw errorHandler.handleFatalError(new IllegalStateException(String.format(
+                            "%s=%s needs an output that accepts concurrent writers, %s does not",
+                            LocalParallelStreamRuntime.Config.Keys.EXECUTOR,
+                            LocalParallelStreamRuntime.Config.Executor.VIRTUAL.name().toLowerCase(),
+                            output.getClass().getName())), phase);
+                });
+        running.set(this);
+        final ExecutorService executor = newVirtualThreadExecutor();
+        try {
+            final List<Future<?>> producers = new ArrayList<>();
+            pipelines.forEach(pipeline -> producers.add(executor.submit(() -> produce(executor, pipeline))));
+            for (final Future<?> producer : producers) {
+                producer.get();
+            }
+            complete();
+            drained.get();
+        } catch (InterruptedException | ExecutionException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            executor.shutdown();
+            running.compareAndSet(this, null);
+            pipelines.forEach(RuntimeUtil::closeWrap);
+        }
+        if (failure.get() != null)
+            throw errorHandler.handleFatalError(failure.get(), phase);
+    }
+
+    private void produce(final ExecutorService executor, final Pipeline pipeline) {
+        processor.maxRunningTasks.getAndUpdate(existingMax -> Math.max(existingMax, processor.runningTasks.incrementAndGet()));
+        try {
+            final Emitter emitter = pipeline.getEmitter();
+            final WorkChunkDriver driver = (WorkChunkDriver) RuntimeUtil.lookupOrLoad(WorkChunkDriver.class, config);
+            dispatch(executor, MetricsRegistry.timeFetches(emitter.stream(driver, phase).iterator(), pipeline.getOutput(), driver.getClass().getSimpleName()), pipeline.getOutput());
+        } catch (Exception e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            processor.runningTasks.decrementAndGet();
+        }
+    }
+
+    private void dispatch(final ExecutorService executor, final Iterator<Emitable> emitables, final Output output) throws InterruptedException {
+        while (emitables.hasNext() && failure.get() == null) {
+            final Emitable emitable = emitables.next();
+            inFlightPermits.acquire();
+            peakInFlight.getAndUpdate(peak -> Math.max(peak, inFlight.incrementAndGet()));
+            pending.incrementAndGet();
+            executor.execute(() -> emit(emitable, output));
+        }
+    }
+
+    // the walk does not fan out, so the permit is held until the whole element has been written
+    private void emit(final Emitable emitable, final Output output) {
+        try {
+            ParallelStreamProcessor.processEmitable(emitable, output);
+        } catch (Exception e) {
+            failure.compareAndSet(null, RuntimeUtil.getErrorHandler(output, config).handleError(e, output));
+        } finally {
+            inFlight.decrementAndGet();
+            inFlightPermits.release();
+            complete();
+        }
+    }
+
+    public Map<String, Object> status() {
+        return Map.of(
+                "LIMIT", maxInFlight,
+                "IN_FLIGHT", inFlight.get(),
+                "PEAK_IN_FLIGHT", peakInFlight.get());
+    }
+
+    private void complete() {
+        if (pending.decrementAndGet() == 0)
+            drained.complete(null);
+    }
+}
@@ -0,0 +1,182 @@
+package com.aerospike.movement.runtime.core.local;
+
+import com.aerospike.movement.emitter.core.Emitable;
+import com.aerospike.movement.output.core.Output;
+import com.aerospike.movement.runtime.core.Pipeline;
+import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.driver.WorkChunkDriver;
+import com.aerospike.movement.util.core.error.ErrorHandler;
+import com.aerospike.movement.util.core.metrics.MetricsRegistry;
+import com.aerospike.movement.util.core.runtime.RuntimeUtil;
+import org.apache.commons.configuration2.Configuration;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/*
+ * Schedules batches of Emitables as ForkJoin tasks instead of pinning each Pipeline to a thread.
+ * One producer per pipeline pulls from the emitter stream, batches of emitted elements are forked so idle
+ * workers can steal them, and the tail of a skewed phase is spread across all cores. Each element is then walked
+ * depth first by the worker that runs its batch, with ParallelStreamProcessor.processEmitable, as the pipeline
+ * executor does.
+ * Outputs are not shared between threads: each worker thread borrows the Output of one pipeline for its lifetime.
+ */
+public class WorkStealingScheduler {
+    // Once a worker has this many unclaimed tasks queued, batches are run inline rather than forked.
+    private static final int MAX_SURPLUS_TASKS = 4;
+
+    private final List<Pipeline> pipelines;
+    private final Runtime.PHASE phase;
+    private final Configuration config;
+    private final ParallelStreamProcessor processor;
+    private final ErrorHandler errorHandler;
+    private final int batchSize;
+    private final ConcurrentLinkedQueue<Output> idleOutputs;
+
+    private WorkStealingScheduler(final ParallelStreamProcessor processor, final List<Pipeline> pipelines, final Runtime.PHASE phase, final Configuration config) {
+        this.processor = processor;
+        this.pipelines = pipelines;
+        this.phase = phase;
+        this.config = config;
+        this.errorHandler = RuntimeUtil.getErrorHandler(this, config);
+        this.batchSize = RuntimeUtil.getBatchSize(config);
+        this.idleOutputs = new ConcurrentLinkedQueue<>();
+    }
+
+    public static WorkStealingScheduler create(final ParallelStreamProcessor processor, final List<Pipeline> pipelines, final Runtime.PHASE phase, final Configuration config) {
+        return new WorkStealingScheduler(processor, pipelines, phase, config);
+    }
+
+    public void run() {
+        pipelines.forEach(pipeline -> idleOutputs.add(pipeline.getOutput()));
+        final ForkJoinPool pool = new ForkJoinPool(pipelines.size(), PipelineWorker::new, null, false);
+        try {
+            pool.invoke(new PhaseTask());
+        } catch (Exception e) {
+            throw errorHandler.handleFatalError(e, phase);
+        } finally {
+            pool.shutdown();
+            pipelines.forEach(RuntimeUtil::closeWrap);
+        }
+    }
+
+    private class PipelineWorker extends ForkJoinWorkerThread {
+        private Output output;
+
+        private PipelineWorker(final ForkJoinPool pool) {
+            super(pool);
+        }
+
+        @Override
+        protected void onStart() {
+            super.onStart();
+            // Compensation threads may outnumber pipelines, give them their own Output.
+            output = idleOutputs.poll();
+            if (output == null)
+                output = RuntimeUtil.loadOutput(config);
+            MetricsRegistry.bind(MetricsRegistry.of(output));
+            PipelineProfiler.register("worker");
+        }
+
+        @Override
+        protected void onTermination(final Throwable exception) {
+            idleOutputs.add(output);
+            PipelineProfiler.unregister();
+            super.onTermination(exception);
+        }
+    }
+
+    private static Output currentOutput() {
+        return ((PipelineWorker) Thread.currentThread()).output;
+    }
+
+    private class PhaseTask extends CountedCompleter<Void> {
+        @Override
+        public void compute() {
+            setPendingCount(pipelines.size());
+            pipelines.forEach(pipeline -> new ProducerTask(this, pipeline).fork());
+            tryComplete();
+        }
+    }
+
+    private abstract class BatchingTask extends CountedCompleter<Void> {
+        protected BatchingTask(final CountedCompleter<?> completer) {
+            super(completer);
+        }
+
+        protected void dispatch(final Iterator<Emitable> emitables) {
+            List<Emitable> batch = new ArrayList<>(batchSize);
+            while (emitables.hasNext()) {
+                batch.add(emitables.next());
+                if (batch.size() >= batchSize) {
+                    dispatch(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty())
+                dispatch(batch);
+        }
+
+        private void dispatch(final List<Emitable> batch) {
+            if (ForkJoinTask.getSurplusQueuedTaskCount() < MAX_SURPLUS_TASKS) {
+                addToPendingCount(1);
+                new EmitTask(this, batch).fork();
+            } else {
+                process(batch);
+            }
+        }
+
+        protected void process(final List<Emitable> batch) {
+            final Output output = currentOutput();
+            for (final Emitable emitable : batch) {
+                try {
+                    ParallelStreamProcessor.processEmitable(emitable, output);
+                } catch (final Exception e) {
+                    throw RuntimeUtil.getErrorHandler(output, config).handleFatalError(e, output);
+                }
+            }
+        }
+    }
+
+    private class ProducerTask extends BatchingTask {
+        private final Pipeline pipeline;
+
+        private ProducerTask(final CountedCompleter<?> completer, final Pipeline pipeline) {
+            super(completer);
+            this.pipeline = pipeline;
+        }
+
+        @Override
+        public void compute() {
+            processor.maxRunningTasks.getAndUpdate(existingMax -> Math.max(existingMax, processor.runningTasks.incrementAndGet()));
+            try {
+                final WorkChunkDriver driver = (WorkChunkDriver) RuntimeUtil.lookupOrLoad(WorkChunkDriver.class, config);
+                dispatch(MetricsRegistry.timeFetches(pipeline.getEmitter().stream(driver, phase).iterator(), pipeline.getOutput(), driver.getClass().getSimpleName()));
+            } finally {
+                processor.runningTasks.decrementAndGet();
+            }
+            tryComplete();
+        }
+    }
+
+    private class EmitTask extends BatchingTask {
+        private final List<Emitable> batch;
+
+        private EmitTask(final CountedCompleter<?> completer, final List<Emitable> batch) {
+            super(completer);
+            this.batch = batch;
+        }
+
+        @Override
+        public void compute() {
+            process(batch);
+            tryComplete();
+        }
+    }
+}
@@ -9,6 +9,8 @@ package com.aerospike.movement.structure.core.graph;
 
 import com.aerospike.movement.structure.core.EmittedId;
 
+import java.util.function.Function;
+
 public interface EmittedEdge extends EmitableGraphElement {
 
     String LABEL = "~label";
@@ -19,13 +21,18 @@ public interface EmittedEdge extends EmitableGraphElement {
 
     EmittedId toId();
     static String getFieldFromEdge(EmittedEdge edge, String field) {
+        return fieldAccessor(field).apply(edge);
+    }
+
+    // resolves which part of an edge a field names once, for callers that read the same field from many edges
+    static Function<EmittedEdge, String> fieldAccessor(String field) {
         if (field.equals(LABEL))
-            return edge.label();
+            return EmittedEdge::label;
         if (field.equals(TO))
-            return String.valueOf(edge.toId().unwrap());
+            return edge -> String.valueOf(edge.toId().unwrap());
         if (field.equals(FROM))
-            return String.valueOf(edge.fromId().unwrap());
+            return edge -> String.valueOf(edge.fromId().unwrap());
         else
-            return String.valueOf(edge.propertyValue(field).orElse(""));
+            return edge -> String.valueOf(edge.propertyValue(field).orElse(""));
     }
 }
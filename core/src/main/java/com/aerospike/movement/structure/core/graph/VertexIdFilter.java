@@ -0,0 +1,191 @@
+package com.aerospike.movement.structure.core.graph;
+
+import com.aerospike.movement.config.core.ConfigurationBase;
+import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.driver.CheckpointLog;
+import com.aerospike.movement.util.core.configuration.ConfigUtil;
+import com.aerospike.movement.util.core.runtime.RuntimeUtil;
+import org.apache.commons.configuration2.Configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Bloom filter of the vertex ids written in PHASE.ONE, so PHASE.TWO encoders dropping dangling edges can reject an
+ * edge whose endpoint was definitely never written without asking the output. Ids are hashed by their string form,
+ * so the same id emitted as an Integer in one phase and a Long or String in the other still matches.
+ *
+ * The filter only knows about vertices written by this process in this job. It is consulted once a PHASE.ONE has
+ * completed here, and never when a checkpoint log is configured, since a resumed PHASE.ONE skips the chunks it had
+ * already written. Only enable it when the output graph starts out empty.
+ */
+public class VertexIdFilter {
+    public static class Config extends ConfigurationBase {
+        public static final Config INSTANCE = new Config();
+
+        private Config() {
+            super();
+        }
+
+        @Override
+        public Map<String, String> defaultConfigMap(final Map<String, Object> config) {
+            return DEFAULTS;
+        }
+
+        @Override
+        public List<String> getKeys() {
+            return ConfigUtil.getKeysFromClass(Config.Keys.class);
+        }
+
+        public static class Keys {
+            public static final String ENABLED = "dangling.filter.enabled";
+            public static final String EXPECTED_VERTICES = "dangling.filter.expectedVertices";
+            public static final String FALSE_POSITIVE_RATE = "dangling.filter.falsePositiveRate";
+        }
+
+        private static final Map<String, String> DEFAULTS = new HashMap<>() {{
+            put(Keys.ENABLED, "false");
+            put(Keys.EXPECTED_VERTICES, "1000000");
+            put(Keys.FALSE_POSITIVE_RATE, "0.01");
+        }};
+    }
+
+    private static final AtomicInteger users = new AtomicInteger(0);
+    private static volatile VertexIdFilter shared = null;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashes;
+    private final long expected;
+    private final AtomicLong added = new AtomicLong(0);
+    private final AtomicLong rejected = new AtomicLong(0);
+    private volatile boolean complete = false;
+
+    public VertexIdFilter(final long expectedVertices, final double falsePositiveRate) {
+        this.expected = Math.max(1, expectedVertices);
+        final double optimalBits = -expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.bits = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE - 8, (long) Math.ceil(optimalBits / Long.SIZE)));
+        this.bitCount = (long) bits.length() * Long.SIZE;
+        this.hashes = (int) Math.max(1, Math.round(bitCount / (double) expected * Math.log(2)));
+    }
+
+    /*
+     * The filter shared by the encoders of this process, if enabled. A PHASE.ONE encoder opening after a completed
+     * PHASE.ONE starts a new filter for the new job, and closing the runtime discards it.
+     */
+    public static Optional<VertexIdFilter> acquire(final Configuration config) {
+        if (!Boolean.parseBoolean(Config.INSTANCE.getOrDefault(Config.Keys.ENABLED, config)))
+            return Optional.empty();
+        if (!((String) CheckpointLog.Config.INSTANCE.getOrDefault(CheckpointLog.Config.Keys.PATH, config)).isEmpty()) {
+            RuntimeUtil.getLogger(VertexIdFilter.class).info("checkpointing is on, dangling edge filter disabled");
+            return Optional.empty();
+        }
+        synchronized (users) {
+            final boolean phaseOne = RuntimeUtil.getCurrentPhase(config).equals(Runtime.PHASE.ONE);
+            if (shared == null || (phaseOne && shared.complete))
+                shared = new VertexIdFilter(
+                        Long.parseLong(Config.INSTANCE.getOrDefault(Config.Keys.EXPECTED_VERTICES, config)),
+                        Double.parseDouble(Config.INSTANCE.getOrDefault(Config.Keys.FALSE_POSITIVE_RATE, config)));
+            users.incrementAndGet();
+            return Optional.of(shared);
+        }
+    }
+
+    // PHASE.ONE encoders mark the filter complete as they close, the last PHASE.TWO encoder to close discards it
+    public static void release(final VertexIdFilter filter, final Configuration config) {
+        synchronized (users) {
+            final Runtime.PHASE phase = RuntimeUtil.getCurrentPhase(config);
+            if (phase.equals(Runtime.PHASE.ONE))
+                filter.complete = true;
+            if (users.decrementAndGet() == 0 && phase.equals(Runtime.PHASE.TWO) && shared == filter)
+                shared = null;
+        }
+    }
+
+    public static void close() {
+        synchronized (users) {
+            shared = null;
+            users.set(0);
+        }
+    }
+
+    public static Optional<VertexIdFilter> current() {
+        return Optional.ofNullable(shared);
+    }
+
+    // 64 bit FNV-1a of the id as a string, split into two halves for double hashing
+    private static long hash(final Object id) {
+        long hash = 0xcbf29ce484222325L;
+        for (final byte b : String.valueOf(id).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private long bit(final long hash, final int i) {
+        final long combined = (hash >>> 32) + i * (hash & 0xffffffffL);
+        return (combined & Long.MAX_VALUE) % bitCount;
+    }
+
+    public void add(final Object id) {
+        final long hash = hash(id);
+        for (int i = 0; i < hashes; i++) {
+            final long bit = bit(hash, i);
+            final int word = (int) (bit >>> 6);
+            final long mask = 1L << bit;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) ;
+        }
+        added.incrementAndGet();
+    }
+
+    // false only if no vertex with this id was written in a completed PHASE.ONE
+    public boolean mightContain(final Object id) {
+        if (!complete)
+            return true;
+        final long hash = hash(id);
+        for (int i = 0; i < hashes; i++) {
+            final long bit = bit(hash, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                rejected.incrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public long sizeBytes() {
+        return bitCount / Byte.SIZE;
+    }
+
+    // expected false positive rate for the number of ids added so far
+    public double falsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashes * (double) added.get() / bitCount), hashes);
+    }
+
+    public Map<String, Object> status() {
+        return new HashMap<>() {{
+            put("COMPLETE", complete);
+            put("VERTICES", added.get());
+            put("EXPECTED_VERTICES", expected);
+            put("SIZE_BYTES", sizeBytes());
+            put("HASHES", hashes);
+            put("FALSE_POSITIVE_RATE", falsePositiveRate());
+            put("REJECTED_ENDPOINTS", rejected.get());
+        }};
+    }
+}
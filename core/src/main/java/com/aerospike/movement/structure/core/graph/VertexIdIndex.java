@@ -0,0 +1,176 @@
+package com.aerospike.movement.structure.core.graph;
+
+import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.util.core.index.OffHeapLongLongMap;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Maps the id a vertex was emitted with to its id in the output, recorded as PHASE.ONE writes vertices so PHASE.TWO
+ * can resolve edge endpoints without asking the output. Entries live off heap in an OffHeapLongLongMap, so only
+ * numeric ids are indexed: Long, Integer, and Strings holding a long in canonical form. The first id recorded fixes
+ * the id type on each side, ids of another type are not indexed and have to be looked up as before.
+ *
+ * Outputs share one index per process, acquire() it when they open and release() it when they close. The index is
+ * emptied when the last user releases it at the end of PHASE.TWO, when a PHASE.ONE opens it after another PHASE.ONE
+ * completed, and when the runtime closes, so no job resolves edges against the vertices of an earlier one.
+ */
+public class VertexIdIndex {
+    public enum IdCodec {
+        LONG {
+            @Override
+            boolean accepts(final Object id) {
+                return id instanceof Long;
+            }
+
+            @Override
+            long encode(final Object id) {
+                return (Long) id;
+            }
+
+            @Override
+            Object decode(final long value) {
+                return value;
+            }
+        },
+        INTEGER {
+            @Override
+            boolean accepts(final Object id) {
+                return id instanceof Integer;
+            }
+
+            @Override
+            long encode(final Object id) {
+                return (Integer) id;
+            }
+
+            @Override
+            Object decode(final long value) {
+                return (int) value;
+            }
+        },
+        NUMERIC_STRING {
+            @Override
+            boolean accepts(final Object id) {
+                if (!(id instanceof String))
+                    return false;
+                final String string = (String) id;
+                try {
+                    return Long.toString(Long.parseLong(string)).equals(string);
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+
+            @Override
+            long encode(final Object id) {
+                return Long.parseLong((String) id);
+            }
+
+            @Override
+            Object decode(final long value) {
+                return Long.toString(value);
+            }
+        };
+
+        abstract boolean accepts(Object id);
+
+        abstract long encode(Object id);
+
+        abstract Object decode(long value);
+
+        public static Optional<IdCodec> of(final Object id) {
+            for (final IdCodec codec : values()) {
+                if (codec.accepts(id))
+                    return Optional.of(codec);
+            }
+            return Optional.empty();
+        }
+    }
+
+    private static final VertexIdIndex SHARED = new VertexIdIndex(1 << 16);
+    private static final AtomicInteger users = new AtomicInteger(0);
+    private static boolean phaseOneComplete = false;
+
+    private final OffHeapLongLongMap map;
+    private final AtomicReference<IdCodec> keyCodec = new AtomicReference<>();
+    private final AtomicReference<IdCodec> valueCodec = new AtomicReference<>();
+
+    public VertexIdIndex(final long expectedEntries) {
+        this.map = new OffHeapLongLongMap(expectedEntries);
+    }
+
+    public static VertexIdIndex acquire(final Runtime.PHASE phase) {
+        synchronized (users) {
+            if (phase.equals(Runtime.PHASE.ONE) && phaseOneComplete) {
+                SHARED.clear();
+                phaseOneComplete = false;
+            }
+            users.incrementAndGet();
+            return SHARED;
+        }
+    }
+
+    public static void release(final Runtime.PHASE phase) {
+        synchronized (users) {
+            if (users.decrementAndGet() > 0)
+                return;
+            if (phase.equals(Runtime.PHASE.ONE)) {
+                phaseOneComplete = true;
+            } else {
+                SHARED.clear();
+                phaseOneComplete = false;
+            }
+        }
+    }
+
+    public static void close() {
+        synchronized (users) {
+            SHARED.clear();
+            users.set(0);
+            phaseOneComplete = false;
+        }
+    }
+
+    private static Optional<IdCodec> codecFor(final AtomicReference<IdCodec> codec, final Object id) {
+        final IdCodec current = codec.get();
+        if (current != null)
+            return current.accepts(id) ? Optional.of(current) : Optional.empty();
+        return IdCodec.of(id).map(it -> codec.compareAndSet(null, it) || codec.get() == it ? it : null);
+    }
+
+    // returns false if either id cannot be indexed
+    public boolean put(final Object emittedId, final Object outputId) {
+        final Optional<IdCodec> key = codecFor(keyCodec, emittedId);
+        final Optional<IdCodec> value = codecFor(valueCodec, outputId);
+        if (key.isEmpty() || value.isEmpty())
+            return false;
+        final long encodedKey = key.get().encode(emittedId);
+        if (encodedKey == OffHeapLongLongMap.EMPTY)
+            return false;
+        map.put(encodedKey, value.get().encode(outputId));
+        return true;
+    }
+
+    public Optional<Object> get(final Object emittedId) {
+        final IdCodec key = keyCodec.get();
+        final IdCodec value = valueCodec.get();
+        if (key == null || value == null || !key.accepts(emittedId))
+            return Optional.empty();
+        final OptionalLong outputId = map.get(key.encode(emittedId));
+        return outputId.isPresent() ? Optional.of(value.decode(outputId.getAsLong())) : Optional.empty();
+    }
+
+    public long size() {
+        return map.size();
+    }
+
+    public void clear() {
+        map.clear();
+        keyCodec.set(null);
+        valueCodec.set(null);
+    }
+}
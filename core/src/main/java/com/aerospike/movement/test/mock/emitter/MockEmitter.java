@@ -11,6 +11,7 @@ import com.aerospike.movement.emitter.core.Emitable;
 import com.aerospike.movement.emitter.core.Emitter;
 import com.aerospike.movement.runtime.core.local.Loadable;
 import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.driver.LongRangeWorkChunk;
 import com.aerospike.movement.runtime.core.driver.WorkChunkDriver;
 import com.aerospike.movement.test.mock.MockUtil;
 import com.aerospike.movement.test.mock.output.MockOutput;
@@ -22,6 +23,7 @@ import org.apache.commons.configuration2.Configuration;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 public class MockEmitter extends Loadable implements Emitter {
@@ -72,8 +74,10 @@ public class MockEmitter extends Loadable implements Emitter {
         return Stream.iterate(wcd.getNext(), wc -> wc.isPresent(), i -> wcd.getNext())
                 .filter(Optional::isPresent)
                 .map(Optional::get)
-                .flatMap(wc -> wc.stream())
-                .map(id -> new MockEmitable(id, false, config));
+                .flatMap(wc -> LongRangeWorkChunk.class.isAssignableFrom(wc.getClass()) ?
+                        LongStream.range(((LongRangeWorkChunk) wc).start(), ((LongRangeWorkChunk) wc).end())
+                                .mapToObj(id -> new MockEmitable(id, false, config)) :
+                        wc.stream().map(id -> new MockEmitable(id, false, config)));
     }
 
 
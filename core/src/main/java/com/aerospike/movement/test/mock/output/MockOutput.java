@@ -11,7 +11,7 @@ import com.aerospike.movement.config.core.ConfigurationBase;
 import com.aerospike.movement.emitter.core.Emitable;
 import com.aerospike.movement.emitter.core.Emitter;
 import com.aerospike.movement.encoding.core.Encoder;
-import com.aerospike.movement.output.core.Output;
+import com.aerospike.movement.output.core.ConcurrentOutput;
 import com.aerospike.movement.output.core.OutputWriter;
 import com.aerospike.movement.runtime.core.local.Loadable;
 import com.aerospike.movement.runtime.core.Runtime;
@@ -26,7 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
-public class MockOutput extends Loadable implements Output, OutputWriter {
+public class MockOutput extends Loadable implements ConcurrentOutput, OutputWriter {
     public static class Config extends ConfigurationBase {
         public static final Config INSTANCE = new Config();
 
@@ -0,0 +1,194 @@
+package com.aerospike.movement.util.core.index;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/*
+ * A long -> long hash map kept in direct ByteBuffers, so billions of entries put no load on the garbage collector.
+ * Keys are spread over segments, each an open addressing table with linear probing that doubles when it is three
+ * quarters full. Writers lock their segment, readers take an optimistic read and retry under the lock only if a
+ * write raced with them. Long.MIN_VALUE marks an empty slot and cannot be used as a key.
+ */
+public class OffHeapLongLongMap {
+    public static final long EMPTY = Long.MIN_VALUE;
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+    private static final int SEGMENTS = 64;
+    // capacity is counted in slots per segment, a slot is a key and a value
+    private static final int MAX_SEGMENT_CAPACITY = Integer.MAX_VALUE / ENTRY_BYTES + 1 >>> 1;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final AtomicLong size = new AtomicLong(0);
+
+    public OffHeapLongLongMap(final long expectedEntries) {
+        final long perSegment = Math.max(16, expectedEntries / SEGMENTS * 4 / 3 + 1);
+        final int capacity = (int) Math.min(MAX_SEGMENT_CAPACITY, Long.highestOneBit(perSegment - 1) << 1);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(capacity);
+        }
+    }
+
+    // murmur3 finalizer, the segment comes from the high bits and the slot from the low bits
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private Segment segment(final long hash) {
+        return segments[(int) (hash >>> 58) & (SEGMENTS - 1)];
+    }
+
+    // returns true if the key was not present before
+    public boolean put(final long key, final long value) {
+        if (key == EMPTY)
+            throw new IllegalArgumentException("Long.MIN_VALUE cannot be used as a key");
+        final long hash = mix(key);
+        final boolean added = segment(hash).put(key, hash, value);
+        if (added)
+            size.incrementAndGet();
+        return added;
+    }
+
+    public OptionalLong get(final long key) {
+        if (key == EMPTY)
+            return OptionalLong.empty();
+        final long hash = mix(key);
+        return segment(hash).get(key, hash);
+    }
+
+    public long size() {
+        return size.get();
+    }
+
+    // bytes of direct memory held by the tables
+    public long capacityBytes() {
+        long bytes = 0;
+        for (final Segment segment : segments) {
+            bytes += (long) segment.capacity * ENTRY_BYTES;
+        }
+        return bytes;
+    }
+
+    public void clear() {
+        for (final Segment segment : segments) {
+            segment.clear();
+        }
+        size.set(0);
+    }
+
+    private static class Segment {
+        private final StampedLock lock = new StampedLock();
+        private final int initialCapacity;
+        private ByteBuffer table;
+        private int capacity;
+        private int used;
+
+        private Segment(final int capacity) {
+            this.initialCapacity = capacity;
+            allocate(capacity);
+        }
+
+        private void allocate(final int capacity) {
+            this.capacity = capacity;
+            this.used = 0;
+            this.table = ByteBuffer.allocateDirect(capacity * ENTRY_BYTES).order(ByteOrder.nativeOrder());
+            for (int slot = 0; slot < capacity; slot++) {
+                table.putLong(slot * ENTRY_BYTES, EMPTY);
+            }
+        }
+
+        private static int find(final ByteBuffer table, final int capacity, final long key, final long hash) {
+            int slot = (int) hash & (capacity - 1);
+            while (true) {
+                final long existing = table.getLong(slot * ENTRY_BYTES);
+                if (existing == key || existing == EMPTY)
+                    return slot;
+                slot = (slot + 1) & (capacity - 1);
+            }
+        }
+
+        private boolean put(final long key, final long hash, final long value) {
+            final long stamp = lock.writeLock();
+            try {
+                if (used + 1 > capacity / 4 * 3)
+                    grow();
+                final int slot = find(table, capacity, key, hash);
+                final boolean added = table.getLong(slot * ENTRY_BYTES) == EMPTY;
+                table.putLong(slot * ENTRY_BYTES, key);
+                table.putLong(slot * ENTRY_BYTES + Long.BYTES, value);
+                if (added)
+                    used++;
+                return added;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void grow() {
+            if (capacity >= MAX_SEGMENT_CAPACITY)
+                throw new IllegalStateException("OffHeapLongLongMap segment is full");
+            final ByteBuffer old = table;
+            final int oldCapacity = capacity;
+            allocate(capacity * 2);
+            for (int slot = 0; slot < oldCapacity; slot++) {
+                final long key = old.getLong(slot * ENTRY_BYTES);
+                if (key == EMPTY)
+                    continue;
+                final int target = find(table, capacity, key, mix(key));
+                table.putLong(target * ENTRY_BYTES, key);
+                table.putLong(target * ENTRY_BYTES + Long.BYTES, old.getLong(slot * ENTRY_BYTES + Long.BYTES));
+                used++;
+            }
+        }
+
+        private OptionalLong get(final long key, final long hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                final OptionalLong result = read(key, hash);
+                if (lock.validate(stamp))
+                    return result;
+            }
+            stamp = lock.readLock();
+            try {
+                return read(key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        // under an optimistic read the table may be mid write, the result is only used if the stamp validates
+        private OptionalLong read(final long key, final long hash) {
+            final ByteBuffer table = this.table;
+            final int capacity = this.capacity;
+            if (table.capacity() != capacity * ENTRY_BYTES)
+                return OptionalLong.empty();
+            int slot = (int) hash & (capacity - 1);
+            for (int probes = 0; probes < capacity; probes++) {
+                final long existing = table.getLong(slot * ENTRY_BYTES);
+                if (existing == key)
+                    return OptionalLong.of(table.getLong(slot * ENTRY_BYTES + Long.BYTES));
+                if (existing == EMPTY)
+                    return OptionalLong.empty();
+                slot = (slot + 1) & (capacity - 1);
+            }
+            return OptionalLong.empty();
+        }
+
+        // an untouched segment keeps its table, clearing runs on every runtime close
+        private void clear() {
+            final long stamp = lock.writeLock();
+            try {
+                if (used > 0 || capacity != initialCapacity)
+                    allocate(initialCapacity);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.aerospike.movement.util.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Histogram of durations in nanoseconds with log linear buckets, in the manner of HdrHistogram: every power of two
+ * is split into 16 sub buckets, so a recorded value is reported within 1/16 of its true value. Values from 1ns to
+ * about 68s are kept apart, longer ones share the last bucket. Recording is lock free, a bucket increment plus two
+ * LongAdder additions, and percentiles are read from a racy but monotonic view of the counts.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 36;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong(0);
+
+    static int index(final long value) {
+        if (value < SUB_BUCKETS)
+            return (int) Math.max(0, value);
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(Math.min(value, MAX_VALUE));
+        final int subBucket = (int) (Math.min(value, MAX_VALUE) >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // the largest value that falls in the bucket
+    static long highestValue(final int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+        final int shift = index / SUB_BUCKETS - 1;
+        final long subBucket = index % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+
+    public void record(final long nanos) {
+        counts.incrementAndGet(index(nanos));
+        count.increment();
+        sum.add(nanos);
+        long current;
+        while (nanos > (current = max.get()) && !max.compareAndSet(current, nanos)) ;
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long sum() {
+        return sum.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        final long count = count();
+        return count == 0 ? 0 : sum() / (double) count;
+    }
+
+    // value at the given quantile, 0 < quantile <= 1, never below the true value by more than a bucket width
+    public long valueAt(final double quantile) {
+        long remaining = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            remaining += counts.get(i);
+        }
+        if (remaining == 0)
+            return 0;
+        final long rank = Math.max(1, (long) Math.ceil(quantile * remaining));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank)
+                return Math.min(highestValue(i), max());
+        }
+        return max();
+    }
+
+    // adds the counts of another histogram to this one
+    public void merge(final LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            final long bucket = other.counts.get(i);
+            if (bucket != 0)
+                counts.addAndGet(i, bucket);
+        }
+        count.add(other.count());
+        sum.add(other.sum());
+        final long otherMax = other.max();
+        long current;
+        while (otherMax > (current = max.get()) && !max.compareAndSet(current, otherMax)) ;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+}
@@ -0,0 +1,111 @@
+package com.aerospike.movement.util.core.metrics;
+
+import com.aerospike.movement.util.core.runtime.RuntimeUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.configuration2.Configuration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.aerospike.movement.util.core.metrics.MetricsRegistry.Config.Keys.*;
+
+/*
+ * Publishes a MetricsRegistry. With metrics.export.path set, the file is rewritten in metrics.export.format every
+ * metrics.export.intervalMs and as each phase ends, through a temporary file so readers never see half a snapshot.
+ * With metrics.export.port set, a server on the loopback interface answers /metrics with Prometheus text and
+ * /metrics.json with JSON.
+ */
+public class MetricsExporter implements AutoCloseable {
+    private final MetricsRegistry registry;
+    private final Optional<Path> path;
+    private final MetricsRegistry.Format format;
+    private final Optional<ScheduledExecutorService> scheduler;
+    private final Optional<HttpServer> server;
+
+    private MetricsExporter(final MetricsRegistry registry, final Optional<Path> path, final MetricsRegistry.Format format, final long intervalMs, final int port) {
+        this.registry = registry;
+        this.path = path;
+        this.format = format;
+        this.scheduler = path.map(it -> {
+            final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "metrics-export");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::export, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+            return scheduler;
+        });
+        this.server = port > 0 ? Optional.of(serve(port)) : Optional.empty();
+    }
+
+    public static Optional<MetricsExporter> open(final MetricsRegistry registry, final Configuration config) {
+        final MetricsRegistry.Config metricsConfig = MetricsRegistry.Config.INSTANCE;
+        final String path = metricsConfig.getOrDefault(EXPORT_PATH, config);
+        final int port = Integer.parseInt(metricsConfig.getOrDefault(EXPORT_PORT, config));
+        if (path.isEmpty() && port <= 0)
+            return Optional.empty();
+        return Optional.of(new MetricsExporter(registry,
+                path.isEmpty() ? Optional.empty() : Optional.of(Path.of(path)),
+                MetricsRegistry.Format.fromConfig(config),
+                Long.parseLong(metricsConfig.getOrDefault(EXPORT_INTERVAL_MS, config)),
+                port));
+    }
+
+    private HttpServer serve(final int port) {
+        try {
+            final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", exchange -> respond(exchange, "text/plain; version=0.0.4", registry.toPrometheus()));
+            server.createContext("/metrics.json", exchange -> respond(exchange, "application/json", registry.toJson()));
+            server.start();
+            RuntimeUtil.getLogger(this).info("serving metrics on " + server.getAddress());
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void respond(final HttpExchange exchange, final String contentType, final String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (final OutputStream response = exchange.getResponseBody()) {
+            response.write(bytes);
+        }
+    }
+
+    public Optional<Integer> getPort() {
+        return server.map(it -> it.getAddress().getPort());
+    }
+
+    // writes the file now, if one is configured
+    public void export() {
+        path.ifPresent(target -> {
+            try {
+                final Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+                Files.writeString(temporary, registry.export(format));
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                RuntimeUtil.getLogger(this).warn("could not export metrics to " + target + ": " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        scheduler.ifPresent(ScheduledExecutorService::shutdownNow);
+        export();
+        server.ifPresent(it -> it.stop(0));
+    }
+}
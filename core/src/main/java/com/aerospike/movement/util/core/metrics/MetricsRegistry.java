@@ -0,0 +1,329 @@
+package com.aerospike.movement.util.core.metrics;
+
+import com.aerospike.movement.config.core.ConfigurationBase;
+import com.aerospike.movement.output.core.Output;
+import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.util.core.configuration.ConfigUtil;
+import org.apache.commons.configuration2.Configuration;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Per stage latency of the running job, kept per pipeline and per label. Each element is timed as the driver hands
+ * out its work chunk (FETCH), as it is produced from its chunk (EMIT), as the output encodes it (ENCODE) and as it is
+ * written (WRITE). WRITE covers everything the element does once emitted, so it includes ENCODE, and outputs that
+ * encode by writing to their backend, like the TinkerPop outputs, spend most of their WRITE time in ENCODE.
+ *
+ * Recording is off unless metrics.enabled is set, start() then returns 0 and record() returns at once. When on, the
+ * metrics can be read from the task status, and exported as JSON or Prometheus text to a file that is rewritten
+ * every metrics.export.intervalMs, and on a local port, see MetricsExporter.
+ */
+public class MetricsRegistry {
+    public static class Config extends ConfigurationBase {
+        public static final Config INSTANCE = new Config();
+
+        private Config() {
+            super();
+        }
+
+        @Override
+        public Map<String, String> defaultConfigMap(final Map<String, Object> config) {
+            return DEFAULTS;
+        }
+
+        @Override
+        public List<String> getKeys() {
+            return ConfigUtil.getKeysFromClass(Config.Keys.class);
+        }
+
+        public static class Keys {
+            public static final String ENABLED = "metrics.enabled";
+            public static final String EXPORT_PATH = "metrics.export.path";
+            public static final String EXPORT_FORMAT = "metrics.export.format";
+            public static final String EXPORT_INTERVAL_MS = "metrics.export.intervalMs";
+            public static final String EXPORT_PORT = "metrics.export.port";
+        }
+
+        private static final Map<String, String> DEFAULTS = new HashMap<>() {{
+            put(Keys.ENABLED, "false");
+            put(Keys.EXPORT_PATH, "");
+            put(Keys.EXPORT_FORMAT, Format.JSON.name().toLowerCase());
+            put(Keys.EXPORT_INTERVAL_MS, "10000");
+            put(Keys.EXPORT_PORT, "0");
+        }};
+    }
+
+    public enum Stage {
+        FETCH, EMIT, ENCODE, WRITE
+    }
+
+    public enum Format {
+        JSON, PROMETHEUS;
+
+        public static Format fromConfig(final Configuration config) {
+            return valueOf(((String) Config.INSTANCE.getOrDefault(Config.Keys.EXPORT_FORMAT, config)).toUpperCase());
+        }
+    }
+
+    public static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    private static final long UNBOUND_PIPELINE = -1;
+    private static final ThreadLocal<PipelineMetrics> bound = new ThreadLocal<>();
+    private static volatile boolean enabled = false;
+    private static MetricsExporter exporter = null;
+
+    private final Map<Long, PipelineMetrics> pipelines = new ConcurrentHashMap<>();
+    private final Map<Output, PipelineMetrics> outputs = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    /*
+     * Metrics of one pipeline. Histograms are created on the first element of each stage and label, after that a
+     * record is a map lookup and a histogram update.
+     */
+    public static class PipelineMetrics {
+        private final long pipeline;
+        private final List<Map<String, LatencyHistogram>> stages = new ArrayList<>();
+
+        private PipelineMetrics(final long pipeline) {
+            this.pipeline = pipeline;
+            for (int i = 0; i < Stage.values().length; i++) {
+                stages.add(new ConcurrentHashMap<>());
+            }
+        }
+
+        // records the time since start, taken from MetricsRegistry.start()
+        public void record(final Stage stage, final String label, final long start) {
+            if (start == 0)
+                return;
+            final long elapsed = System.nanoTime() - start;
+            stages.get(stage.ordinal()).computeIfAbsent(label == null ? "" : label, it -> new LatencyHistogram()).record(elapsed);
+        }
+
+        private void reset() {
+            stages.forEach(Map::clear);
+        }
+
+        public Map<String, LatencyHistogram> stage(final Stage stage) {
+            return Collections.unmodifiableMap(stages.get(stage.ordinal()));
+        }
+
+        public long getPipeline() {
+            return pipeline;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    // the start time of a stage, or 0 if metrics are off
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /*
+     * Called as a phase starts. A PHASE.ONE starts a new job and clears the metrics of the previous one, and the
+     * exporter is started if one is configured and not running yet.
+     */
+    public static synchronized void open(final Runtime.PHASE phase, final Configuration config) {
+        enabled = Boolean.parseBoolean(Config.INSTANCE.getOrDefault(Config.Keys.ENABLED, config));
+        if (!enabled)
+            return;
+        if (phase.equals(Runtime.PHASE.ONE))
+            INSTANCE.pipelines.values().forEach(PipelineMetrics::reset);
+        if (exporter == null)
+            exporter = MetricsExporter.open(INSTANCE, config).orElse(null);
+    }
+
+    // called as a phase ends, outputs are not reused across phases
+    public static synchronized void phaseComplete() {
+        INSTANCE.outputs.clear();
+        if (exporter != null)
+            exporter.export();
+    }
+
+    public static synchronized void close() {
+        if (exporter != null)
+            exporter.close();
+        exporter = null;
+        enabled = false;
+        INSTANCE.outputs.clear();
+    }
+
+    // called as a pipeline is created, so elements written to its output are counted against it
+    public static void bindOutput(final Output output, final long pipeline) {
+        INSTANCE.outputs.put(output, INSTANCE.pipeline(pipeline));
+    }
+
+    private PipelineMetrics pipeline(final long pipeline) {
+        return pipelines.computeIfAbsent(pipeline, PipelineMetrics::new);
+    }
+
+    public static PipelineMetrics of(final Output output) {
+        final PipelineMetrics metrics = output == null ? null : INSTANCE.outputs.get(output);
+        return metrics != null ? metrics : INSTANCE.pipeline(UNBOUND_PIPELINE);
+    }
+
+    // metrics of the pipeline the calling thread is working for, as set by bind()
+    public static PipelineMetrics current() {
+        final PipelineMetrics metrics = bound.get();
+        return metrics != null ? metrics : INSTANCE.pipeline(UNBOUND_PIPELINE);
+    }
+
+    // binds the calling thread to the metrics of a pipeline and returns the previous binding, which may be null
+    public static PipelineMetrics bind(final PipelineMetrics metrics) {
+        final PipelineMetrics previous = bound.get();
+        bound.set(metrics);
+        return previous;
+    }
+
+    // times the driver's hasNext() and next() for each element the iterator hands out
+    public static <T> Iterator<T> timeFetches(final Iterator<T> iterator, final Output output, final String label) {
+        if (!enabled)
+            return iterator;
+        final PipelineMetrics metrics = of(output);
+        return new Iterator<T>() {
+            private long start = 0;
+
+            @Override
+            public boolean hasNext() {
+                if (start == 0)
+                    start = start();
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (start == 0)
+                    start = start();
+                final T next = iterator.next();
+                metrics.record(Stage.FETCH, label, start);
+                start = 0;
+                return next;
+            }
+        };
+    }
+
+    public Collection<PipelineMetrics> getPipelines() {
+        return Collections.unmodifiableCollection(pipelines.values());
+    }
+
+    private static Map<String, Object> summary(final LatencyHistogram histogram) {
+        return new HashMap<>() {{
+            put("COUNT", histogram.count());
+            put("TOTAL_MS", TimeUnit.NANOSECONDS.toMillis(histogram.sum()));
+            put("MEAN_US", Math.round(histogram.mean() / 1000.0));
+            put("P50_US", TimeUnit.NANOSECONDS.toMicros(histogram.valueAt(0.50)));
+            put("P90_US", TimeUnit.NANOSECONDS.toMicros(histogram.valueAt(0.90)));
+            put("P99_US", TimeUnit.NANOSECONDS.toMicros(histogram.valueAt(0.99)));
+            put("MAX_US", TimeUnit.NANOSECONDS.toMicros(histogram.max()));
+        }};
+    }
+
+    /*
+     * For each stage the summary over all pipelines and labels, and the summary of each pipeline and label.
+     * BUSIEST_STAGE is the stage, other than WRITE which contains ENCODE, with the most time spent in it.
+     */
+    public Map<String, Object> status() {
+        final Map<String, Object> status = new HashMap<>();
+        final Map<Stage, Long> totals = new HashMap<>();
+        for (final Stage stage : Stage.values()) {
+            final LatencyHistogram total = new LatencyHistogram();
+            final Map<String, Object> byPipeline = new HashMap<>();
+            pipelines.values().forEach(metrics -> {
+                final Map<String, Object> byLabel = new HashMap<>();
+                metrics.stage(stage).forEach((label, histogram) -> {
+                    total.merge(histogram);
+                    byLabel.put(label, summary(histogram));
+                });
+                if (!byLabel.isEmpty())
+                    byPipeline.put(String.valueOf(metrics.pipeline), byLabel);
+            });
+            if (total.count() == 0)
+                continue;
+            totals.put(stage, total.sum());
+            status.put(stage.name(), Map.of("TOTAL", summary(total), "PIPELINES", byPipeline));
+        }
+        totals.entrySet().stream()
+                .filter(it -> !it.getKey().equals(Stage.WRITE))
+                .max(Map.Entry.comparingByValue())
+                .ifPresent(it -> status.put("BUSIEST_STAGE", it.getKey().name()));
+        return status;
+    }
+
+    public String toJson() {
+        final StringBuilder json = new StringBuilder();
+        appendJson(json, status());
+        return json.toString();
+    }
+
+    private static void appendJson(final StringBuilder json, final Object value) {
+        if (value instanceof Map) {
+            json.append('{');
+            final Iterator<? extends Map.Entry<?, ?>> entries = new TreeMap<>((Map<?, ?>) value).entrySet().iterator();
+            while (entries.hasNext()) {
+                final Map.Entry<?, ?> entry = entries.next();
+                appendJson(json, String.valueOf(entry.getKey()));
+                json.append(':');
+                appendJson(json, entry.getValue());
+                if (entries.hasNext())
+                    json.append(',');
+            }
+            json.append('}');
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else {
+            json.append('"');
+            for (final char c : String.valueOf(value).toCharArray()) {
+                if (c == '"' || c == '\\')
+                    json.append('\\').append(c);
+                else if (c < 0x20)
+                    json.append(String.format("\\u%04x", (int) c));
+                else
+                    json.append(c);
+            }
+            json.append('"');
+        }
+    }
+
+    // Prometheus text exposition format, one summary per stage, pipeline and label
+    public String toPrometheus() {
+        final String name = "movement_stage_duration_seconds";
+        final StringBuilder text = new StringBuilder()
+                .append("# HELP ").append(name).append(" Time spent per element in each stage of the movement job.\n")
+                .append("# TYPE ").append(name).append(" summary\n");
+        final StringBuilder max = new StringBuilder()
+                .append("# HELP ").append(name).append("_max Longest time spent on one element in each stage.\n")
+                .append("# TYPE ").append(name).append("_max gauge\n");
+        for (final Stage stage : Stage.values()) {
+            pipelines.values().stream().sorted(Comparator.comparingLong(PipelineMetrics::getPipeline)).forEach(metrics ->
+                    new TreeMap<>(metrics.stage(stage)).forEach((label, histogram) -> {
+                        final String labels = String.format("stage=\"%s\",pipeline=\"%d\",label=\"%s\"",
+                                stage.name().toLowerCase(), metrics.pipeline, escapeLabel(label));
+                        for (final double quantile : new double[]{0.5, 0.9, 0.99}) {
+                            text.append(name).append('{').append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+                                    .append(seconds(histogram.valueAt(quantile))).append('\n');
+                        }
+                        text.append(name).append("_sum{").append(labels).append("} ").append(seconds(histogram.sum())).append('\n');
+                        text.append(name).append("_count{").append(labels).append("} ").append(histogram.count()).append('\n');
+                        max.append(name).append("_max{").append(labels).append("} ").append(seconds(histogram.max())).append('\n');
+                    }));
+        }
+        return text.append(max).toString();
+    }
+
+    private static String seconds(final long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    private static String escapeLabel(final String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    public String export(final Format format) {
+        return format.equals(Format.PROMETHEUS) ? toPrometheus() : toJson();
+    }
+}
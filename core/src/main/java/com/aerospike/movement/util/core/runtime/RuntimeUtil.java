@@ -46,6 +46,8 @@ import static org.reflections.scanners.Scanners.SubTypes;
 
 public class RuntimeUtil {
     public static final String IO_OPS = "io_ops";
+    public static final String IN_FLIGHT = "in_flight";
+    public static final String MAX_IN_FLIGHT = "max_in_flight";
     public static Optional<String> envOrProperty(final String key) {
         Optional<String> envVal = Optional.ofNullable(System.getenv(key));
         Optional<String> propVal = Optional.ofNullable(System.getProperty(key));
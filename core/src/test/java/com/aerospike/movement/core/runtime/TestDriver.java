@@ -7,21 +7,39 @@
 package com.aerospike.movement.core.runtime;
 
 import com.aerospike.movement.config.core.ConfigurationBase;
+import com.aerospike.movement.emitter.core.Emitable;
+import com.aerospike.movement.emitter.core.Emitter;
+import com.aerospike.movement.encoding.core.Encoder;
+import com.aerospike.movement.output.core.Output;
+import com.aerospike.movement.output.core.OutputWriter;
 import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.driver.CheckpointLog;
+import com.aerospike.movement.runtime.core.driver.LongRangeWorkChunk;
 import com.aerospike.movement.runtime.core.driver.OutputId;
+import com.aerospike.movement.runtime.core.driver.PendingAcknowledgements;
 import com.aerospike.movement.runtime.core.driver.WorkChunk;
 import com.aerospike.movement.runtime.core.driver.WorkItem;
 import com.aerospike.movement.runtime.core.driver.impl.RangedOutputIdDriver;
 import com.aerospike.movement.runtime.core.driver.impl.RangedWorkChunkDriver;
 import com.aerospike.movement.util.core.iterator.ConfiguredRangeSupplier;
+import com.aerospike.movement.util.core.runtime.IOUtil;
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.MapConfiguration;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PrimitiveIterator;
 import java.util.Random;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.LongStream;
@@ -29,6 +47,9 @@ import java.util.stream.LongStream;
 import static com.aerospike.movement.config.core.ConfigurationBase.Keys.OUTPUT_ID_DRIVER;
 import static com.aerospike.movement.config.core.ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_ONE;
 import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.BATCH_SIZE;
+import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.BATCH_SIZE_ADAPTIVE;
+import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.BATCH_SIZE_TARGET_LATENCY_MS;
+import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.THREADS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -63,6 +84,238 @@ public class TestDriver {
     }
 
 
+    @Test
+    public void testLongRangeWorkChunk() {
+        Configuration config = new MapConfiguration(new HashMap<>() {{
+            put(BATCH_SIZE, 10);
+            put(WORK_CHUNK_DRIVER_PHASE_ONE, RangedWorkChunkDriver.class.getName());
+            put(ConfigurationBase.Keys.INTERNAL_PHASE_INDICATOR, Runtime.PHASE.ONE.name());
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_BOTTOM, 0);
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_TOP, 25);
+        }});
+        RangedWorkChunkDriver.closeInstance();
+        RangedWorkChunkDriver driver = (RangedWorkChunkDriver) RangedWorkChunkDriver.open(config);
+        final List<LongRangeWorkChunk> chunks = new ArrayList<>();
+        Optional<WorkChunk> next;
+        while ((next = driver.getNext()).isPresent()) {
+            chunks.add((LongRangeWorkChunk) next.get());
+        }
+        assertEquals(3, chunks.size());
+        assertEquals(20L, chunks.get(2).start());
+        assertEquals(25L, chunks.get(2).end());
+        assertEquals(chunks.get(2).getId(), LongRangeWorkChunk.of(20, 25).getId());
+
+        final AtomicLong sum = new AtomicLong(0);
+        chunks.forEach(chunk -> chunk.forEachId(sum::addAndGet));
+        assertEquals(LongStream.range(0, 25).sum(), sum.get());
+
+        final PrimitiveIterator.OfLong ids = chunks.get(0).longIterator();
+        long expected = 0;
+        while (ids.hasNext()) {
+            assertEquals(expected++, ids.nextLong());
+        }
+        assertEquals(10L, expected);
+        RangedWorkChunkDriver.closeInstance();
+    }
+
+    @Test
+    public void testAdaptiveBatchSize() throws Exception {
+        final Configuration config = new MapConfiguration(new HashMap<>() {{
+            put(BATCH_SIZE, 10);
+            put(BATCH_SIZE_ADAPTIVE, true);
+            put(BATCH_SIZE_TARGET_LATENCY_MS, 200);
+            put(THREADS, 2);
+            put(WORK_CHUNK_DRIVER_PHASE_ONE, RangedWorkChunkDriver.class.getName());
+            put(ConfigurationBase.Keys.INTERNAL_PHASE_INDICATOR, Runtime.PHASE.ONE.name());
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_BOTTOM, 0);
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_TOP, 1000);
+        }});
+        RangedWorkChunkDriver.closeInstance();
+        final RangedWorkChunkDriver driver = (RangedWorkChunkDriver) RangedWorkChunkDriver.open(config);
+        final List<LongRangeWorkChunk> chunks = new ArrayList<>();
+        Optional<WorkChunk> next;
+        while ((next = driver.getNext()).isPresent()) {
+            chunks.add((LongRangeWorkChunk) next.get());
+            // chunks finished under the target grow, the one that went over shrinks
+            if (chunks.size() == 4)
+                Thread.sleep(250);
+        }
+        assertEquals(10L, chunks.get(0).size());
+        assertTrue(chunks.get(3).size() > chunks.get(0).size());
+        assertTrue(chunks.get(4).size() < chunks.get(3).size());
+        assertTrue((long) driver.getBatchSize().status().get("DECREASES") >= 1L);
+        // near the end no chunk is bigger than a fair share of what is left
+        chunks.forEach(chunk -> assertTrue(chunk.size() <= Math.max(1, (1000 - chunk.start()) / 2)));
+        final AtomicLong sum = new AtomicLong(0);
+        chunks.forEach(chunk -> chunk.forEachId(sum::addAndGet));
+        assertEquals(LongStream.range(0, 1000).sum(), sum.get());
+        assertEquals(true, driver.getBatchSize().status().get("ADAPTIVE"));
+        RangedWorkChunkDriver.closeInstance();
+    }
+
+    @Test
+    public void testCheckpointingPinsTheBatchSize() {
+        final Configuration config = new MapConfiguration(new HashMap<>() {{
+            put(BATCH_SIZE, 10);
+            put(BATCH_SIZE_ADAPTIVE, true);
+            put(WORK_CHUNK_DRIVER_PHASE_ONE, RangedWorkChunkDriver.class.getName());
+            put(ConfigurationBase.Keys.INTERNAL_PHASE_INDICATOR, Runtime.PHASE.ONE.name());
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_TOP, 1000);
+            put(CheckpointLog.Config.Keys.PATH, IOUtil.createTempDir().resolve("checkpoint.log").toString());
+        }});
+        RangedWorkChunkDriver.closeInstance();
+        final RangedWorkChunkDriver driver = (RangedWorkChunkDriver) RangedWorkChunkDriver.open(config);
+        assertEquals(false, driver.getBatchSize().isAdaptive());
+        Optional<WorkChunk> next;
+        while ((next = driver.getNext()).isPresent()) {
+            assertEquals(10L, ((LongRangeWorkChunk) next.get()).size());
+        }
+        RangedWorkChunkDriver.closeInstance();
+    }
+
+    @Test
+    public void testChunksAreOnlyAcknowledgedOnceTheOutputIsFlushed() throws Exception {
+        final Path log = IOUtil.createTempDir().resolve("checkpoint.log");
+        final Configuration config = new MapConfiguration(new HashMap<>() {{
+            put(WORK_CHUNK_DRIVER_PHASE_ONE, RangedWorkChunkDriver.class.getName());
+            put(ConfigurationBase.Keys.INTERNAL_PHASE_INDICATOR, Runtime.PHASE.ONE.name());
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_BOTTOM, 0);
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_TOP, 100);
+            put(CheckpointLog.Config.Keys.PATH, log.toString());
+            put(CheckpointLog.Config.Keys.CHUNKS_PER_FLUSH, 3);
+        }});
+        final List<Integer> acknowledgedAtFlush = new ArrayList<>();
+        final Output output = bufferingOutput(() -> {
+            try {
+                acknowledgedAtFlush.add(CheckpointLog.read(log).getOrDefault(Runtime.PHASE.ONE, Set.of()).size());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        // the process dies with two chunks written but still buffered by the output
+        RangedWorkChunkDriver.closeInstance();
+        final RangedWorkChunkDriver crashed = (RangedWorkChunkDriver) RangedWorkChunkDriver.open(config);
+        final PendingAcknowledgements beforeCrash = PendingAcknowledgements.create(crashed, output);
+        beforeCrash.add(keyedChunk("a"));
+        beforeCrash.add(keyedChunk("b"));
+        assertEquals(2, beforeCrash.size());
+        RangedWorkChunkDriver.closeInstance();
+        assertTrue(acknowledgedAtFlush.isEmpty());
+        assertTrue(CheckpointLog.read(log).isEmpty());
+
+        // the restarted job writes them again, they are acknowledged after the flush that follows the third chunk
+        final RangedWorkChunkDriver restarted = (RangedWorkChunkDriver) RangedWorkChunkDriver.open(config);
+        final PendingAcknowledgements afterRestart = PendingAcknowledgements.create(restarted, output);
+        afterRestart.add(keyedChunk("a"));
+        afterRestart.add(keyedChunk("b"));
+        afterRestart.add(keyedChunk("c"));
+        afterRestart.add(keyedChunk("d"));
+        assertEquals(List.of(0), acknowledgedAtFlush);
+        assertEquals(Set.of("a", "b", "c"), CheckpointLog.read(log).get(Runtime.PHASE.ONE));
+        afterRestart.commit();
+        assertEquals(List.of(0, 3), acknowledgedAtFlush);
+        assertEquals(Set.of("a", "b", "c", "d"), CheckpointLog.read(log).get(Runtime.PHASE.ONE));
+        assertEquals(4L, restarted.getChunksAcknowledged());
+        RangedWorkChunkDriver.closeInstance();
+    }
+
+    @Test
+    public void testRangesAreAcknowledgedOnceTheNextIsHandedOut() throws Exception {
+        final Path log = IOUtil.createTempDir().resolve("checkpoint.log");
+        final Configuration config = new MapConfiguration(new HashMap<>() {{
+            put(BATCH_SIZE, 10);
+            put(WORK_CHUNK_DRIVER_PHASE_ONE, RangedWorkChunkDriver.class.getName());
+            put(ConfigurationBase.Keys.INTERNAL_PHASE_INDICATOR, Runtime.PHASE.ONE.name());
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_TOP, 30);
+            put(CheckpointLog.Config.Keys.PATH, log.toString());
+            put(CheckpointLog.Config.Keys.CHUNKS_PER_FLUSH, 1);
+        }});
+        RangedWorkChunkDriver.closeInstance();
+        final RangedWorkChunkDriver driver = (RangedWorkChunkDriver) RangedWorkChunkDriver.open(config);
+        final PendingAcknowledgements acknowledgements = PendingAcknowledgements.create(driver, bufferingOutput(() -> {
+        }));
+        driver.getNext();
+        acknowledgements.advance();
+        assertTrue(CheckpointLog.read(log).isEmpty());
+        // the emitter only asks for the next range once it is done with the previous one
+        driver.getNext();
+        acknowledgements.advance();
+        assertEquals(Set.of("0-10"), CheckpointLog.read(log).get(Runtime.PHASE.ONE));
+        RangedWorkChunkDriver.closeInstance();
+
+        // the process died while working on 10-20, a restart hands out everything but 0-10
+        final RangedWorkChunkDriver restarted = (RangedWorkChunkDriver) RangedWorkChunkDriver.open(config);
+        final PendingAcknowledgements afterRestart = PendingAcknowledgements.create(restarted, bufferingOutput(() -> {
+        }));
+        final List<Long> starts = new ArrayList<>();
+        Optional<WorkChunk> next;
+        while ((next = restarted.getNext()).isPresent()) {
+            starts.add(((LongRangeWorkChunk) next.get()).start());
+        }
+        assertEquals(List.of(10L, 20L), starts);
+        afterRestart.finish();
+        assertEquals(Set.of("0-10", "10-20", "20-30"), CheckpointLog.read(log).get(Runtime.PHASE.ONE));
+        RangedWorkChunkDriver.closeInstance();
+    }
+
+    private static WorkChunk keyedChunk(final String key) {
+        return new WorkChunk() {
+            @Override
+            public UUID getId() {
+                return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public Optional<String> checkpointKey() {
+                return Optional.of(key);
+            }
+
+            @Override
+            public Optional<WorkItem> getNext() {
+                return Optional.empty();
+            }
+        };
+    }
+
+    // an output that holds everything written to it until it is flushed
+    private static Output bufferingOutput(final Runnable onFlush) {
+        return new Output() {
+            @Override
+            public OutputWriter writer(final Class<? extends Emitable> type, final String label) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Emitter reader(final Runtime.PHASE phase, final Class type, final Optional<String> label, final Configuration callerConfig) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Map<String, Object> getMetrics() {
+                return Map.of();
+            }
+
+            @Override
+            public void flush() {
+                onFlush.run();
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public void dropStorage() {
+            }
+
+            @Override
+            public Optional<Encoder> getEncoder() {
+                return Optional.empty();
+            }
+        };
+    }
+
     @Test
     public void testOutputIDDriver() throws Exception {
         RangedOutputIdDriver.closeInstance();
@@ -0,0 +1,133 @@
+package com.aerospike.movement.core.util;
+
+import com.aerospike.movement.config.core.ConfigurationBase;
+import com.aerospike.movement.emitter.core.Emitable;
+import com.aerospike.movement.runtime.core.driver.impl.RangedOutputIdDriver;
+import com.aerospike.movement.runtime.core.driver.impl.RangedWorkChunkDriver;
+import com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime;
+import com.aerospike.movement.test.core.AbstractMovementTest;
+import com.aerospike.movement.test.mock.MockCallback;
+import com.aerospike.movement.test.mock.MockUtil;
+import com.aerospike.movement.test.mock.emitter.MockEmitable;
+import com.aerospike.movement.util.core.configuration.ConfigUtil;
+import com.aerospike.movement.util.core.metrics.LatencyHistogram;
+import com.aerospike.movement.util.core.metrics.MetricsExporter;
+import com.aerospike.movement.util.core.metrics.MetricsRegistry;
+import com.aerospike.movement.util.core.runtime.IOUtil;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static com.aerospike.movement.config.core.ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_ONE;
+import static com.aerospike.movement.config.core.ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_TWO;
+import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.BATCH_SIZE;
+import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.THREADS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest extends AbstractMovementTest {
+    private static final int TEST_SIZE = 10_000;
+    private static final int FAN_OUT = 3;
+
+    @Before
+    public void setup() {
+        super.setup();
+        LocalParallelStreamRuntime.closeStatic();
+    }
+
+    @After
+    public void cleanup() {
+        super.cleanup();
+        LocalParallelStreamRuntime.closeStatic();
+    }
+
+    @Test
+    public void testHistogramReportsValuesWithinABucket() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        LongStream.rangeClosed(1, 100_000).parallel().forEach(micros -> histogram.record(micros * 1000));
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000_000L, histogram.max());
+        for (final double quantile : new double[]{0.5, 0.9, 0.99}) {
+            final long expected = (long) (quantile * 100_000_000L);
+            final long reported = histogram.valueAt(quantile);
+            assertTrue(reported >= expected && reported <= expected * 17 / 16);
+        }
+
+        final LatencyHistogram merged = new LatencyHistogram();
+        merged.record(200_000_000L);
+        merged.merge(histogram);
+        assertEquals(100_001, merged.count());
+        assertEquals(200_000_000L, merged.max());
+        assertEquals(histogram.sum() + 200_000_000L, merged.sum());
+    }
+
+    @Test
+    public void testStagesAreRecordedAndExported() throws Exception {
+        final Path exportPath = IOUtil.createTempDir().resolve("metrics.prom");
+        final int port;
+        try (final ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        final Configuration config = getMockConfiguration(new HashMap<>() {{
+            put(THREADS, "4");
+            put(BATCH_SIZE, "7");
+            put(WORK_CHUNK_DRIVER_PHASE_ONE, RangedWorkChunkDriver.class.getName());
+            put(WORK_CHUNK_DRIVER_PHASE_TWO, RangedWorkChunkDriver.class.getName());
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_BOTTOM, "0");
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_TOP, String.valueOf(TEST_SIZE));
+            put(ConfigurationBase.Keys.OUTPUT_ID_DRIVER, RangedOutputIdDriver.class.getName());
+            put(MetricsRegistry.Config.Keys.ENABLED, "true");
+            put(MetricsRegistry.Config.Keys.EXPORT_PATH, exportPath.toString());
+            put(MetricsRegistry.Config.Keys.EXPORT_FORMAT, "prometheus");
+            put(MetricsRegistry.Config.Keys.EXPORT_PORT, String.valueOf(port));
+        }});
+        MockUtil.setDefaultMockCallbacks();
+        MockUtil.setCallback(MockEmitable.class, MockEmitable.Methods.EMIT,
+                MockCallback.create((object, args) -> Optional.of(children())));
+
+        iteratePhasesTimed(LocalParallelStreamRuntime.open(config), config);
+
+        final Map<String, Object> status = MetricsRegistry.INSTANCE.status();
+        assertEquals((long) TEST_SIZE * 2, total(status, MetricsRegistry.Stage.FETCH));
+        assertEquals((long) TEST_SIZE * 2 * FAN_OUT, total(status, MetricsRegistry.Stage.EMIT));
+        assertEquals((long) TEST_SIZE * 2 * FAN_OUT, total(status, MetricsRegistry.Stage.WRITE));
+        assertTrue(status.containsKey("BUSIEST_STAGE"));
+
+        // the job's exporter wrote its last snapshot as the runtime closed
+        assertFalse(MetricsRegistry.isEnabled());
+        final String exported = Files.readString(exportPath);
+        assertTrue(exported.contains("# TYPE movement_stage_duration_seconds summary"));
+        assertTrue(exported.contains("movement_stage_duration_seconds_count{stage=\"fetch\",pipeline=\"0\""));
+
+        try (final MetricsExporter exporter = MetricsExporter.open(MetricsRegistry.INSTANCE, config).orElseThrow();
+             final InputStream response = new URL("http://127.0.0.1:" + exporter.getPort().orElseThrow() + "/metrics.json").openStream()) {
+            final String json = new String(response.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(json.startsWith("{\"BUSIEST_STAGE\":"));
+            assertTrue(json.contains("\"WRITE\":{\"PIPELINES\":{"));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long total(final Map<String, Object> status, final MetricsRegistry.Stage stage) {
+        return (Long) ((Map<String, Object>) ((Map<String, Object>) status.get(stage.name())).get("TOTAL")).get("COUNT");
+    }
+
+    private static Stream<Emitable> children() {
+        return IntStream.range(0, FAN_OUT).mapToObj(i -> new MockEmitable(i, true, ConfigUtil.empty()));
+    }
+}
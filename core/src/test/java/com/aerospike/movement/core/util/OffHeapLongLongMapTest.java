@@ -0,0 +1,32 @@
+package com.aerospike.movement.core.util;
+
+import com.aerospike.movement.util.core.index.OffHeapLongLongMap;
+import org.junit.Test;
+
+import java.util.OptionalLong;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapLongLongMapTest {
+
+    @Test
+    public void testGrowsPastExpectedEntries() {
+        final OffHeapLongLongMap map = new OffHeapLongLongMap(16);
+        final long capacity = map.capacityBytes();
+        LongStream.range(-50_000, 50_000).parallel().forEach(key -> assertTrue(map.put(key, key * 3)));
+        assertEquals(100_000, map.size());
+        assertTrue(map.capacityBytes() > capacity);
+        LongStream.range(-50_000, 50_000).forEach(key -> assertEquals(OptionalLong.of(key * 3), map.get(key)));
+        assertFalse(map.get(50_000).isPresent());
+        assertFalse(map.put(7, 8));
+        assertEquals(OptionalLong.of(8), map.get(7));
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(capacity, map.capacityBytes());
+        assertFalse(map.get(7).isPresent());
+    }
+}
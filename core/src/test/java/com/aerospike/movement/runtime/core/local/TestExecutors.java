@@ -0,0 +1,102 @@
+package com.aerospike.movement.runtime.core.local;
+
+import com.aerospike.movement.config.core.ConfigurationBase;
+import com.aerospike.movement.emitter.core.Emitable;
+import com.aerospike.movement.runtime.core.driver.impl.RangedOutputIdDriver;
+import com.aerospike.movement.runtime.core.driver.impl.RangedWorkChunkDriver;
+import com.aerospike.movement.test.core.AbstractMovementTest;
+import com.aerospike.movement.test.mock.MockCallback;
+import com.aerospike.movement.test.mock.MockUtil;
+import com.aerospike.movement.test.mock.emitter.MockEmitable;
+import com.aerospike.movement.test.mock.encoder.MockEncoder;
+import com.aerospike.movement.test.mock.output.MockOutput;
+import com.aerospike.movement.util.core.configuration.ConfigUtil;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.aerospike.movement.config.core.ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_ONE;
+import static com.aerospike.movement.config.core.ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_TWO;
+import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.*;
+import static com.aerospike.movement.test.mock.MockUtil.getHitCounter;
+import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/*
+ * Behaviour every executor shares. Tests of a single executor's machinery stay in its own test class.
+ */
+@RunWith(Parameterized.class)
+public class TestExecutors extends AbstractMovementTest {
+    private static final int TEST_SIZE = 50_000;
+    private static final int FAN_OUT = 3;
+
+    private final LocalParallelStreamRuntime.Config.Executor executor;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.stream(LocalParallelStreamRuntime.Config.Executor.values())
+                .map(executor -> new Object[]{executor})
+                .collect(Collectors.toList());
+    }
+
+    public TestExecutors(final LocalParallelStreamRuntime.Config.Executor executor) {
+        this.executor = executor;
+    }
+
+    @Before
+    public void setup() {
+        super.setup();
+        LocalParallelStreamRuntime.closeStatic();
+    }
+
+    @After
+    public void cleanup() {
+        super.cleanup();
+    }
+
+    @Test
+    public void testExecutorMovesEveryElementAndClosesEveryStream() {
+        final Configuration config = getMockConfiguration(new HashMap<>() {{
+            put(THREADS, "4");
+            put(BATCH_SIZE, "7");
+            put(STAGED_EMIT_THREADS, "2");
+            put(STAGED_QUEUE_SIZE, "16");
+            put(MAX_IN_FLIGHT, "8");
+            put(EXECUTOR, executor.name().toLowerCase());
+            put(WORK_CHUNK_DRIVER_PHASE_ONE, RangedWorkChunkDriver.class.getName());
+            put(WORK_CHUNK_DRIVER_PHASE_TWO, RangedWorkChunkDriver.class.getName());
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_BOTTOM, "0");
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_TOP, String.valueOf(TEST_SIZE));
+            put(ConfigurationBase.Keys.OUTPUT_ID_DRIVER, RangedOutputIdDriver.class.getName());
+        }});
+        final AtomicInteger closed = new AtomicInteger(0);
+        MockUtil.setDefaultMockCallbacks();
+        MockUtil.setCallback(MockEmitable.class, MockEmitable.Methods.EMIT,
+                MockCallback.create((object, args) -> Optional.of(children().onClose(closed::incrementAndGet))));
+
+        iteratePhasesTimed(LocalParallelStreamRuntime.open(config), config);
+
+        final int expected = TEST_SIZE * 2 * (1 + FAN_OUT);
+        assertEquals(expected, getHitCounter(MockEncoder.class, MockEncoder.Methods.ENCODE));
+        assertEquals(expected, getHitCounter(MockOutput.class, MockOutput.Methods.WRITE_TO_OUTPUT));
+        assertEquals(TEST_SIZE * 2, closed.get());
+        assertFalse(StagedScheduler.runningStatus().isPresent());
+        assertFalse(VirtualThreadScheduler.runningStatus().isPresent());
+    }
+
+    private static Stream<Emitable> children() {
+        return IntStream.range(0, FAN_OUT).mapToObj(i -> new MockEmitable(i, true, ConfigUtil.empty()));
+    }
+}
@@ -0,0 +1,207 @@
+package com.aerospike.movement.runtime.core.local;
+
+import com.aerospike.movement.config.core.ConfigurationBase;
+import com.aerospike.movement.emitter.core.Emitable;
+import com.aerospike.movement.output.core.Output;
+import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.driver.CheckpointLog;
+import com.aerospike.movement.runtime.core.driver.WorkChunkDriver;
+import com.aerospike.movement.runtime.core.driver.impl.RangedWorkChunkDriver;
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.MapConfiguration;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestParallelStreamProcessor {
+    private static final int DEPTH = 100_000;
+    private static final int FAN_OUT = 3;
+
+    private static Emitable emitable(final Function<Output, Stream<Emitable>> emit) {
+        return new Emitable() {
+            @Override
+            public Stream<Emitable> emit(final Output output) {
+                return emit.apply(output);
+            }
+
+            @Override
+            public String type() {
+                return "test";
+            }
+        };
+    }
+
+    // a chain DEPTH levels deep, each level also emitting FAN_OUT leaves
+    private static Emitable chain(final int level, final AtomicInteger emitted, final AtomicInteger closed) {
+        return emitable(output -> {
+            emitted.incrementAndGet();
+            if (level == DEPTH)
+                return Stream.empty();
+            return Stream.concat(
+                            IntStream.range(0, FAN_OUT).mapToObj(i -> emitable(o -> {
+                                emitted.incrementAndGet();
+                                return Stream.empty();
+                            })),
+                            Stream.of(0).map(i -> chain(level + 1, emitted, closed)))
+                    .onClose(closed::incrementAndGet);
+        });
+    }
+
+    @Test
+    public void testDeeplyNestedEmitablesAreWalkedWithoutRecursion() {
+        final AtomicInteger emitted = new AtomicInteger(0);
+        final AtomicInteger closed = new AtomicInteger(0);
+
+        ParallelStreamProcessor.processEmitable(chain(0, emitted, closed), null);
+
+        assertEquals(1 + DEPTH * (1 + FAN_OUT), emitted.get());
+        assertEquals(DEPTH, closed.get());
+    }
+
+    @Test
+    public void testNestedWalkOnTheSameThreadLeavesTheOuterWalkIntact() {
+        final AtomicInteger emitted = new AtomicInteger(0);
+        final AtomicInteger inner = new AtomicInteger(0);
+        final Emitable nested = emitable(output -> {
+            ParallelStreamProcessor.processEmitable(emitable(o -> IntStream.range(0, 10).mapToObj(i -> emitable(x -> {
+                inner.incrementAndGet();
+                return Stream.empty();
+            }))), output);
+            return IntStream.range(0, 5).mapToObj(i -> emitable(o -> {
+                emitted.incrementAndGet();
+                return Stream.empty();
+            }));
+        });
+
+        ParallelStreamProcessor.processEmitable(emitable(output -> Stream.of(nested, nested)), null);
+
+        assertEquals(20, inner.get());
+        assertEquals(10, emitted.get());
+    }
+
+    // emits through the sink only, emit() must not be called
+    private static Emitable pushing(final int children, final AtomicInteger emitted) {
+        return new Emitable() {
+            @Override
+            public Stream<Emitable> emit(final Output output) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void emitTo(final Output output, final Consumer<Emitable> sink) {
+                emitted.incrementAndGet();
+                for (int i = 0; i < children; i++) {
+                    sink.accept(i % 2 == 0 ? pushing(0, emitted) : emitable(o -> {
+                        emitted.incrementAndGet();
+                        return Stream.of(pushing(0, emitted), pushing(0, emitted));
+                    }));
+                }
+            }
+
+            @Override
+            public String type() {
+                return "test";
+            }
+        };
+    }
+
+    @Test
+    public void testPushStyleEmitablesAreExpandedThroughTheSink() {
+        final AtomicInteger emitted = new AtomicInteger(0);
+
+        ParallelStreamProcessor.processEmitable(emitable(output -> IntStream.range(0, 100).mapToObj(i -> pushing(10, emitted))), null);
+
+        assertEquals(100 * (1 + 5 + 5 * 3), emitted.get());
+    }
+
+    // records its name when expanded, handing its children to the sink or returning them from emit()
+    private static Emitable named(final String name, final int children, final boolean push, final List<String> walked) {
+        final Supplier<Stream<Emitable>> emitables = () -> {
+            walked.add(name);
+            return IntStream.range(0, children).mapToObj(i -> named(name + "." + i, name.length() < 3 ? children : 0, push, walked));
+        };
+        return new Emitable() {
+            @Override
+            public Stream<Emitable> emit(final Output output) {
+                return emitables.get();
+            }
+
+            @Override
+            public void emitTo(final Output output, final Consumer<Emitable> sink) {
+                if (push)
+                    emitables.get().forEach(sink);
+                else
+                    Emitable.super.emitTo(output, sink);
+            }
+
+            @Override
+            public String type() {
+                return "test";
+            }
+        };
+    }
+
+    @Test
+    public void testPushStyleChildrenAreWalkedInOrder() {
+        final List<String> pulled = new ArrayList<>();
+        final List<String> pushed = new ArrayList<>();
+
+        ParallelStreamProcessor.processEmitable(named("0", 3, false, pulled), null);
+        ParallelStreamProcessor.processEmitable(named("0", 3, true, pushed), null);
+
+        assertEquals(List.of("0", "0.0", "0.0.0", "0.0.1", "0.0.2", "0.1"), pushed.subList(0, 6));
+        assertEquals(pulled, pushed);
+    }
+
+    @Test
+    public void testStreamsAreClosedWhenAnEmitableFails() {
+        final AtomicInteger closed = new AtomicInteger(0);
+        final Emitable failing = emitable(output -> {
+            throw new IllegalStateException("emit failed");
+        });
+        try {
+            ParallelStreamProcessor.processEmitable(emitable(output -> Stream.of(emitable(o -> Stream.of(failing).onClose(closed::incrementAndGet)))
+                    .onClose(closed::incrementAndGet)), null);
+        } catch (final RuntimeException expected) {
+            assertEquals(2, closed.get());
+            return;
+        }
+        fail("expected the emit failure to be rethrown");
+    }
+
+    @Test
+    public void testCheckpointingIsOnlyAcceptedWhereChunksCanBeAcknowledged() {
+        final Configuration config = new MapConfiguration(new HashMap<>() {{
+            put(ConfigurationBase.Keys.INTERNAL_PHASE_INDICATOR, Runtime.PHASE.ONE.name());
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_TOP, 100);
+        }});
+        RangedWorkChunkDriver.closeInstance();
+        final WorkChunkDriver driver = RangedWorkChunkDriver.open(config);
+        try {
+            ParallelStreamProcessor.checkCheckpointSupported(LocalParallelStreamRuntime.Config.Executor.PIPELINE, driver);
+            ParallelStreamProcessor.checkCheckpointSupported(LocalParallelStreamRuntime.Config.Executor.STAGED, driver);
+            for (final LocalParallelStreamRuntime.Config.Executor executor : List.of(LocalParallelStreamRuntime.Config.Executor.WORKSTEALING, LocalParallelStreamRuntime.Config.Executor.VIRTUAL)) {
+                try {
+                    ParallelStreamProcessor.checkCheckpointSupported(executor, driver);
+                    fail(executor + " cannot tell when a chunk has been written");
+                } catch (final IllegalArgumentException expected) {
+                    assertTrue(expected.getMessage().startsWith(CheckpointLog.Config.Keys.PATH));
+                }
+            }
+        } finally {
+            RangedWorkChunkDriver.closeInstance();
+        }
+    }
+}
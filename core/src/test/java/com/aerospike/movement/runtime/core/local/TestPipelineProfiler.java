@@ -0,0 +1,89 @@
+package com.aerospike.movement.runtime.core.local;
+
+import com.aerospike.movement.config.core.ConfigurationBase;
+import com.aerospike.movement.runtime.core.driver.impl.RangedOutputIdDriver;
+import com.aerospike.movement.runtime.core.driver.impl.RangedWorkChunkDriver;
+import com.aerospike.movement.test.core.AbstractMovementTest;
+import com.aerospike.movement.test.mock.MockCallback;
+import com.aerospike.movement.test.mock.MockUtil;
+import com.aerospike.movement.test.mock.emitter.MockEmitable;
+import com.aerospike.movement.util.core.runtime.IOUtil;
+import com.aerospike.movement.util.core.runtime.RuntimeUtil;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.aerospike.movement.config.core.ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_ONE;
+import static com.aerospike.movement.config.core.ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_TWO;
+import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestPipelineProfiler extends AbstractMovementTest {
+    private static final int TEST_SIZE = 200;
+
+    @Before
+    public void setup() {
+        super.setup();
+        LocalParallelStreamRuntime.closeStatic();
+    }
+
+    @After
+    public void cleanup() {
+        super.cleanup();
+    }
+
+    @Test
+    public void testProfileIsWrittenForEachPhase() throws Exception {
+        final Path directory = IOUtil.createTempDir();
+        final Configuration config = getMockConfiguration(new HashMap<>() {{
+            put(THREADS, "2");
+            put(BATCH_SIZE, "10");
+            put(PROFILE, "true");
+            put(PROFILE_INTERVAL_MS, "1");
+            put(PROFILE_DIRECTORY, directory.toString());
+            put(WORK_CHUNK_DRIVER_PHASE_ONE, RangedWorkChunkDriver.class.getName());
+            put(WORK_CHUNK_DRIVER_PHASE_TWO, RangedWorkChunkDriver.class.getName());
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_BOTTOM, "0");
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_TOP, String.valueOf(TEST_SIZE));
+            put(ConfigurationBase.Keys.OUTPUT_ID_DRIVER, RangedOutputIdDriver.class.getName());
+        }});
+        MockUtil.setDefaultMockCallbacks();
+        // a slow emitable, so the sampler sees it
+        MockUtil.setCallback(MockEmitable.class, MockEmitable.Methods.EMIT, MockCallback.create((object, args) -> {
+            RuntimeUtil.stall(1L);
+            return Optional.of(Stream.empty());
+        }));
+
+        iteratePhasesTimed(LocalParallelStreamRuntime.open(config), config);
+        assertFalse(PipelineProfiler.runningStatus().isPresent());
+
+        for (final String phase : List.of("one", "two")) {
+            final List<Path> profiles = Files.list(directory)
+                    .filter(it -> it.getFileName().toString().startsWith("profile-" + phase))
+                    .sorted()
+                    .collect(Collectors.toList());
+            assertEquals(2, profiles.size());
+
+            final List<String> stacks = Files.readAllLines(profiles.get(0));
+            assertFalse(stacks.isEmpty());
+            stacks.forEach(line -> assertTrue(line, line.matches("pipeline;\\S+ \\d+")));
+            assertTrue(stacks.stream().anyMatch(line -> line.contains(ParallelStreamProcessor.class.getName() + ".processEmitable")));
+
+            final List<String> threads = Files.readAllLines(profiles.get(1));
+            assertEquals("role\tthread\twall_ms\tcpu_ms\tcpu_percent", threads.get(0));
+            assertEquals(3, threads.size());
+            threads.stream().skip(1).forEach(line -> assertTrue(line, line.startsWith("pipeline\t")));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.aerospike.movement.runtime.core.local;
+
+import com.aerospike.movement.config.core.ConfigurationBase;
+import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.driver.CheckpointLog;
+import com.aerospike.movement.runtime.core.driver.impl.RangedOutputIdDriver;
+import com.aerospike.movement.runtime.core.driver.impl.RangedWorkChunkDriver;
+import com.aerospike.movement.test.core.AbstractMovementTest;
+import com.aerospike.movement.test.mock.MockUtil;
+import com.aerospike.movement.test.mock.output.MockOutput;
+import com.aerospike.movement.util.core.coordonation.RingBuffer;
+import com.aerospike.movement.util.core.runtime.IOUtil;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.aerospike.movement.config.core.ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_ONE;
+import static com.aerospike.movement.config.core.ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_TWO;
+import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.*;
+import static com.aerospike.movement.test.mock.MockUtil.getHitCounter;
+import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestStagedScheduler extends AbstractMovementTest {
+    private static final int TEST_SIZE = 50_000;
+
+    @Before
+    public void setup() {
+        super.setup();
+        LocalParallelStreamRuntime.closeStatic();
+    }
+
+    @After
+    public void cleanup() {
+        super.cleanup();
+    }
+
+    @Test
+    public void testStagedExecutorAcknowledgesEveryHandedOutRange() throws Exception {
+        final Path checkpoint = IOUtil.createTempDir().resolve("checkpoint.log");
+        final Configuration config = getMockConfiguration(new HashMap<>() {{
+            put(THREADS, "4");
+            put(BATCH_SIZE, "100");
+            put(STAGED_EMIT_THREADS, "2");
+            put(STAGED_QUEUE_SIZE, "16");
+            put(EXECUTOR, LocalParallelStreamRuntime.Config.Executor.STAGED.name().toLowerCase());
+            put(WORK_CHUNK_DRIVER_PHASE_ONE, RangedWorkChunkDriver.class.getName());
+            put(WORK_CHUNK_DRIVER_PHASE_TWO, RangedWorkChunkDriver.class.getName());
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_BOTTOM, "0");
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_TOP, String.valueOf(TEST_SIZE));
+            put(ConfigurationBase.Keys.OUTPUT_ID_DRIVER, RangedOutputIdDriver.class.getName());
+            put(CheckpointLog.Config.Keys.PATH, checkpoint.toString());
+            put(CheckpointLog.Config.Keys.FORCE, "false");
+        }});
+        MockUtil.setDefaultMockCallbacks();
+
+        iteratePhasesTimed(LocalParallelStreamRuntime.open(config), config);
+
+        assertEquals(TEST_SIZE * 2, getHitCounter(MockOutput.class, MockOutput.Methods.WRITE_TO_OUTPUT));
+        final Map<Runtime.PHASE, Set<String>> acknowledged = CheckpointLog.read(CheckpointLog.completedPath(checkpoint));
+        assertEquals(TEST_SIZE / 100, acknowledged.get(Runtime.PHASE.ONE).size());
+        assertEquals(TEST_SIZE / 100, acknowledged.get(Runtime.PHASE.TWO).size());
+    }
+
+    @Test
+    public void testRingBufferHandsEveryItemToOneConsumer() {
+        final int items = 200_000;
+        final RingBuffer<Integer> ring = new RingBuffer<>(100);
+        assertEquals(128, ring.capacity());
+        final Set<Integer> received = ConcurrentHashMap.newKeySet();
+        final AtomicInteger next = new AtomicInteger(0);
+        // producers spin on a full ring, so every worker needs its own thread
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final CompletableFuture<?>[] workers = Stream.concat(
+                IntStream.range(0, 4).mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    int item;
+                    while ((item = next.getAndIncrement()) < items) {
+                        while (!ring.offer(item)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }, executor)),
+                IntStream.range(0, 4).mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    while (received.size() < items) {
+                        final Integer item = ring.poll();
+                        if (item != null)
+                            assertTrue(received.add(item));
+                    }
+                }, executor))).toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(workers).join();
+        executor.shutdown();
+        assertEquals(items, received.size());
+        assertNull(ring.poll());
+        assertEquals(0, ring.size());
+    }
+}
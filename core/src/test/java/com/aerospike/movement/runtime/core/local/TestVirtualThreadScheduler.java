@@ -0,0 +1,106 @@
+package com.aerospike.movement.runtime.core.local;
+
+import com.aerospike.movement.config.core.ConfigurationBase;
+import com.aerospike.movement.emitter.core.Emitable;
+import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.driver.impl.RangedOutputIdDriver;
+import com.aerospike.movement.runtime.core.driver.impl.RangedWorkChunkDriver;
+import com.aerospike.movement.test.core.AbstractMovementTest;
+import com.aerospike.movement.test.mock.MockCallback;
+import com.aerospike.movement.test.mock.MockUtil;
+import com.aerospike.movement.test.mock.emitter.MockEmitable;
+import com.aerospike.movement.test.mock.encoder.MockEncoder;
+import com.aerospike.movement.util.core.configuration.ConfigUtil;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.aerospike.movement.config.core.ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_ONE;
+import static com.aerospike.movement.config.core.ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_TWO;
+import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.*;
+import static com.aerospike.movement.test.mock.MockUtil.getHitCounter;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+/*
+ * The build runs on JDKs without virtual threads, where the scheduler falls back to a cached pool of platform
+ * threads. This covers the in flight bound either way, on Java 21+ the same test runs on virtual threads.
+ */
+public class TestVirtualThreadScheduler extends AbstractMovementTest {
+    private static final int FAN_OUT = 3;
+    private static final int MAX_IN_FLIGHT_LIMIT = 8;
+
+    @Before
+    public void setup() {
+        super.setup();
+        LocalParallelStreamRuntime.closeStatic();
+    }
+
+    @After
+    public void cleanup() {
+        super.cleanup();
+    }
+
+    @Test
+    public void testElementsInFlightStayWithinTheLimit() {
+        final int size = 2_000;
+        final Configuration config = virtualConfiguration(size);
+        final AtomicInteger observed = new AtomicInteger(0);
+        MockUtil.setDefaultMockCallbacks();
+        MockUtil.setCallback(MockEmitable.class, MockEmitable.Methods.EMIT,
+                MockCallback.create((object, args) -> {
+                    VirtualThreadScheduler.runningStatus().ifPresent(status ->
+                            observed.getAndUpdate(max -> Math.max(max, (Integer) status.get("IN_FLIGHT"))));
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return Optional.of(children());
+                }));
+        final AtomicReference<Map<String, Object>> status = new AtomicReference<>();
+        final Runtime runtime = LocalParallelStreamRuntime.open(config);
+        final Iterator<RunningPhase> phases = runtime.runPhases(List.of(Runtime.PHASE.ONE), config);
+        final Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted())
+                VirtualThreadScheduler.runningStatus().ifPresent(status::set);
+        });
+        sampler.start();
+        iteratePhasesAndCloseRuntime(phases, runtime);
+        sampler.interrupt();
+
+        assertEquals(size * (1 + FAN_OUT), getHitCounter(MockEncoder.class, MockEncoder.Methods.ENCODE));
+        assertTrue(observed.get() > 0 && observed.get() <= MAX_IN_FLIGHT_LIMIT);
+        assertEquals(MAX_IN_FLIGHT_LIMIT, status.get().get("LIMIT"));
+        assertEquals(MAX_IN_FLIGHT_LIMIT, status.get().get("PEAK_IN_FLIGHT"));
+    }
+
+    private Configuration virtualConfiguration(final int size) {
+        return getMockConfiguration(new HashMap<>() {{
+            put(THREADS, "4");
+            put(BATCH_SIZE, "7");
+            put(MAX_IN_FLIGHT, String.valueOf(MAX_IN_FLIGHT_LIMIT));
+            put(EXECUTOR, LocalParallelStreamRuntime.Config.Executor.VIRTUAL.name().toLowerCase());
+            put(WORK_CHUNK_DRIVER_PHASE_ONE, RangedWorkChunkDriver.class.getName());
+            put(WORK_CHUNK_DRIVER_PHASE_TWO, RangedWorkChunkDriver.class.getName());
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_BOTTOM, "0");
+            put(RangedWorkChunkDriver.Config.Keys.RANGE_TOP, String.valueOf(size));
+            put(ConfigurationBase.Keys.OUTPUT_ID_DRIVER, RangedOutputIdDriver.class.getName());
+        }});
+    }
+
+    private static Stream<Emitable> children() {
+        return IntStream.range(0, FAN_OUT).mapToObj(i -> new MockEmitable(i, true, ConfigUtil.empty()));
+    }
+}
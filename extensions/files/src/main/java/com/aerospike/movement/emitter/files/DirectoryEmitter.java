@@ -12,9 +12,12 @@ import com.aerospike.movement.emitter.core.Emitter;
 import com.aerospike.movement.runtime.core.local.Loadable;
 import com.aerospike.movement.runtime.core.Runtime;
 import com.aerospike.movement.runtime.core.driver.WorkChunkDriver;
+import com.aerospike.movement.encoding.files.columnar.ColumnarFileReader;
+import com.aerospike.movement.encoding.files.columnar.ColumnarFormat;
 import com.aerospike.movement.util.core.configuration.ConfigUtil;
 import com.aerospike.movement.util.core.error.ErrorHandler;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
+import com.aerospike.movement.util.files.ByteLineReader;
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.MapConfiguration;
 
@@ -54,11 +57,13 @@ public class DirectoryEmitter extends Loadable implements Emitter, Emitter.SelfD
             public static final String BASE_PATH = "loader.basePath";
             public static final String PHASE_ONE_SUBDIR = "aerospike.graphloader.phaseOneSubdir";
             public static final String PHASE_TWO_SUBDIR = "aerospike.graphloader.phaseTwoSubdir";
+            public static final String READ_BUFFER_SIZE_KB = "loader.readBufferSizeKB";
         }
 
         private static final Map<String, String> DEFAULTS = new HashMap<>() {{
             put(Keys.PHASE_ONE_SUBDIR, "vertices");
             put(Keys.PHASE_TWO_SUBDIR, "edges");
+            put(Keys.READ_BUFFER_SIZE_KB, "1024");
 
 
         }};
@@ -177,15 +182,10 @@ public class DirectoryEmitter extends Loadable implements Emitter, Emitter.SelfD
         try {
             return Files.walk(Path.of(typePath + "/" + label))
                     .filter(Files::isRegularFile)
-                    .map(path -> {
-                        try {
-                            return Files.lines(path).findFirst().get();
-                        } catch (IOException e) {
-                            throw new RuntimeException(e);
-                        }
-                    })
                     .findFirst()
-                    .map(header -> Arrays.asList(header.split(",")))
+                    .map(path -> ColumnarFormat.isColumnar(path) ?
+                            ColumnarFileReader.readColumns(path) :
+                            Arrays.asList(ByteLineReader.readFirstLine(path).split(",")))
                     .orElseThrow(() -> new RuntimeException("No header found for label " + label));
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -8,71 +8,74 @@ package com.aerospike.movement.emitter.files;
 
 import com.aerospike.movement.emitter.core.Emitable;
 import com.aerospike.movement.encoding.core.Decoder;
+import com.aerospike.movement.encoding.files.columnar.ColumnarFileReader;
+import com.aerospike.movement.encoding.files.columnar.ColumnarFormat;
+import com.aerospike.movement.encoding.files.columnar.ColumnarRow;
+import com.aerospike.movement.encoding.files.columnar.GraphColumnarDecoder;
+import com.aerospike.movement.encoding.files.csv.CSVSchema;
+import com.aerospike.movement.encoding.files.csv.GraphCSVDecoder;
 import com.aerospike.movement.output.core.Output;
 import com.aerospike.movement.runtime.core.Runtime;
 import com.aerospike.movement.runtime.core.driver.WorkChunk;
 import com.aerospike.movement.runtime.core.driver.WorkItem;
-import com.aerospike.movement.util.core.iterator.OneShotIteratorSupplier;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import com.aerospike.movement.util.core.iterator.ext.IteratorUtils;
-import com.aerospike.movement.util.core.stream.sequence.PotentialSequence;
-import com.aerospike.movement.util.core.stream.sequence.SequenceUtil;
+import com.aerospike.movement.util.files.ByteLineReader;
 import org.apache.commons.configuration2.Configuration;
 
 
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 public class EmittableWorkChunkFile implements WorkChunk, Emitable {
     private final UUID uuid;
     private final Configuration config;
-    private final PotentialSequence<String> pse;
-    private final String header;
     private final Runtime.PHASE phase;
-    private AtomicLong lineCounter = new AtomicLong(0);
-    private final Decoder<String> decoder;
+    private final Decoder<CharSequence> decoder;
+    private final int readBufferSize;
+    private final long start;
+    private final long end;
+    private final String header;
     private Path filePath;
 
+    /*
+     * A chunk covers the lines that begin in the byte range [start, end) of the file. Chunks that do not start at
+     * the beginning of the file are given the header line, the chunk at offset 0 reads it if it is not given.
+     */
     public EmittableWorkChunkFile(final Path filePath,
+                                  final long start,
+                                  final long end,
                                   final String header,
-                                  final PotentialSequence<String> pse,
                                   final Runtime.PHASE phase,
-                                  final Decoder<String> decoder,
+                                  final Decoder<CharSequence> decoder,
                                   final Configuration config) {
         this.filePath = filePath;
+        this.start = start;
+        this.end = end;
         this.header = header;
         this.config = config;
         this.uuid = UUID.randomUUID();
-        this.pse = pse;
         this.decoder = decoder;
         this.phase = phase;
+        this.readBufferSize = Integer.parseInt(DirectoryEmitter.CONFIG.getOrDefault(DirectoryEmitter.Config.Keys.READ_BUFFER_SIZE_KB, config)) * 1024;
     }
 
     public static WorkChunk from(final Path filePath, Runtime.PHASE phase, final Configuration config) {
-        final PotentialSequence<String> pse;
-        final String header;
-        try {
-            header = Files.lines(filePath).iterator().next();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        final Decoder<String> decoder = (Decoder<String>) RuntimeUtil.lookupOrLoad(Decoder.class, config);
-        pse = SequenceUtil.fuse(OneShotIteratorSupplier.of(() -> {
-            try {
-                final Iterator<String> i = Files.lines(filePath).iterator();
-                i.next(); // skip header
-                return i;
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        }));
-        return new EmittableWorkChunkFile(filePath, header, pse, phase, decoder, config);
+        return from(filePath, 0, Long.MAX_VALUE, null, phase, config);
     }
 
+    public static WorkChunk from(final Path filePath, final long start, final long end, final String header, Runtime.PHASE phase, final Configuration config) {
+        final Decoder<CharSequence> decoder = (Decoder<CharSequence>) RuntimeUtil.lookupOrLoad(Decoder.class, config);
+        return new EmittableWorkChunkFile(filePath, start, end, header, phase, decoder, config);
+    }
+
+
+    // file and byte range, the ranges only line up again if the split size is unchanged
+    @Override
+    public Optional<String> checkpointKey() {
+        return Optional.of(filePath.toAbsolutePath() + "@" + start + "-" + end);
+    }
 
     @Override
     public UUID getId() {
@@ -83,9 +86,45 @@ public class EmittableWorkChunkFile implements WorkChunk, Emitable {
         return filePath;
     }
 
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
     @Override
     public Stream<Emitable> emit(final Output unused) {
-        return pse.stream().filter(it -> it.isPresent()).map(it -> it.get()).map(it -> decoder.decodeElement(it, header, phase));
+        if (ColumnarFormat.isColumnar(filePath))
+            return emitColumnar();
+        final ByteLineReader reader = ByteLineReader.open(filePath, start, end, readBufferSize);
+        final String header;
+        if (start == 0) {
+            if (!reader.hasNext())
+                return Stream.empty();
+            final String headerLine = reader.next().toString();
+            header = this.header != null ? this.header : headerLine;
+        } else {
+            header = this.header;
+        }
+        // the decoder copies each line out of the reader's buffer before the next one is read
+        if (decoder instanceof GraphCSVDecoder) {
+            final GraphCSVDecoder csvDecoder = (GraphCSVDecoder) decoder;
+            final CSVSchema schema = CSVSchema.parse(header);
+            return IteratorUtils.stream(reader).map(line -> (Emitable) csvDecoder.decodeElement(line, schema, phase)).onClose(reader::close);
+        }
+        return IteratorUtils.stream(reader).map(line -> decoder.decodeElement(line, header, phase)).onClose(reader::close);
+    }
+
+    private Stream<Emitable> emitColumnar() {
+        final Decoder<ColumnarRow> rowDecoder = (Decoder<ColumnarRow>) (Decoder) decoder;
+        final Optional<Set<String>> columns = rowDecoder instanceof GraphColumnarDecoder ?
+                ((GraphColumnarDecoder) rowDecoder).getColumns() :
+                Optional.empty();
+        final ColumnarFileReader reader = ColumnarFileReader.open(filePath, columns);
+        final String header = String.join(",", reader.getColumns());
+        return IteratorUtils.stream(reader).map(row -> rowDecoder.decodeElement(row, header, phase)).onClose(reader::close);
     }
 
     @Override
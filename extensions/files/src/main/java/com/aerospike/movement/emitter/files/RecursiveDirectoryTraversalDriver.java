@@ -10,11 +10,14 @@ import com.aerospike.movement.config.core.ConfigurationBase;
 import com.aerospike.movement.runtime.core.Runtime;
 import com.aerospike.movement.runtime.core.driver.WorkChunk;
 import com.aerospike.movement.runtime.core.driver.WorkChunkDriver;
+import com.aerospike.movement.encoding.files.columnar.ColumnarFormat;
 import com.aerospike.movement.util.core.configuration.ConfigUtil;
 import com.aerospike.movement.util.core.iterator.OneShotIteratorSupplier;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import com.aerospike.movement.util.core.stream.sequence.PotentialSequence;
 import com.aerospike.movement.util.core.stream.sequence.SequenceUtil;
+import com.aerospike.movement.util.files.ByteLineReader;
+import com.aerospike.movement.util.files.FileCodec;
 import org.apache.commons.configuration2.Configuration;
 
 import java.io.IOException;
@@ -23,6 +26,8 @@ import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 public class RecursiveDirectoryTraversalDriver extends WorkChunkDriver {
     private final Runtime.PHASE phase;
@@ -50,9 +55,11 @@ public class RecursiveDirectoryTraversalDriver extends WorkChunkDriver {
 
         public static class Keys {
             public static final String DIRECTORY_TO_TRAVERSE = "loader.traversal.directory";
+            public static final String SPLIT_SIZE_KB = "loader.traversal.splitSizeKB";
         }
 
         private static final Map<String, String> DEFAULTS = new HashMap<>() {{
+            put(Keys.SPLIT_SIZE_KB, String.valueOf(256 * 1024));
         }};
 
     }
@@ -102,6 +109,7 @@ public class RecursiveDirectoryTraversalDriver extends WorkChunkDriver {
 
     @Override
     public void onClose()  {
+        closeCheckpoint();
         synchronized (RecursiveDirectoryTraversalDriver.class) {
             if (initialized.compareAndSet(true, false)) {
                 phaseSequences.remove(this.phase);
@@ -110,12 +118,22 @@ public class RecursiveDirectoryTraversalDriver extends WorkChunkDriver {
     }
 
 
+    // every file chunk is an EmittableWorkChunkFile, emitted whole
+    @Override
+    public boolean supportsCheckpoint() {
+        return true;
+    }
+
     @Override
     public Optional<WorkChunk> getNext() {
         if (!initialized.get()) {
             throw new IllegalStateException("WorkChunkDriver not initialized");
         }
-        return (Optional<WorkChunk>) sequence.getNext();
+        Optional<WorkChunk> next = (Optional<WorkChunk>) sequence.getNext();
+        while (next.isPresent() && isAcknowledged(next.get())) {
+            next = (Optional<WorkChunk>) sequence.getNext();
+        }
+        return next;
     }
 
 
@@ -125,7 +143,7 @@ public class RecursiveDirectoryTraversalDriver extends WorkChunkDriver {
                 try {
                     return Files.walk(elementTypePath)
                             .filter(file -> !Files.isDirectory(file))
-                            .map(it -> EmittableWorkChunkFile.from((Path) it, phase, config))
+                            .flatMap(it -> fileChunks(it, phase, config))
                             .iterator();
                 } catch (IOException e) {
                     throw new RuntimeException(e);
@@ -134,6 +152,27 @@ public class RecursiveDirectoryTraversalDriver extends WorkChunkDriver {
         }
         throw new IllegalStateException("Unknown phase " + phase);
     }
+
+    // Files larger than loader.traversal.splitSizeKB are split into byte ranges, so one large file can be read by every pipeline.
+    // Compressed and columnar files cannot be read from a byte offset and are always one chunk.
+    private static Stream<WorkChunk> fileChunks(final Path file, final Runtime.PHASE phase, final Configuration config) {
+        final long splitSize = Long.parseLong(Config.INSTANCE.getOrDefault(Config.Keys.SPLIT_SIZE_KB, config)) * 1024;
+        final long fileSize;
+        try {
+            fileSize = Files.size(file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (fileSize <= splitSize || FileCodec.fromPath(file) != FileCodec.NONE || ColumnarFormat.isColumnar(file))
+            return Stream.of(EmittableWorkChunkFile.from(file, phase, config));
+        final String header = ByteLineReader.readFirstLine(file);
+        final long splits = (fileSize + splitSize - 1) / splitSize;
+        return LongStream.range(0, splits)
+                .mapToObj(split -> EmittableWorkChunkFile.from(file,
+                        split * splitSize,
+                        split == splits - 1 ? Long.MAX_VALUE : (split + 1) * splitSize,
+                        header, phase, config));
+    }
 }
 
 
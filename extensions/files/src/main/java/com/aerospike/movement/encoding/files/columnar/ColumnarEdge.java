@@ -0,0 +1,59 @@
+package com.aerospike.movement.encoding.files.columnar;
+
+import com.aerospike.movement.emitter.core.Emitable;
+import com.aerospike.movement.output.core.Output;
+import com.aerospike.movement.structure.core.EmittedId;
+import com.aerospike.movement.structure.core.graph.EmittedEdge;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class ColumnarEdge implements EmittedEdge {
+    private final ColumnarRow row;
+
+    public ColumnarEdge(final ColumnarRow row) {
+        this.row = row;
+    }
+
+    @Override
+    public EmittedId fromId() {
+        return EmittedId.from(row.get(FROM));
+    }
+
+    @Override
+    public EmittedId toId() {
+        return EmittedId.from(row.get(TO));
+    }
+
+    @Override
+    public Stream<String> propertyNames() {
+        return row.propertyNames().stream();
+    }
+
+    @Override
+    public Optional<Object> propertyValue(final String name) {
+        return Optional.ofNullable(row.get(name));
+    }
+
+    @Override
+    public String label() {
+        return (String) row.get(LABEL);
+    }
+
+    @Override
+    public Stream<Emitable> emit(final Output output) {
+        emitTo(output, emitable -> {});
+        return Stream.empty();
+    }
+
+    @Override
+    public void emitTo(final Output output, final Consumer<Emitable> sink) {
+        output.writer(EmittedEdge.class, label()).writeToOutput(Optional.of(this));
+    }
+
+    @Override
+    public Stream<Emitable> stream() {
+        return Stream.empty();
+    }
+}
@@ -0,0 +1,179 @@
+package com.aerospike.movement.encoding.files.columnar;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/*
+ * Reads the rows of a columnar file one row group at a time. Only the column chunks of the projected columns are
+ * read from disk, the others are skipped using the offsets in the footer.
+ */
+public class ColumnarFileReader implements Iterator<ColumnarRow>, Closeable {
+    private final FileChannel channel;
+    private final List<String> columns;
+    private final int[] projection;
+    private final Map<String, Integer> projectedIndexes = new HashMap<>();
+    private final List<String> propertyNames;
+    private final List<Integer> rowGroupRows = new ArrayList<>();
+    private final List<long[]> rowGroupChunks = new ArrayList<>();
+    private int rowGroup = -1;
+    private int row = 0;
+    private Object[][] rowGroupValues;
+    private boolean closed = false;
+
+    private ColumnarFileReader(final FileChannel channel, final Optional<Set<String>> projectedColumns) throws IOException {
+        this.channel = channel;
+        final DataInputStream footer = readFooter(channel);
+        final int columnCount = footer.readInt();
+        final List<String> columns = new ArrayList<>(columnCount);
+        for (int column = 0; column < columnCount; column++) {
+            columns.add(footer.readUTF());
+        }
+        this.columns = Collections.unmodifiableList(columns);
+        final int rowGroups = footer.readInt();
+        for (int group = 0; group < rowGroups; group++) {
+            rowGroupRows.add(footer.readInt());
+            final long[] chunks = new long[columnCount * 2];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = footer.readLong();
+            }
+            rowGroupChunks.add(chunks);
+        }
+        final List<Integer> projected = new ArrayList<>();
+        for (int column = 0; column < columnCount; column++) {
+            if (isProjected(columns.get(column), projectedColumns)) {
+                projectedIndexes.put(columns.get(column), projected.size());
+                projected.add(column);
+            }
+        }
+        this.projection = projected.stream().mapToInt(Integer::intValue).toArray();
+        this.propertyNames = Collections.unmodifiableList(projectedIndexes.keySet().stream()
+                .filter(it -> !it.startsWith("~"))
+                .sorted(Comparator.comparing(projectedIndexes::get))
+                .collect(Collectors.toList()));
+    }
+
+    // ~ columns (id, label, from, to) are always read
+    private static boolean isProjected(final String column, final Optional<Set<String>> projectedColumns) {
+        return projectedColumns.isEmpty() || column.startsWith("~") || projectedColumns.get().contains(column);
+    }
+
+    public static ColumnarFileReader open(final Path path) {
+        return open(path, Optional.empty());
+    }
+
+    public static ColumnarFileReader open(final Path path, final Optional<Set<String>> projectedColumns) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            return new ColumnarFileReader(channel, projectedColumns);
+        } catch (IOException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new UncheckedIOException(new IOException("Could not read columnar file " + path, e));
+        }
+    }
+
+    public static List<String> readColumns(final Path path) {
+        try (final ColumnarFileReader reader = open(path)) {
+            return reader.columns;
+        }
+    }
+
+    private static DataInputStream readFooter(final FileChannel channel) throws IOException {
+        final long size = channel.size();
+        final int trailerSize = Integer.BYTES + ColumnarFormat.MAGIC.length;
+        if (size < ColumnarFormat.MAGIC.length + trailerSize)
+            throw new IOException("File too short");
+        final ByteBuffer trailer = read(channel, size - trailerSize, trailerSize);
+        final int footerLength = trailer.getInt();
+        final byte[] magic = new byte[ColumnarFormat.MAGIC.length];
+        trailer.get(magic);
+        if (!Arrays.equals(magic, ColumnarFormat.MAGIC))
+            throw new IOException("Not a columnar file");
+        final ByteBuffer footer = read(channel, size - trailerSize - footerLength, footerLength);
+        return new DataInputStream(new ByteArrayInputStream(footer.array()));
+    }
+
+    private static ByteBuffer read(final FileChannel channel, final long position, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Unexpected end of file");
+        }
+        return buffer.flip();
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed)
+            return false;
+        while (rowGroupValues == null || row >= rowGroupRows.get(rowGroup)) {
+            if (rowGroup + 1 >= rowGroupRows.size()) {
+                close();
+                return false;
+            }
+            readRowGroup(++rowGroup);
+        }
+        return true;
+    }
+
+    @Override
+    public ColumnarRow next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        final Object[] values = new Object[projection.length];
+        for (int column = 0; column < projection.length; column++) {
+            values[column] = rowGroupValues[column][row];
+        }
+        row++;
+        return new ColumnarRow(projectedIndexes, propertyNames, values);
+    }
+
+    private void readRowGroup(final int group) {
+        final int rows = rowGroupRows.get(group);
+        final long[] chunks = rowGroupChunks.get(group);
+        rowGroupValues = new Object[projection.length][];
+        try {
+            for (int column = 0; column < projection.length; column++) {
+                final long offset = chunks[projection[column] * 2];
+                final int length = (int) chunks[projection[column] * 2 + 1];
+                final ByteBuffer chunk = read(channel, offset, length);
+                rowGroupValues[column] = ColumnarFormat.decodeColumn(new DataInputStream(new ByteArrayInputStream(chunk.array())), rows);
+            }
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        }
+        row = 0;
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.aerospike.movement.encoding.files.columnar;
+
+import com.aerospike.movement.util.files.AsyncFileChannelWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * Buffers rows and writes them column by column in row groups of rowGroupSize, the footer is written on close.
+ */
+public class ColumnarFileWriter {
+    private final AsyncFileChannelWriter file;
+    private final List<String> columns;
+    private final int rowGroupSize;
+    private final Object[][] rowGroup;
+    private final List<long[]> rowGroupChunks = new ArrayList<>();
+    private final List<Integer> rowGroupRows = new ArrayList<>();
+    private int rows = 0;
+    private long offset = 0;
+
+    private ColumnarFileWriter(final AsyncFileChannelWriter file, final List<String> columns, final int rowGroupSize) {
+        this.file = file;
+        this.columns = columns;
+        this.rowGroupSize = rowGroupSize;
+        this.rowGroup = new Object[columns.size()][rowGroupSize];
+        write(ColumnarFormat.MAGIC);
+    }
+
+    public static ColumnarFileWriter open(final Path path,
+                                          final List<String> columns,
+                                          final int rowGroupSize,
+                                          final int bufferSize,
+                                          final AsyncFileChannelWriter.ForcePolicy forcePolicy) {
+        return new ColumnarFileWriter(AsyncFileChannelWriter.open(path, bufferSize, forcePolicy), columns, rowGroupSize);
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    // values are in the order of the columns, null for a missing value
+    public void addRow(final Object[] values) {
+        for (int column = 0; column < columns.size(); column++) {
+            rowGroup[column][rows] = values[column];
+        }
+        if (++rows == rowGroupSize)
+            writeRowGroup();
+    }
+
+    // Writes the buffered rows as a row group of their own and waits until they reached the file.
+    public void flush() {
+        writeRowGroup();
+        file.flush();
+    }
+
+    private void writeRowGroup() {
+        if (rows == 0)
+            return;
+        try {
+            // per column: offset, length
+            final long[] chunks = new long[columns.size() * 2];
+            for (int column = 0; column < columns.size(); column++) {
+                final byte[] chunk = ColumnarFormat.encodeColumn(rowGroup[column], rows);
+                chunks[column * 2] = offset;
+                chunks[column * 2 + 1] = chunk.length;
+                write(chunk);
+                Arrays.fill(rowGroup[column], 0, rows, null);
+            }
+            rowGroupChunks.add(chunks);
+            rowGroupRows.add(rows);
+            rows = 0;
+            file.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(final byte[] bytes) {
+        file.write(bytes);
+        offset += bytes.length;
+    }
+
+    public CompletableFuture<Void> closeAsync() {
+        writeRowGroup();
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final DataOutputStream footer = new DataOutputStream(bytes);
+            footer.writeInt(columns.size());
+            for (final String column : columns) {
+                footer.writeUTF(column);
+            }
+            footer.writeInt(rowGroupRows.size());
+            for (int group = 0; group < rowGroupRows.size(); group++) {
+                footer.writeInt(rowGroupRows.get(group));
+                for (final long chunk : rowGroupChunks.get(group)) {
+                    footer.writeLong(chunk);
+                }
+            }
+            footer.writeInt(bytes.size());
+            footer.write(ColumnarFormat.MAGIC);
+            footer.flush();
+            write(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return file.closeAsync();
+    }
+}
@@ -0,0 +1,294 @@
+package com.aerospike.movement.encoding.files.columnar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+/*
+ * Layout of a columnar file:
+ *
+ *   MAGIC
+ *   row group*      one chunk per column, each column chunk stands alone so a reader can skip it
+ *   footer          column names, then per row group its row count and the offset and length of every column chunk
+ *   footer length   int
+ *   MAGIC
+ *
+ * A column chunk is: type, encoding, null bitmap, then the non-null values. Integer columns are delta encoded as
+ * zig-zag varints, so sequential ids take a byte or two. String columns with many repeats are dictionary encoded.
+ * A chunk holding more than one value type is MIXED, every value is preceded by its own type, so a property that
+ * is a number on some elements and a string on others loads back as it was written. Values of any other type than
+ * the boxed primitives and String are rejected rather than written as their toString().
+ */
+public class ColumnarFormat {
+    public static final String EXTENSION = "mcol";
+    static final byte[] MAGIC = "MCOL".getBytes(StandardCharsets.US_ASCII);
+
+    static final byte TYPE_NULL = 0;
+    static final byte TYPE_BOOLEAN = 1;
+    static final byte TYPE_INT = 2;
+    static final byte TYPE_LONG = 3;
+    static final byte TYPE_FLOAT = 4;
+    static final byte TYPE_DOUBLE = 5;
+    static final byte TYPE_STRING = 6;
+    static final byte TYPE_MIXED = 7;
+    static final byte TYPE_SHORT = 8;
+    static final byte TYPE_BYTE = 9;
+    static final byte TYPE_CHAR = 10;
+
+    static final byte ENCODING_PLAIN = 0;
+    static final byte ENCODING_DELTA = 1;
+    static final byte ENCODING_DICTIONARY = 2;
+
+    public static boolean isColumnar(final Path path) {
+        return path.getFileName().toString().endsWith("." + EXTENSION);
+    }
+
+    public static boolean isSupported(final Object value) {
+        return value == null || typeCode(value) != TYPE_NULL;
+    }
+
+    private static byte typeCode(final Object value) {
+        if (value instanceof String)
+            return TYPE_STRING;
+        if (value instanceof Boolean)
+            return TYPE_BOOLEAN;
+        if (value instanceof Integer)
+            return TYPE_INT;
+        if (value instanceof Long)
+            return TYPE_LONG;
+        if (value instanceof Float)
+            return TYPE_FLOAT;
+        if (value instanceof Double)
+            return TYPE_DOUBLE;
+        if (value instanceof Short)
+            return TYPE_SHORT;
+        if (value instanceof Byte)
+            return TYPE_BYTE;
+        if (value instanceof Character)
+            return TYPE_CHAR;
+        return TYPE_NULL;
+    }
+
+    private static byte typeOf(final Object value) {
+        final byte type = typeCode(value);
+        if (type == TYPE_NULL)
+            throw new IllegalArgumentException("Columnar files cannot hold values of type " + value.getClass().getName());
+        return type;
+    }
+
+    static byte[] encodeColumn(final Object[] values, final int rowCount) throws IOException {
+        byte type = TYPE_NULL;
+        int nonNull = 0;
+        final byte[] nulls = new byte[(rowCount + 7) / 8];
+        for (int row = 0; row < rowCount; row++) {
+            if (values[row] == null) {
+                nulls[row >> 3] |= 1 << (row & 7);
+                continue;
+            }
+            nonNull++;
+            final byte valueType = typeOf(values[row]);
+            type = type == TYPE_NULL || type == valueType ? valueType : TYPE_MIXED;
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(type);
+        switch (type) {
+            case TYPE_BYTE:
+            case TYPE_SHORT:
+            case TYPE_INT:
+            case TYPE_LONG:
+                out.writeByte(ENCODING_DELTA);
+                out.write(nulls);
+                long previous = 0;
+                for (int row = 0; row < rowCount; row++) {
+                    if (values[row] == null)
+                        continue;
+                    final long value = ((Number) values[row]).longValue();
+                    writeVarLong(out, zigZag(value - previous));
+                    previous = value;
+                }
+                break;
+            case TYPE_STRING:
+                final Map<String, Integer> dictionary = new LinkedHashMap<>();
+                for (int row = 0; row < rowCount; row++) {
+                    if (values[row] != null)
+                        dictionary.putIfAbsent(String.valueOf(values[row]), dictionary.size());
+                }
+                final boolean useDictionary = dictionary.size() <= nonNull / 2;
+                out.writeByte(useDictionary ? ENCODING_DICTIONARY : ENCODING_PLAIN);
+                out.write(nulls);
+                if (useDictionary) {
+                    writeVarLong(out, dictionary.size());
+                    for (final String entry : dictionary.keySet()) {
+                        writeString(out, entry);
+                    }
+                }
+                for (int row = 0; row < rowCount; row++) {
+                    if (values[row] == null)
+                        continue;
+                    if (useDictionary)
+                        writeVarLong(out, dictionary.get(String.valueOf(values[row])));
+                    else
+                        writeString(out, String.valueOf(values[row]));
+                }
+                break;
+            default:
+                out.writeByte(ENCODING_PLAIN);
+                out.write(nulls);
+                for (int row = 0; row < rowCount; row++) {
+                    if (values[row] == null)
+                        continue;
+                    if (type == TYPE_MIXED) {
+                        final byte valueType = typeOf(values[row]);
+                        out.writeByte(valueType);
+                        writePlain(out, valueType, values[row]);
+                    } else {
+                        writePlain(out, type, values[row]);
+                    }
+                }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writePlain(final DataOutputStream out, final byte type, final Object value) throws IOException {
+        switch (type) {
+            case TYPE_BOOLEAN:
+                out.writeBoolean((Boolean) value);
+                break;
+            case TYPE_BYTE:
+            case TYPE_SHORT:
+            case TYPE_INT:
+            case TYPE_LONG:
+                writeVarLong(out, zigZag(((Number) value).longValue()));
+                break;
+            case TYPE_FLOAT:
+                out.writeFloat((Float) value);
+                break;
+            case TYPE_DOUBLE:
+                out.writeDouble((Double) value);
+                break;
+            default:
+                writeString(out, String.valueOf(value));
+        }
+    }
+
+    private static Object readPlain(final DataInputStream in, final byte type) throws IOException {
+        switch (type) {
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_BYTE:
+            case TYPE_SHORT:
+            case TYPE_INT:
+            case TYPE_LONG:
+                return integral(type, unZigZag(readVarLong(in)));
+            case TYPE_FLOAT:
+                return in.readFloat();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_STRING:
+                return readString(in);
+            case TYPE_CHAR:
+                return readString(in).charAt(0);
+            default:
+                throw new IOException("Unknown column type " + type);
+        }
+    }
+
+    static Object[] decodeColumn(final DataInputStream in, final int rowCount) throws IOException {
+        final byte type = in.readByte();
+        final byte encoding = in.readByte();
+        final byte[] nulls = new byte[(rowCount + 7) / 8];
+        in.readFully(nulls);
+        final Object[] values = new Object[rowCount];
+        if (type == TYPE_NULL)
+            return values;
+        final List<String> dictionary = new ArrayList<>();
+        if (encoding == ENCODING_DICTIONARY) {
+            final long size = readVarLong(in);
+            for (long i = 0; i < size; i++) {
+                dictionary.add(readString(in));
+            }
+        }
+        long previous = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if ((nulls[row >> 3] & (1 << (row & 7))) != 0)
+                continue;
+            switch (type) {
+                case TYPE_BYTE:
+                case TYPE_SHORT:
+                case TYPE_INT:
+                case TYPE_LONG:
+                    previous += unZigZag(readVarLong(in));
+                    values[row] = integral(type, previous);
+                    break;
+                case TYPE_STRING:
+                    values[row] = encoding == ENCODING_DICTIONARY ? dictionary.get((int) readVarLong(in)) : readString(in);
+                    break;
+                case TYPE_MIXED:
+                    values[row] = readPlain(in, in.readByte());
+                    break;
+                default:
+                    values[row] = readPlain(in, type);
+            }
+        }
+        return values;
+    }
+
+    private static Object integral(final byte type, final long value) {
+        switch (type) {
+            case TYPE_BYTE:
+                return (byte) value;
+            case TYPE_SHORT:
+                return (short) value;
+            case TYPE_INT:
+                return (int) value;
+            default:
+                return value;
+        }
+    }
+
+    private static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeVarLong(final DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(final DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
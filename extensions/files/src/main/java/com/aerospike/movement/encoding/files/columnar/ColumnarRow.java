@@ -0,0 +1,28 @@
+package com.aerospike.movement.encoding.files.columnar;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ * One row read from a columnar file. Columns that were not read are absent, as are null values.
+ */
+public class ColumnarRow {
+    private final Map<String, Integer> columnIndexes;
+    private final List<String> propertyNames;
+    private final Object[] values;
+
+    ColumnarRow(final Map<String, Integer> columnIndexes, final List<String> propertyNames, final Object[] values) {
+        this.columnIndexes = columnIndexes;
+        this.propertyNames = propertyNames;
+        this.values = values;
+    }
+
+    public Object get(final String column) {
+        final Integer index = columnIndexes.get(column);
+        return index == null ? null : values[index];
+    }
+
+    public List<String> propertyNames() {
+        return propertyNames;
+    }
+}
@@ -0,0 +1,98 @@
+package com.aerospike.movement.encoding.files.columnar;
+
+import com.aerospike.movement.config.core.ConfigurationBase;
+import com.aerospike.movement.encoding.core.Decoder;
+import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.local.Loadable;
+import com.aerospike.movement.structure.core.graph.EmitableGraphElement;
+import com.aerospike.movement.util.core.configuration.ConfigUtil;
+import com.aerospike.movement.util.core.error.ErrorUtil;
+import org.apache.commons.configuration2.Configuration;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static com.aerospike.movement.config.core.ConfigurationBase.Keys.PHASE_OVERRIDE;
+
+/*
+ * Decodes rows of columnar files into vertices and edges. With decoder.columnar.columns set, only those property
+ * columns are read from the files, the id, label, from and to columns always are.
+ */
+public class GraphColumnarDecoder extends Loadable implements Decoder<ColumnarRow> {
+    public static class Config extends ConfigurationBase {
+        public static final Config INSTANCE = new Config();
+
+        private Config() {
+            super();
+        }
+
+        @Override
+        public Map<String, String> defaultConfigMap(final Map<String, Object> config) {
+            return DEFAULTS;
+        }
+
+        @Override
+        public List<String> getKeys() {
+            return ConfigUtil.getKeysFromClass(Config.Keys.class);
+        }
+
+
+        public static class Keys {
+            public static final String COLUMNS = "decoder.columnar.columns";
+        }
+
+        private static final Map<String, String> DEFAULTS = new HashMap<>() {{
+            put(Keys.COLUMNS, "");
+        }};
+    }
+
+    public static final Config CONFIG = new Config();
+
+    private final Optional<Runtime.PHASE> override;
+    private final Optional<Set<String>> columns;
+
+    private GraphColumnarDecoder(final Configuration config) {
+        super(Config.INSTANCE, config);
+        if (config.containsKey(PHASE_OVERRIDE))
+            override = Optional.of(Runtime.PHASE.valueOf(config.getString(PHASE_OVERRIDE)));
+        else
+            override = Optional.empty();
+        final String columnList = CONFIG.getOrDefault(Config.Keys.COLUMNS, config);
+        columns = columnList.isBlank() ?
+                Optional.empty() :
+                Optional.of(Arrays.stream(columnList.split(",")).map(String::trim).collect(Collectors.toSet()));
+    }
+
+    public static GraphColumnarDecoder open(final Configuration config) {
+        return new GraphColumnarDecoder(config);
+    }
+
+    public Optional<Set<String>> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public void init(final Configuration config) {
+
+    }
+
+    @Override
+    public EmitableGraphElement decodeElement(final ColumnarRow row, final String label, final Runtime.PHASE phase) {
+        final Runtime.PHASE decodePhase = override.orElse(phase);
+        if (decodePhase.equals(Runtime.PHASE.ONE))
+            return new ColumnarVertex(row);
+        else if (decodePhase.equals(Runtime.PHASE.TWO))
+            return new ColumnarEdge(row);
+        throw ErrorUtil.unimplemented();
+    }
+
+    @Override
+    public boolean skipEntry(final ColumnarRow row) {
+        return false;
+    }
+
+    @Override
+    public void onClose() {
+
+    }
+}
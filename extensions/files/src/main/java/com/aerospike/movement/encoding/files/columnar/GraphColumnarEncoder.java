@@ -0,0 +1,142 @@
+package com.aerospike.movement.encoding.files.columnar;
+
+import com.aerospike.movement.config.core.ConfigurationBase;
+import com.aerospike.movement.emitter.core.Emitable;
+import com.aerospike.movement.emitter.core.Emitter;
+import com.aerospike.movement.encoding.core.Encoder;
+import com.aerospike.movement.output.files.SplitFileLineOutput;
+import com.aerospike.movement.runtime.core.local.Loadable;
+import com.aerospike.movement.structure.core.graph.EmittedEdge;
+import com.aerospike.movement.structure.core.graph.EmittedVertex;
+import com.aerospike.movement.util.core.configuration.ConfigUtil;
+import com.aerospike.movement.util.core.error.ErrorUtil;
+import com.aerospike.movement.util.core.runtime.RuntimeUtil;
+import org.apache.commons.configuration2.Configuration;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/*
+ * Encodes graph elements as rows of typed values for the columnar file format, written by DirectoryOutput in place
+ * of CSV lines when this encoder is configured. encodeItemMetadata gives the column names of the element's label.
+ */
+public class GraphColumnarEncoder extends Loadable implements Encoder<Object[]> {
+    public static class Config extends ConfigurationBase {
+        public static final Config INSTANCE = new Config();
+
+        private Config() {
+            super();
+        }
+
+        @Override
+        public Map<String, String> defaultConfigMap(final Map<String, Object> config) {
+            return DEFAULTS;
+        }
+
+        @Override
+        public List<String> getKeys() {
+            return ConfigUtil.getKeysFromClass(Config.Keys.class);
+        }
+
+
+        public static class Keys {
+            public static final String ROW_GROUP_SIZE = "encoder.columnar.rowGroupSize";
+        }
+
+        private static final Map<String, String> DEFAULTS = new HashMap<>() {{
+            put(Keys.ROW_GROUP_SIZE, "10000");
+        }};
+    }
+
+    public static final Config CONFIG = new Config();
+
+    private final Map<String, String[]> vertexColumns = new ConcurrentHashMap<>();
+    private final Map<String, String[]> edgeColumns = new ConcurrentHashMap<>();
+
+    private GraphColumnarEncoder(final Configuration config) {
+        super(Config.INSTANCE, config);
+    }
+
+    public static GraphColumnarEncoder open(final Configuration config) {
+        return new GraphColumnarEncoder(config);
+    }
+
+    @Override
+    public void init(final Configuration config) {
+
+    }
+
+    @Override
+    public Optional<Object[]> encode(final Emitable item) {
+        if (EmittedEdge.class.isAssignableFrom(item.getClass())) {
+            final EmittedEdge edge = (EmittedEdge) item;
+            final String[] columns = edgeColumns(edge.label());
+            final Object[] row = new Object[columns.length];
+            row[0] = edge.label();
+            row[1] = edge.fromId().unwrap();
+            row[2] = edge.toId().unwrap();
+            for (int i = 3; i < columns.length; i++) {
+                row[i] = edge.propertyValue(columns[i]).orElse(null);
+            }
+            return Optional.of(checkSupported(columns, row, item));
+        }
+        if (EmittedVertex.class.isAssignableFrom(item.getClass())) {
+            final EmittedVertex vertex = (EmittedVertex) item;
+            final String[] columns = vertexColumns(vertex.label());
+            final Object[] row = new Object[columns.length];
+            row[0] = vertex.id().unwrap();
+            row[1] = vertex.label();
+            for (int i = 2; i < columns.length; i++) {
+                row[i] = vertex.propertyValue(columns[i]).orElse(null);
+            }
+            return Optional.of(checkSupported(columns, row, item));
+        }
+        throw ErrorUtil.runtimeException("Cannot encode %s", item.getClass().getName());
+    }
+
+    // fails on the element with the unsupported value, instead of later when its row group is written
+    private static Object[] checkSupported(final String[] columns, final Object[] row, final Emitable item) {
+        for (int i = 0; i < row.length; i++) {
+            if (!ColumnarFormat.isSupported(row[i]))
+                throw ErrorUtil.runtimeException("Cannot encode %s of type %s in %s", columns[i], row[i].getClass().getName(), item);
+        }
+        return row;
+    }
+
+    @Override
+    public Optional<Object[]> encodeItemMetadata(final Emitable item) {
+        if (EmittedEdge.class.isAssignableFrom(item.getClass()))
+            return Optional.of(edgeColumns(((EmittedEdge) item).label()));
+        if (EmittedVertex.class.isAssignableFrom(item.getClass()))
+            return Optional.of(vertexColumns(((EmittedVertex) item).label()));
+        throw ErrorUtil.runtimeException("Cannot encode metadata for %s", item.getClass().getName());
+    }
+
+    private String[] vertexColumns(final String label) {
+        return vertexColumns.computeIfAbsent(label, it -> columns(List.of("~id", "~label"),
+                ((Emitter) RuntimeUtil.lookup(Emitter.class).get(0)).getAllPropertyKeysForVertexLabel(it)));
+    }
+
+    private String[] edgeColumns(final String label) {
+        return edgeColumns.computeIfAbsent(label, it -> columns(List.of(EmittedEdge.LABEL, EmittedEdge.FROM, EmittedEdge.TO),
+                ((Emitter) RuntimeUtil.lookup(Emitter.class).get(0)).getAllPropertyKeysForEdgeLabel(it)));
+    }
+
+    private static String[] columns(final List<String> fixed, final List<String> propertyKeys) {
+        final List<String> columns = new ArrayList<>(fixed);
+        columns.addAll(propertyKeys.stream().sorted().collect(Collectors.toList()));
+        return columns.toArray(new String[0]);
+    }
+
+    @Override
+    public Map<String, Object> getEncoderMetadata() {
+        return Map.of(SplitFileLineOutput.Config.Keys.EXTENSION, ColumnarFormat.EXTENSION);
+    }
+
+    @Override
+    public void onClose() {
+        vertexColumns.clear();
+        edgeColumns.clear();
+    }
+}
@@ -14,6 +14,7 @@ import com.aerospike.movement.structure.core.EmittedId;
 
 
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 public class CSVEdge implements EmittedEdge {
@@ -51,10 +52,15 @@ public class CSVEdge implements EmittedEdge {
 
     @Override
     public Stream<Emitable> emit(final Output output) {
-        output.writer(EmittedEdge.class, label()).writeToOutput(Optional.of(this));
+        emitTo(output, emitable -> {});
         return Stream.empty();
     }
 
+    @Override
+    public void emitTo(final Output output, final Consumer<Emitable> sink) {
+        output.writer(EmittedEdge.class, label()).writeToOutput(Optional.of(this));
+    }
+
     @Override
     public Stream<Emitable> stream() {
         return Stream.empty();
@@ -24,8 +24,7 @@ public abstract class CSVEncoder extends Loadable implements Encoder<String> {
     }
 
     public static String toCsvLine(final List<String> fields) {
-        Optional<String> x = fields.stream().reduce((a, b) -> a + "," + b);
-        return x.get();
+        return String.join(",", fields);
     }
 
 
@@ -6,65 +6,78 @@
 
 package com.aerospike.movement.encoding.files.csv;
 
-import java.util.ArrayList;
+import com.aerospike.movement.util.files.ByteLine;
+
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Objects;
-import java.util.StringTokenizer;
-import java.util.stream.Collectors;
 
+/*
+ * Holds one row as UTF-8 bytes plus the offsets of its fields, a field only becomes a String when it is read.
+ */
 public class CSVLine {
     public enum CSVField {
         EMPTY
     }
 
-    private final List<Object> line;
-    private final List<String> header;
+    private static final byte SEPARATOR = ',';
+
+    private final byte[] line;
+    private final int[] fieldEnds;
+    private final Object[] fields;
+    private final CSVSchema schema;
 
 
-    public CSVLine(String line, String headerLine) {
-        final List<String> header = parseHeader(headerLine);
-        this.line = parseLine(header, line);
-        this.header = header;
+    public CSVLine(final CharSequence line, final String headerLine) {
+        this(line, CSVSchema.parse(headerLine));
+    }
+
+    public CSVLine(final CharSequence line, final CSVSchema schema) {
+        this.schema = schema;
+        this.line = toBytes(line);
+        this.fieldEnds = findFieldEnds(schema.size(), this.line, line);
+        this.fields = new Object[schema.size()];
     }
 
     public Object getEntry(final String key) {
-        try {
-            return line.get(header.indexOf(key));
-        } catch (IndexOutOfBoundsException e) {
+        final int index = schema.indexOf(key);
+        if (index < 0)
             throw new RuntimeException("Key not found: " + key);
+        if (fields[index] == null) {
+            final int start = index == 0 ? 0 : fieldEnds[index - 1] + 1;
+            final int end = fieldEnds[index];
+            fields[index] = start == end ? CSVField.EMPTY : new String(line, start, end - start, StandardCharsets.UTF_8);
         }
+        return fields[index];
     }
 
     public List<String> propertyNames() {
-        return header.stream().filter(k -> !k.startsWith("~")).collect(Collectors.toList());
+        return schema.propertyNames();
     }
 
-    private static List<String> parseHeader(final String header) {
-        final StringTokenizer st = new StringTokenizer(header, ",");
-        final List<String> keys = new ArrayList<>();
-        while (st.hasMoreTokens()) {
-            keys.add(st.nextToken());
-        }
-        return keys;
+    private static byte[] toBytes(final CharSequence line) {
+        if (line instanceof ByteLine)
+            return ((ByteLine) line).toByteArray();
+        return line.toString().getBytes(StandardCharsets.UTF_8);
     }
 
-    private List<Object> parseLine(List<String> header, String line) {
-        String[] split = line.split(",", -1);
-        List<Object> results = new ArrayList<>();
-        for (int i = 0; i < header.size(); i++) {
-            String token = split[i];
-            if (token.isEmpty()) {
-                results.add(CSVField.EMPTY);
-            } else {
-                results.add(token);
-            }
+    // ',' never occurs inside a multi-byte UTF-8 sequence, so fields can be split on the raw bytes.
+    private static int[] findFieldEnds(final int fieldCount, final byte[] bytes, final CharSequence line) {
+        final int[] ends = new int[fieldCount];
+        int field = 0;
+        for (int i = 0; i < bytes.length && field < fieldCount; i++) {
+            if (bytes[i] == SEPARATOR)
+                ends[field++] = i;
         }
-        return results;
+        if (field < fieldCount - 1)
+            throw new IndexOutOfBoundsException("Expected " + fieldCount + " fields, found " + (field + 1) + ": " + line);
+        if (field == fieldCount - 1)
+            ends[field] = bytes.length;
+        return ends;
     }
 
     @Override
     public String toString() {
-        return String.join(",", line.stream().map(it -> it.equals(CSVField.EMPTY) ? "" : it.toString()).collect(Collectors.toList()));
+        return fieldEnds.length == 0 ? "" : new String(line, 0, fieldEnds[fieldEnds.length - 1], StandardCharsets.UTF_8);
     }
 
 
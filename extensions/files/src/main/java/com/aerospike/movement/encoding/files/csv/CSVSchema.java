@@ -0,0 +1,54 @@
+package com.aerospike.movement.encoding.files.csv;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/*
+ * The columns of a CSV file, parsed once from its header line and shared by every CSVLine of the file.
+ */
+public class CSVSchema {
+    private final String headerLine;
+    private final List<String> columns;
+    private final Map<String, Integer> columnIndexes;
+    private final List<String> propertyNames;
+
+    private CSVSchema(final String headerLine, final List<String> columns) {
+        this.headerLine = headerLine;
+        this.columns = Collections.unmodifiableList(columns);
+        this.columnIndexes = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            columnIndexes.putIfAbsent(columns.get(i), i);
+        }
+        this.propertyNames = Collections.unmodifiableList(columns.stream().filter(k -> !k.startsWith("~")).collect(Collectors.toList()));
+    }
+
+    public static CSVSchema parse(final String headerLine) {
+        final StringTokenizer st = new StringTokenizer(headerLine, ",");
+        final List<String> columns = new ArrayList<>();
+        while (st.hasMoreTokens()) {
+            columns.add(st.nextToken());
+        }
+        return new CSVSchema(headerLine, columns);
+    }
+
+    public int indexOf(final String column) {
+        final Integer index = columnIndexes.get(column);
+        return index == null ? -1 : index;
+    }
+
+    public int size() {
+        return columns.size();
+    }
+
+    public List<String> columns() {
+        return columns;
+    }
+
+    public List<String> propertyNames() {
+        return propertyNames;
+    }
+
+    public String getHeaderLine() {
+        return headerLine;
+    }
+}
@@ -14,6 +14,7 @@ import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 
 
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 public class CSVVertex implements EmittedVertex {
@@ -32,7 +33,7 @@ public class CSVVertex implements EmittedVertex {
     @Override
     public Optional<Object> propertyValue(final String name) {
         final Object x = line.getEntry(name);
-        return x.equals(CSVLine.CSVField.EMPTY) ? Optional.empty() : Optional.of(line.getEntry(name));
+        return x.equals(CSVLine.CSVField.EMPTY) ? Optional.empty() : Optional.of(x);
     }
 
     @Override
@@ -42,10 +43,15 @@ public class CSVVertex implements EmittedVertex {
 
     @Override
     public Stream<Emitable> emit(final Output output) {
-        output.writer(EmittedVertex.class, label()).writeToOutput(Optional.of(this));
+        emitTo(output, emitable -> {});
         return Stream.empty();
     }
 
+    @Override
+    public void emitTo(final Output output, final Consumer<Emitable> sink) {
+        output.writer(EmittedVertex.class, label()).writeToOutput(Optional.of(this));
+    }
+
 
     @Override
     public Stream<Emitable> stream() {
@@ -23,7 +23,7 @@ import static com.aerospike.movement.config.core.ConfigurationBase.Keys.PHASE_OV
 /**
  * @author Grant Haywood (<a href="http://iowntheinter.net">http://iowntheinter.net</a>)
  */
-public class GraphCSVDecoder extends Loadable implements Decoder<String> {
+public class GraphCSVDecoder extends Loadable implements Decoder<CharSequence> {
 
 
     @Override
@@ -82,12 +82,16 @@ public class GraphCSVDecoder extends Loadable implements Decoder<String> {
     }
 
     @Override
-    public EmitableGraphElement decodeElement(final String encodedElement, final String headerLine, final Runtime.PHASE phase) {
+    public EmitableGraphElement decodeElement(final CharSequence encodedElement, final String headerLine, final Runtime.PHASE phase) {
+        return decodeElement(encodedElement, CSVSchema.parse(headerLine), phase);
+    }
+
+    public EmitableGraphElement decodeElement(final CharSequence encodedElement, final CSVSchema schema, final Runtime.PHASE phase) {
         final Runtime.PHASE decodePhase = override.orElse(phase);
         if (decodePhase.equals(Runtime.PHASE.ONE))
-            return (EmitableGraphElement) new CSVVertex(new CSVLine(encodedElement, headerLine));
+            return (EmitableGraphElement) new CSVVertex(new CSVLine(encodedElement, schema));
         else if (decodePhase.equals(Runtime.PHASE.TWO))
-            return (EmitableGraphElement) new CSVEdge(new CSVLine(encodedElement, headerLine));
+            return (EmitableGraphElement) new CSVEdge(new CSVLine(encodedElement, schema));
         throw ErrorUtil.unimplemented();
     }
 
@@ -98,8 +102,8 @@ public class GraphCSVDecoder extends Loadable implements Decoder<String> {
     }
 
     @Override
-    public boolean skipEntry(String line) {
-        return line.startsWith("~");
+    public boolean skipEntry(final CharSequence line) {
+        return line.length() > 0 && line.charAt(0) == '~';
     }
 
 }
@@ -19,6 +19,8 @@ import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import org.apache.commons.configuration2.Configuration;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -54,6 +56,39 @@ public class GraphCSVEncoder extends CSVEncoder {
     }
 
     final Configuration config;
+    private static final ThreadLocal<StringBuilder> LINE_BUILDER = ThreadLocal.withInitial(StringBuilder::new);
+    private final Map<String, EncodePlan<EmittedVertex>> vertexPlans = new ConcurrentHashMap<>();
+    private final Map<String, EncodePlan<EmittedEdge>> edgePlans = new ConcurrentHashMap<>();
+
+    /*
+     * The header and the ordered field accessors for one label, built on first use and reused for every element with that label.
+     */
+    private static class EncodePlan<T> {
+        private final String headerLine;
+        private final List<Function<T, String>> fields;
+
+        private EncodePlan(final List<String> header, final Function<String, Function<T, String>> accessor) {
+            this.headerLine = toCsvLine(header);
+            this.fields = header.stream().map(accessor).collect(Collectors.toList());
+        }
+
+        private String encode(final T item) {
+            final StringBuilder line = LINE_BUILDER.get();
+            line.setLength(0);
+            for (int i = 0; i < fields.size(); i++) {
+                if (i > 0)
+                    line.append(',');
+                line.append(fields.get(i).apply(item));
+            }
+            return line.toString();
+        }
+
+        private List<String> fieldValues(final T item) {
+            final List<String> values = new ArrayList<>(fields.size());
+            fields.forEach(field -> values.add(field.apply(item)));
+            return values;
+        }
+    }
 
 
     public static Encoder<String> open(final Configuration config) {
@@ -72,13 +107,24 @@ public class GraphCSVEncoder extends CSVEncoder {
     }
 
 
+    @Override
+    public Optional<String> encode(final Emitable item) {
+        if (EmittedEdge.class.isAssignableFrom(item.getClass())) {
+            return Optional.of(edgePlan(((EmittedEdge) item).label()).encode((EmittedEdge) item));
+        }
+        if (EmittedVertex.class.isAssignableFrom(item.getClass())) {
+            return Optional.of(vertexPlan(((EmittedVertex) item).label()).encode((EmittedVertex) item));
+        }
+        return super.encode(item);
+    }
+
     @Override
     public Optional<String> encodeItemMetadata(final Emitable item) {
         if (EmittedEdge.class.isAssignableFrom(item.getClass())) {
-            return Optional.of(toCsvLine(getEdgeHeaderFields(((EmittedEdge) item).label())));
+            return Optional.of(edgePlan(((EmittedEdge) item).label()).headerLine);
         }
         if (EmittedVertex.class.isAssignableFrom(item.getClass())) {
-            return Optional.of(toCsvLine(getVertexHeaderFields(((EmittedVertex) item).label())));
+            return Optional.of(vertexPlan(((EmittedVertex) item).label()).headerLine);
         }
         throw ErrorUtil.runtimeException("Cannot encode metadata for %s", item.getClass().getName());
     }
@@ -91,7 +137,17 @@ public class GraphCSVEncoder extends CSVEncoder {
 
     @Override
     public void onClose() {
+        vertexPlans.clear();
+        edgePlans.clear();
+    }
+
+    private EncodePlan<EmittedVertex> vertexPlan(final String label) {
+        return vertexPlans.computeIfAbsent(label, it -> new EncodePlan<EmittedVertex>(getVertexHeaderFields(it),
+                field -> vertex -> String.valueOf(vertex.propertyValue(field).orElse(""))));
+    }
 
+    private EncodePlan<EmittedEdge> edgePlan(final String label) {
+        return edgePlans.computeIfAbsent(label, it -> new EncodePlan<EmittedEdge>(getEdgeHeaderFields(it), EmittedEdge::fieldAccessor));
     }
 
     public List<String> getVertexHeaderFields(final String label) {
@@ -116,13 +172,9 @@ public class GraphCSVEncoder extends CSVEncoder {
         if (Optional.class.isAssignableFrom(item.getClass()))
             throw new RuntimeException("optional");
         if (EmittedEdge.class.isAssignableFrom(item.getClass())) {
-            return getEdgeHeaderFields(((EmittedEdge) item).label()).stream()
-                    .map(f -> EmittedEdge.getFieldFromEdge(((EmittedEdge) item), f))
-                    .collect(Collectors.toList());
+            return edgePlan(((EmittedEdge) item).label()).fieldValues((EmittedEdge) item);
         } else if (EmittedVertex.class.isAssignableFrom(item.getClass())) {
-            return getVertexHeaderFields(((EmittedVertex) item).label()).stream()
-                    .map(f -> String.valueOf(((EmittedVertex) item).propertyValue(f).orElse("")))
-                    .collect(Collectors.toList());
+            return vertexPlan(((EmittedVertex) item).label()).fieldValues((EmittedVertex) item);
         }
         throw ErrorUtil.runtimeException("Cannot encode %s", item.getClass().getName());
     }
@@ -0,0 +1,114 @@
+package com.aerospike.movement.output.files;
+
+import com.aerospike.movement.emitter.core.Emitable;
+import com.aerospike.movement.encoding.core.Encoder;
+import com.aerospike.movement.encoding.files.columnar.ColumnarFileWriter;
+import com.aerospike.movement.encoding.files.columnar.ColumnarFormat;
+import com.aerospike.movement.encoding.files.columnar.GraphColumnarEncoder;
+import com.aerospike.movement.output.core.OutputWriter;
+import com.aerospike.movement.util.core.metrics.MetricsRegistry;
+import com.aerospike.movement.util.files.AsyncFileChannelWriter;
+import org.apache.commons.configuration2.Configuration;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Columnar counterpart of SplitFileLineOutput: writes the rows encoded by a GraphColumnarEncoder for one label,
+ * starting a new file every output.entriesPerFile rows, named the same way through SplitFileLineOutput.claimFile.
+ */
+public class ColumnarFileOutput implements OutputWriter {
+    private final String label;
+    private final Encoder<Object[]> encoder;
+    private final AtomicLong metric;
+    private final Path basePath;
+    private final long maxRows;
+    private final int rowGroupSize;
+    private final int bufferSize;
+    private final AsyncFileChannelWriter.ForcePolicy forcePolicy;
+    private final List<CompletableFuture<Void>> closingFiles = new ArrayList<>();
+    private ColumnarFileWriter file;
+    private long rowsWritten = 0;
+    boolean closed = true;
+
+    private ColumnarFileOutput(final String label, final Encoder<Object[]> encoder, final AtomicLong metric, final Configuration config) {
+        this.label = label;
+        this.encoder = encoder;
+        this.metric = metric;
+        final SplitFileLineOutput.Config lineConfig = SplitFileLineOutput.Config.INSTANCE;
+        this.basePath = Path.of((String) lineConfig.getOrDefault(SplitFileLineOutput.Config.Keys.DIRECTORY, config));
+        this.maxRows = Long.parseLong(lineConfig.getOrDefault(SplitFileLineOutput.Config.Keys.ENTRIES_PER_FILE, config));
+        this.bufferSize = Integer.parseInt(lineConfig.getOrDefault(SplitFileLineOutput.Config.Keys.BUFFER_SIZE_KB, config)) * 1024;
+        this.forcePolicy = AsyncFileChannelWriter.ForcePolicy.valueOf(((String) lineConfig.getOrDefault(SplitFileLineOutput.Config.Keys.FORCE_POLICY, config)).toUpperCase());
+        this.rowGroupSize = Integer.parseInt(GraphColumnarEncoder.CONFIG.getOrDefault(GraphColumnarEncoder.Config.Keys.ROW_GROUP_SIZE, config));
+    }
+
+    public static ColumnarFileOutput create(final String label, final Encoder<Object[]> encoder, final AtomicLong metric, final Configuration config) {
+        return new ColumnarFileOutput(label, encoder, metric, config);
+    }
+
+    @Override
+    public void writeToOutput(final Optional<Emitable> potentialEmitable) {
+        if (potentialEmitable.isEmpty())
+            return;
+        final Emitable item = potentialEmitable.get();
+        final long start = MetricsRegistry.start();
+        final Object[] row = encoder.encode(item).orElseThrow(() -> new RuntimeException("could not encode item: " + item));
+        if (start != 0)
+            MetricsRegistry.current().record(MetricsRegistry.Stage.ENCODE, item.type(), start);
+        if (closed) {
+            final Object[] columns = encoder.encodeItemMetadata(item).orElseThrow(() -> new RuntimeException("No metadata for " + item));
+            createNewFile(Arrays.asList(Arrays.copyOf(columns, columns.length, String[].class)));
+        }
+        file.addRow(row);
+        metric.addAndGet(1);
+        if (++rowsWritten >= maxRows)
+            closeFile();
+    }
+
+    private void createNewFile(final List<String> columns) {
+        final Path path = SplitFileLineOutput.claimFile(basePath.resolve(label), label, ColumnarFormat.EXTENSION);
+        file = ColumnarFileWriter.open(path, columns, (int) Math.min(rowGroupSize, maxRows), bufferSize, forcePolicy);
+        rowsWritten = 0;
+        closed = false;
+    }
+
+    private void closeFile() {
+        closed = true;
+        closingFiles.removeIf(it -> it.isDone() && !it.isCompletedExceptionally());
+        closingFiles.add(file.closeAsync());
+    }
+
+    @Override
+    public void init() {
+    }
+
+    // Buffered rows are written out as a short row group, a file is only readable once closed and its footer written.
+    @Override
+    public void flush() {
+        if (!closed)
+            file.flush();
+    }
+
+    @Override
+    public void close() {
+        if (!closed)
+            closeFile();
+        closingFiles.forEach(AsyncFileChannelWriter::await);
+        closingFiles.clear();
+    }
+
+    public AtomicLong getMetric() {
+        return metric;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ColumnarFileOutput: %s", basePath.toString());
+    }
+}
@@ -7,11 +7,13 @@
 package com.aerospike.movement.output.files;
 
 import com.aerospike.movement.config.core.ConfigurationBase;
+import com.aerospike.movement.emitter.core.Emitable;
 import com.aerospike.movement.emitter.core.Emitter;
 import com.aerospike.movement.structure.core.graph.EmittedEdge;
 import com.aerospike.movement.structure.core.graph.EmittedVertex;
 import com.aerospike.movement.emitter.files.DirectoryEmitter;
 import com.aerospike.movement.encoding.core.Encoder;
+import com.aerospike.movement.encoding.files.columnar.GraphColumnarEncoder;
 import com.aerospike.movement.output.core.Output;
 import com.aerospike.movement.output.core.OutputWriter;
 import com.aerospike.movement.runtime.core.Runtime;
@@ -26,6 +28,7 @@ import org.apache.commons.configuration2.MapConfiguration;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
@@ -67,6 +70,9 @@ public class DirectoryOutput extends Loadable implements Output {
             public static final String BUFFER_SIZE_KB = "output.bufferSizeKB";
             public static final String WRITES_BEFORE_FLUSH = "output.writesBeforeFlush";
             public static final String ENTRIES_PER_FILE = "output.entriesPerFile";
+            public static final String FORCE_POLICY = "output.forcePolicy";
+            public static final String COMPRESSION = "output.compression";
+            public static final String COMPRESSION_LEVEL = "output.compressionLevel";
 
             public static final String DIRECTORY = "output.directory";
         }
@@ -75,6 +81,9 @@ public class DirectoryOutput extends Loadable implements Output {
             put(Keys.ENTRIES_PER_FILE, "1000");
             put(Keys.BUFFER_SIZE_KB, "4096");
             put(Keys.WRITES_BEFORE_FLUSH, "1000");
+            put(Keys.FORCE_POLICY, "none");
+            put(Keys.COMPRESSION, "none");
+            put(Keys.COMPRESSION_LEVEL, "6");
         }};
     }
 
@@ -87,7 +96,7 @@ public class DirectoryOutput extends Loadable implements Output {
     private final Path path;
     private final Encoder<String> encoder;
 
-    private final Map<String, Map<String, SplitFileLineOutput>> fileWriters = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, ShardedLabelWriter>> fileWriters = new ConcurrentHashMap<>();
     private final Map<String, AtomicLong> labelMetrics = new ConcurrentHashMap<>();
 
     protected DirectoryOutput(final Path path,
@@ -126,7 +135,7 @@ public class DirectoryOutput extends Loadable implements Output {
 
     @Override
     public OutputWriter writer(final Class type, final String label) {
-        return fileWriters.computeIfAbsent(type.toString(), it -> new HashMap<>()).computeIfAbsent(label, labelKey -> {
+        return fileWriters.computeIfAbsent(type.toString(), it -> new ConcurrentHashMap<>()).computeIfAbsent(label, labelKey -> {
             final Configuration writerConfig;
 
             final Path typePath = resolveOrCreate(path, getTypeDirectory(type)).toAbsolutePath();
@@ -134,12 +143,79 @@ public class DirectoryOutput extends Loadable implements Output {
             writerConfig = ConfigUtil.withOverrides(config, Map.of(
                     Config.Keys.OUTPUT_DIRECTORY, typePath.toString()
             ));
-            final SplitFileLineOutput outputWriter = SplitFileLineOutput.create(label, encoder, getMetric(label), writerConfig);
+            final ShardedLabelWriter outputWriter = new ShardedLabelWriter(label, getMetric(label), writerConfig);
             outputWriter.init();
             return outputWriter;
         });
     }
 
+    /*
+     * Every writer using a label at the same time gets its own SplitFileLineOutput (or, with a GraphColumnarEncoder,
+     * ColumnarFileOutput) shard, writing its own files
+     * (named apart by SplitFileLineOutput.claimFile). A shard is taken from the idle queue for the length of one write,
+     * so there are only as many as the peak number of writers. Each write and flush holds the shard's monitor, which
+     * writers never contend on, so a flush waits for a write in progress instead of skipping its shard.
+     */
+    private class ShardedLabelWriter implements OutputWriter {
+        private final String label;
+        private final AtomicLong metric;
+        private final Configuration writerConfig;
+        private final ConcurrentLinkedQueue<OutputWriter> idleShards = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<OutputWriter> shards = new ConcurrentLinkedQueue<>();
+
+        private ShardedLabelWriter(final String label, final AtomicLong metric, final Configuration writerConfig) {
+            this.label = label;
+            this.metric = metric;
+            this.writerConfig = writerConfig;
+        }
+
+        @Override
+        public void writeToOutput(final Optional<Emitable> emitable) {
+            OutputWriter shard = idleShards.poll();
+            if (shard == null) {
+                shard = GraphColumnarEncoder.class.isAssignableFrom(encoder.getClass()) ?
+                        ColumnarFileOutput.create(label, (Encoder<Object[]>) (Encoder) encoder, metric, writerConfig) :
+                        SplitFileLineOutput.create(label, encoder, metric, writerConfig);
+                shard.init();
+                shards.add(shard);
+            }
+            try {
+                synchronized (shard) {
+                    shard.writeToOutput(emitable);
+                }
+            } finally {
+                idleShards.add(shard);
+            }
+        }
+
+        @Override
+        public void init() {
+        }
+
+        // Every shard is flushed, one in use is flushed once its current write returns.
+        @Override
+        public void flush() {
+            for (final OutputWriter shard : shards) {
+                synchronized (shard) {
+                    shard.flush();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            for (final OutputWriter shard : shards) {
+                synchronized (shard) {
+                    shard.close();
+                }
+            }
+        }
+
+        public AtomicLong getMetric() {
+            return metric;
+        }
+    }
+
     @Override
     public Emitter reader(final Runtime.PHASE phase, final Class type, final Optional<String> label, final Configuration callerConfig) {
         final Configuration readerConfig = ConfigUtil.withOverrides(config, new MapConfiguration(new HashMap<>() {{
@@ -157,14 +233,14 @@ public class DirectoryOutput extends Loadable implements Output {
         return labelMetrics.computeIfAbsent(label, l -> new AtomicLong());
     }
 
+    @Override
+    public void flush() {
+        fileWriters.values().forEach(it -> it.values().forEach(ShardedLabelWriter::flush));
+    }
+
     @Override
     public void onClose() {
-        fileWriters.values().forEach(it -> {
-            it.values().forEach(writer -> {
-                if (!writer.closed)
-                    writer.close();
-            });
-        });
+        fileWriters.values().forEach(it -> it.values().forEach(ShardedLabelWriter::close));
     }
 
     @Override
@@ -11,20 +11,24 @@ import com.aerospike.movement.emitter.core.Emitable;
 import com.aerospike.movement.encoding.core.Encoder;
 import com.aerospike.movement.output.core.OutputWriter;
 import com.aerospike.movement.util.core.configuration.ConfigUtil;
+import com.aerospike.movement.util.core.metrics.MetricsRegistry;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import org.apache.commons.configuration2.Configuration;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
+import com.aerospike.movement.util.files.AsyncFileChannelWriter;
+import com.aerospike.movement.util.files.FileCodec;
+
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -32,12 +36,14 @@ import java.util.concurrent.atomic.AtomicLong;
  * <p>
  * Write should return True if more lines are available in the file
  * it should return False if no more lines are available in the file
+ * <p>
+ * Lines are written through an AsyncFileChannelWriter, every writesBeforeFlush lines are committed to its I/O thread
+ * as a group, and a file closed on rotation finishes draining in the background.
  */
 public class SplitFileLineOutput implements OutputWriter {
 
 
     private final String label;
-    private final Semaphore outstanding;
 
     public static class Config extends ConfigurationBase {
         public static final Config INSTANCE = new Config();
@@ -62,6 +68,9 @@ public class SplitFileLineOutput implements OutputWriter {
             public static final String WRITES_BEFORE_FLUSH = DirectoryOutput.Config.Keys.WRITES_BEFORE_FLUSH;
             public static final String ENTRIES_PER_FILE = DirectoryOutput.Config.Keys.ENTRIES_PER_FILE;
             public static final String DIRECTORY = DirectoryOutput.Config.Keys.OUTPUT_DIRECTORY;
+            public static final String FORCE_POLICY = DirectoryOutput.Config.Keys.FORCE_POLICY;
+            public static final String COMPRESSION = DirectoryOutput.Config.Keys.COMPRESSION;
+            public static final String COMPRESSION_LEVEL = DirectoryOutput.Config.Keys.COMPRESSION_LEVEL;
 
             public static final String EXTENSION = "output.file.extension";
         }
@@ -70,6 +79,9 @@ public class SplitFileLineOutput implements OutputWriter {
             put(Config.Keys.ENTRIES_PER_FILE, "10000");
             put(Config.Keys.BUFFER_SIZE_KB, "4096");
             put(Config.Keys.WRITES_BEFORE_FLUSH, "10000");
+            put(Config.Keys.FORCE_POLICY, "none");
+            put(Config.Keys.COMPRESSION, "none");
+            put(Config.Keys.COMPRESSION_LEVEL, "6");
             put(Config.Keys.DIRECTORY, DirectoryOutput.Config.INSTANCE.defaultConfigMap().get(DirectoryOutput.Config.Keys.OUTPUT_DIRECTORY));
         }};
     }
@@ -82,12 +94,14 @@ public class SplitFileLineOutput implements OutputWriter {
     private final Path basePath;
     private final AtomicLong metric;
     private final Configuration config;
+    private final AsyncFileChannelWriter.ForcePolicy forcePolicy;
+    private final FileCodec codec;
+    private final int compressionLevel;
     boolean closed = false;
-    private FileWriter fileWriter;
-    private BufferedWriter bufferedWriter;
+    private AsyncFileChannelWriter fileWriter;
     private int writeCountSinceLastFlush = 0;
     private AtomicLong linesWritten = new AtomicLong(0);
-    private ConcurrentHashMap<String, Semaphore> writerSync = new ConcurrentHashMap<>();
+    private final List<CompletableFuture<Void>> closingFiles = new ArrayList<>();
     /**
      * 8m buffer
      * we flush at 8m or at writesBeforeFlush, whichever comes first
@@ -108,7 +122,9 @@ public class SplitFileLineOutput implements OutputWriter {
         this.metric = metric;
         this.closed = true;
         this.bufferSize = Integer.parseInt(DirectoryOutput.CONFIG.getOrDefault(DirectoryOutput.Config.Keys.BUFFER_SIZE_KB, config)) * 1024;
-        this.outstanding = new Semaphore(writesBeforeFlush);
+        this.forcePolicy = AsyncFileChannelWriter.ForcePolicy.valueOf(((String) Config.INSTANCE.getOrDefault(Config.Keys.FORCE_POLICY, config)).toUpperCase());
+        this.codec = FileCodec.fromName(Config.INSTANCE.getOrDefault(Config.Keys.COMPRESSION, config));
+        this.compressionLevel = Integer.parseInt(Config.INSTANCE.getOrDefault(Config.Keys.COMPRESSION_LEVEL, config));
     }
 
     public static SplitFileLineOutput create(final String label, final Encoder<String> encoder, final AtomicLong metric, final Configuration config) {
@@ -118,11 +134,6 @@ public class SplitFileLineOutput implements OutputWriter {
     @Override
     public void writeToOutput(final Optional<Emitable> potentialEmitable) {
         if (potentialEmitable.isPresent()) {
-            try {
-                outstanding.acquire();
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            }
             Emitable emitable = potentialEmitable.get();
             writeEmitable(emitable);
         }
@@ -147,10 +158,12 @@ public class SplitFileLineOutput implements OutputWriter {
     public void writeEmitable(final Emitable item) {
         try {
             final String header = (String) encoder.encodeItemMetadata(item).orElseThrow(() -> new RuntimeException("No metadata for " + item));
+            final long start = MetricsRegistry.start();
             Optional encoded = encoder.encode(item);
+            if (start != 0)
+                MetricsRegistry.current().record(MetricsRegistry.Stage.ENCODE, item.type(), start);
             if (encoded.isPresent()) {
                 write(encoded.get() + "\n", header);
-                outstanding.release();
             } else {
                 throw new RuntimeException("could not encode item: " + item);
             }
@@ -163,14 +176,11 @@ public class SplitFileLineOutput implements OutputWriter {
         if (closed) {
             createNewFile(header);
         }
-        try {
-            bufferedWriter.write(string);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        fileWriter.write(string);
 
         if (++writeCountSinceLastFlush >= writesBeforeFlush) {
-            flush();
+            fileWriter.commit();
+            writeCountSinceLastFlush = 0;
         }
         if (linesWritten.incrementAndGet() >= maxLines) {
             closeFile();
@@ -178,68 +188,54 @@ public class SplitFileLineOutput implements OutputWriter {
         metric.addAndGet(1);
     }
 
-    private String nextFileName() {
-        return basePath.resolve(label).resolve(String.format("%s_%d.%s", label, fileIncr.incrementAndGet(),
-                ((Encoder) encoder).getEncoderMetadata().getOrDefault(Config.Keys.EXTENSION, "csv"))).toString();
+    /*
+     * Creates the next free label_N file in a directory. fileIncr starts over in every process, so a run resumed from a
+     * checkpoint would otherwise reuse, and truncate, the files an earlier run wrote for chunks it already acknowledged.
+     */
+    static Path claimFile(final Path directory, final String label, final String extension) {
+        directory.toFile().mkdirs();
+        while (true) {
+            final Path path = directory.resolve(String.format("%s_%d.%s", label, fileIncr.incrementAndGet(), extension));
+            try {
+                return Files.createFile(path);
+            } catch (FileAlreadyExistsException e) {
+                RuntimeUtil.getLogger(SplitFileLineOutput.class).debug("skipping existing file " + path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 
     private void createNewFile(final String header) {
-        try {
-            if (!basePath.toFile().exists()) {
-                basePath.toFile().mkdirs();
-            }
-            final File file = new File(nextFileName());
-            //LOG.debug(file);
-            // if we are appending, we don't want to overwrite the file
-            fileWriter = new FileWriter(file, false);
-            bufferedWriter = new BufferedWriter(fileWriter, bufferSize);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        final String extension = ((Encoder) encoder).getEncoderMetadata().getOrDefault(Config.Keys.EXTENSION, "csv") + codec.getExtension();
+        fileWriter = AsyncFileChannelWriter.open(claimFile(basePath.resolve(label), label, extension), bufferSize, forcePolicy, codec, compressionLevel);
         linesWritten.set(0);
         this.closed = false;
-        try {
-            bufferedWriter.write(header + "\n");
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        fileWriter.write(header + "\n");
     }
 
     @Override
     public void flush() {
-        try {
-            bufferedWriter.flush();
-            fileWriter.flush();
-            writeCountSinceLastFlush = 0;
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        if (closed)
+            return;
+        fileWriter.flush();
+        writeCountSinceLastFlush = 0;
     }
 
     @Override
     public void close() {
         RuntimeUtil.getLogger(this).debug("close");
-        try {
-            outstanding.acquire(writesBeforeFlush);
-            outstanding.release(writesBeforeFlush);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
-        closeFile();
-        closed = true;
+        if (!closed)
+            closeFile();
+        closingFiles.forEach(AsyncFileChannelWriter::await);
+        closingFiles.clear();
     }
 
     private void closeFile() {
-        synchronized (this) {
-            closed = true;
-            flush();
-            try {
-                bufferedWriter.close();
-                fileWriter.close();
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        }
+        closed = true;
+        writeCountSinceLastFlush = 0;
+        closingFiles.removeIf(it -> it.isDone() && !it.isCompletedExceptionally());
+        closingFiles.add(fileWriter.closeAsync());
     }
 
 
@@ -0,0 +1,193 @@
+package com.aerospike.movement.util.files;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Double buffered file writer. The caller fills the active buffer while an I/O thread drains the other one to a
+ * FileChannel, commit() hands the active buffer over without waiting for the disk, so everything written since the
+ * last commit goes out as one group. The caller only waits when it commits again before the previous drain finished.
+ * ForcePolicy decides whether the file is also forced to the device, after every commit or once when it is closed.
+ * With a FileCodec other than NONE the drained bytes are compressed on the I/O thread, and every commit also sync
+ * flushes the compressor when the ForcePolicy is COMMIT.
+ */
+public class AsyncFileChannelWriter {
+    public enum ForcePolicy {
+        NONE, COMMIT, CLOSE
+    }
+
+    private static final AtomicLong ioThreadCount = new AtomicLong(0);
+    private static final ExecutorService IO_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "file-io-" + ioThreadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    // enough for the writers of a busy phase, buffers of writers closing beyond that are left to the garbage collector
+    static final int MAX_POOLED_BUFFERS = 64;
+    private static final BlockingQueue<ByteBuffer> BUFFER_POOL = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+    private final FileChannel channel;
+    private final ForcePolicy forcePolicy;
+    // the channel drained buffers are written to, the file itself or a compressing stream over it
+    private final WritableByteChannel sink;
+    private final OutputStream compressed;
+    private ByteBuffer active;
+    private ByteBuffer spare;
+    private CompletableFuture<Void> inFlight = CompletableFuture.completedFuture(null);
+
+    private AsyncFileChannelWriter(final FileChannel channel, final int bufferSize, final ForcePolicy forcePolicy, final FileCodec codec, final int level) throws IOException {
+        this.channel = channel;
+        this.forcePolicy = forcePolicy;
+        if (codec == FileCodec.NONE) {
+            this.compressed = null;
+            this.sink = channel;
+        } else {
+            // closing the codec stream writes its trailer, the channel stays open so it can still be forced
+            this.compressed = codec.compress(new FilterOutputStream(Channels.newOutputStream(channel)) {
+                @Override
+                public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+                    out.write(bytes, offset, length);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            }, level, forcePolicy == ForcePolicy.COMMIT);
+            this.sink = Channels.newChannel(compressed);
+        }
+        this.active = takeBuffer(bufferSize);
+        this.spare = takeBuffer(bufferSize);
+    }
+
+    public static AsyncFileChannelWriter open(final Path path, final int bufferSize, final ForcePolicy forcePolicy) {
+        return open(path, bufferSize, forcePolicy, FileCodec.NONE, 0);
+    }
+
+    public static AsyncFileChannelWriter open(final Path path, final int bufferSize, final ForcePolicy forcePolicy, final FileCodec codec, final int level) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            return new AsyncFileChannelWriter(channel, bufferSize, forcePolicy, codec, level);
+        } catch (IOException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer takeBuffer(final int bufferSize) {
+        final ByteBuffer pooled = BUFFER_POOL.poll();
+        if (pooled != null && pooled.capacity() >= bufferSize)
+            return pooled.clear();
+        return ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    // buffers waiting in the pool for the next writer
+    static int pooledBuffers() {
+        return BUFFER_POOL.size();
+    }
+
+    public void write(final String string) {
+        write(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void write(final byte[] bytes) {
+        if (bytes.length > active.remaining()) {
+            commit();
+            if (bytes.length > active.capacity()) {
+                awaitInFlight();
+                inFlight = drain(ByteBuffer.wrap(bytes));
+                return;
+            }
+        }
+        active.put(bytes);
+    }
+
+    // Hands the buffered writes to the I/O thread, waiting only for the drain before it.
+    public void commit() {
+        if (active.position() == 0)
+            return;
+        awaitInFlight();
+        final ByteBuffer full = active;
+        active = spare.clear();
+        spare = full;
+        inFlight = drain(full.flip());
+    }
+
+    // Commits and waits until everything written so far has reached the channel.
+    public void flush() {
+        commit();
+        awaitInFlight();
+    }
+
+    public CompletableFuture<Void> closeAsync() {
+        commit();
+        return inFlight.handleAsync((unused, error) -> {
+            try {
+                if (compressed != null)
+                    compressed.close();
+                if (error == null && forcePolicy != ForcePolicy.NONE)
+                    channel.force(true);
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                BUFFER_POOL.offer(active);
+                BUFFER_POOL.offer(spare);
+            }
+            if (error != null)
+                throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+            return null;
+        }, IO_EXECUTOR);
+    }
+
+    public void close() {
+        await(closeAsync());
+    }
+
+    private CompletableFuture<Void> drain(final ByteBuffer buffer) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                while (buffer.hasRemaining()) {
+                    sink.write(buffer);
+                }
+                if (forcePolicy == ForcePolicy.COMMIT) {
+                    if (compressed != null)
+                        compressed.flush();
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, IO_EXECUTOR);
+    }
+
+    private void awaitInFlight() {
+        await(inFlight);
+    }
+
+    public static void await(final CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.aerospike.movement.util.files;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * A reusable view of one line inside the read buffer of a ByteLineReader.
+ * The view is only valid until the reader advances, copy it out with copyTo or toString if it is needed longer.
+ * charAt and length work on the bytes directly as long as the line is ASCII, otherwise the line is decoded once as UTF-8.
+ */
+public class ByteLine implements CharSequence {
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+    private Boolean ascii;
+    private String decoded;
+
+    ByteLine set(final ByteBuffer buffer, final int offset, final int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        this.ascii = null;
+        this.decoded = null;
+        return this;
+    }
+
+    public int byteLength() {
+        return length;
+    }
+
+    public byte byteAt(final int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException(index);
+        return buffer.get(offset + index);
+    }
+
+    public void copyTo(final byte[] destination, final int destinationOffset) {
+        buffer.duplicate().position(offset).get(destination, destinationOffset, length);
+    }
+
+    public byte[] toByteArray() {
+        final byte[] bytes = new byte[length];
+        copyTo(bytes, 0);
+        return bytes;
+    }
+
+    private boolean isAscii() {
+        if (ascii == null) {
+            boolean onlyAscii = true;
+            for (int i = offset; i < offset + length && onlyAscii; i++) {
+                onlyAscii = buffer.get(i) >= 0;
+            }
+            ascii = onlyAscii;
+        }
+        return ascii;
+    }
+
+    @Override
+    public int length() {
+        return isAscii() ? length : toString().length();
+    }
+
+    @Override
+    public char charAt(final int index) {
+        return isAscii() ? (char) byteAt(index) : toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        if (decoded == null)
+            decoded = new String(toByteArray(), StandardCharsets.UTF_8);
+        return decoded;
+    }
+}
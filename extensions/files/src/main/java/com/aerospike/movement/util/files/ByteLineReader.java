@@ -0,0 +1,188 @@
+package com.aerospike.movement.util.files;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/*
+ * Reads '\n' separated lines from a file through a pooled direct ByteBuffer, without building a String per line.
+ * Line boundaries are found in bytes, a trailing '\r' is dropped, and every call to next() returns the same ByteLine
+ * re-pointed at the current line. A line longer than the buffer grows it.
+ * The reader closes itself, and returns its buffer to the pool, once the last line has been read.
+ * A reader opened on a byte range [start, end) returns exactly the lines that begin inside the range, so adjacent
+ * ranges of one file together return every line once, whatever the alignment of the range boundaries.
+ * Compressed files, recognised by FileCodec from their extension, are decompressed while reading and can only be read whole.
+ */
+public class ByteLineReader implements Iterator<ByteLine>, Closeable {
+    private static final byte NEWLINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final ConcurrentLinkedQueue<ByteBuffer> BUFFER_POOL = new ConcurrentLinkedQueue<>();
+    private static final int HEADER_BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final long end;
+    private final ByteLine line = new ByteLine();
+    private ByteBuffer buffer;
+    // file offset of buffer index 0
+    private long bufferBase;
+    private int lineStart = 0;
+    private int scanPosition = 0;
+    private boolean endOfInput = false;
+    private boolean lineReady = false;
+    private boolean closed = false;
+    private boolean skipPartialLine;
+
+    private ByteLineReader(final ReadableByteChannel channel, final long start, final long end, final int bufferSize) throws IOException {
+        this.channel = channel;
+        this.end = end;
+        this.buffer = takeBuffer(bufferSize);
+        this.buffer.limit(0);
+        // a line starting exactly at start is preceded by a newline at start - 1, read from there so it is not skipped
+        this.skipPartialLine = start > 0;
+        this.bufferBase = Math.max(0, start - 1);
+        if (bufferBase > 0)
+            ((FileChannel) channel).position(bufferBase);
+    }
+
+    public static ByteLineReader open(final Path path, final int bufferSize) {
+        return open(path, 0, Long.MAX_VALUE, bufferSize);
+    }
+
+    public static ByteLineReader open(final Path path, final long start, final long end, final int bufferSize) {
+        final FileCodec codec = FileCodec.fromPath(path);
+        if (codec != FileCodec.NONE && start > 0)
+            throw new IllegalArgumentException("Cannot read a byte range of compressed file " + path);
+        ReadableByteChannel channel = null;
+        try {
+            channel = codec == FileCodec.NONE ?
+                    FileChannel.open(path, StandardOpenOption.READ) :
+                    Channels.newChannel(codec.decompress(Files.newInputStream(path)));
+            return new ByteLineReader(channel, start, end, bufferSize);
+        } catch (IOException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static String readFirstLine(final Path path) {
+        try (final ByteLineReader reader = open(path, HEADER_BUFFER_SIZE)) {
+            if (!reader.hasNext())
+                throw new IllegalStateException("Empty file " + path);
+            return reader.next().toString();
+        }
+    }
+
+    private static ByteBuffer takeBuffer(final int bufferSize) {
+        final ByteBuffer pooled = BUFFER_POOL.poll();
+        if (pooled != null && pooled.capacity() >= bufferSize)
+            return pooled.clear();
+        return ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (lineReady)
+            return true;
+        if (closed)
+            return false;
+        try {
+            if (skipPartialLine) {
+                skipPartialLine = false;
+                findLine();
+            }
+            lineReady = findLine();
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        }
+        if (!lineReady)
+            close();
+        return lineReady;
+    }
+
+    @Override
+    public ByteLine next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        lineReady = false;
+        return line;
+    }
+
+    private boolean findLine() throws IOException {
+        if (bufferBase + lineStart >= end)
+            return false;
+        while (true) {
+            final int limit = buffer.limit();
+            for (int i = scanPosition; i < limit; i++) {
+                if (buffer.get(i) == NEWLINE) {
+                    setLine(lineStart, i);
+                    lineStart = i + 1;
+                    scanPosition = lineStart;
+                    return true;
+                }
+            }
+            scanPosition = limit;
+            if (endOfInput) {
+                if (lineStart >= limit)
+                    return false;
+                setLine(lineStart, limit);
+                lineStart = limit;
+                return true;
+            }
+            fill();
+        }
+    }
+
+    private void setLine(final int start, final int end) {
+        final int length = end > start && buffer.get(end - 1) == CARRIAGE_RETURN ? end - start - 1 : end - start;
+        line.set(buffer, start, length);
+    }
+
+    // Moves the partial line to the front of the buffer, growing it if the line fills it, and reads more input.
+    private void fill() throws IOException {
+        buffer.position(lineStart);
+        buffer.compact();
+        scanPosition -= lineStart;
+        bufferBase += lineStart;
+        lineStart = 0;
+        if (!buffer.hasRemaining()) {
+            final ByteBuffer grown = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+        if (channel.read(buffer) < 0)
+            endOfInput = true;
+        buffer.flip();
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        lineReady = false;
+        BUFFER_POOL.add(buffer);
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.aerospike.movement.util.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Stream compression for files written by SplitFileLineOutput and read by ByteLineReader.
+ * The codec of a file is recognised by its extension, so compressed and plain files can sit in the same directory.
+ */
+public enum FileCodec {
+    NONE("") {
+        @Override
+        public OutputStream compress(final OutputStream out, final int level, final boolean syncFlush) {
+            return out;
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) {
+            return in;
+        }
+    },
+    GZIP(".gz") {
+        @Override
+        public OutputStream compress(final OutputStream out, final int level, final boolean syncFlush) throws IOException {
+            return new GZIPOutputStream(out, STREAM_BUFFER_SIZE, syncFlush) {{
+                def.setLevel(level);
+            }};
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) throws IOException {
+            return new GZIPInputStream(in, STREAM_BUFFER_SIZE);
+        }
+    };
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private final String extension;
+
+    FileCodec(final String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /*
+     * With syncFlush, flush() pushes everything deflated so far to out, so a committed prefix can be read back.
+     * Every sync flush ends a deflate block and costs compression ratio, so it is only asked for when that prefix
+     * has to be readable.
+     */
+    public abstract OutputStream compress(OutputStream out, int level, boolean syncFlush) throws IOException;
+
+    public abstract InputStream decompress(InputStream in) throws IOException;
+
+    public static FileCodec fromName(final String name) {
+        return FileCodec.valueOf(name.toUpperCase());
+    }
+
+    public static FileCodec fromPath(final Path path) {
+        final String fileName = path.getFileName().toString();
+        return Arrays.stream(values())
+                .filter(codec -> codec != NONE && fileName.endsWith(codec.extension))
+                .findFirst()
+                .orElse(NONE);
+    }
+}
@@ -21,6 +21,7 @@ import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static com.aerospike.movement.config.core.ConfigurationBase.Keys.*;
@@ -34,8 +35,12 @@ public class FileTestUtil {
 
 
     public static void writeClassicGraphToDirectory(Path outputDirectory) {
+        writeClassicGraphToDirectory(outputDirectory, Map.of());
+    }
+
+    public static void writeClassicGraphToDirectory(Path outputDirectory, Map<String, Object> overrides) {
 
-        final Configuration testConfig = new MapConfiguration(
+        final Configuration testConfig = ConfigUtil.withOverrides(new MapConfiguration(
                 new HashMap<>() {{
                     put(LocalParallelStreamRuntime.Config.Keys.THREADS, 1);
                     put(LocalParallelStreamRuntime.Config.Keys.BATCH_SIZE, 1);
@@ -48,7 +53,7 @@ public class FileTestUtil {
                     put(WORK_CHUNK_DRIVER_PHASE_ONE, TinkerPopGraphDriver.class.getName());
                     put(WORK_CHUNK_DRIVER_PHASE_TWO, TinkerPopGraphDriver.class.getName());
                     put(OUTPUT_ID_DRIVER, RangedOutputIdDriver.class.getName());
-                }});
+                }}), overrides);
         RuntimeUtil.getLogger().info(ConfigUtil.configurationToPropertiesFormat(testConfig));
 
 
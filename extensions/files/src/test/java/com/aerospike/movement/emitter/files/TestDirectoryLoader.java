@@ -7,17 +7,24 @@
 package com.aerospike.movement.emitter.files;
 
 import com.aerospike.movement.emitter.core.Emitable;
+import com.aerospike.movement.encoding.files.columnar.ColumnarFormat;
+import com.aerospike.movement.encoding.files.columnar.GraphColumnarDecoder;
+import com.aerospike.movement.encoding.files.columnar.GraphColumnarEncoder;
+import com.aerospike.movement.encoding.files.csv.CSVLine;
 import com.aerospike.movement.encoding.files.csv.GraphCSVDecoder;
 import com.aerospike.movement.encoding.tinkerpop.TinkerPopGraphDecoder;
 import com.aerospike.movement.encoding.tinkerpop.TinkerPopGraphEncoder;
 import com.aerospike.movement.encoding.tinkerpop.TinkerPopTraversalEncoder;
+import com.aerospike.movement.output.files.DirectoryOutput;
 import com.aerospike.movement.output.tinkerpop.TinkerPopGraphOutput;
 import com.aerospike.movement.output.tinkerpop.TinkerPopTraversalOutput;
 import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.driver.CheckpointLog;
 import com.aerospike.movement.runtime.core.driver.WorkChunk;
 import com.aerospike.movement.runtime.core.driver.impl.PassthroughOutputIdDriver;
 import com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime;
 import com.aerospike.movement.runtime.core.local.RunningPhase;
+import com.aerospike.movement.structure.core.graph.VertexIdFilter;
 import com.aerospike.movement.test.tinkerpop.SharedEmptyTinkerGraphGraphProvider;
 import com.aerospike.movement.test.tinkerpop.SharedEmptyTinkerGraphTraversalProvider;
 import com.aerospike.movement.tinkerpop.common.GraphProvider;
@@ -26,6 +33,7 @@ import com.aerospike.movement.util.core.configuration.ConfigUtil;
 import com.aerospike.movement.util.core.runtime.IOUtil;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import com.aerospike.movement.util.core.iterator.ext.IteratorUtils;
+import com.aerospike.movement.util.files.ByteLineReader;
 import com.aerospike.movement.util.files.FileUtil;
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.MapConfiguration;
@@ -33,17 +41,22 @@ import org.apache.tinkerpop.gremlin.driver.remote.DriverRemoteConnection;
 import org.apache.tinkerpop.gremlin.process.traversal.AnonymousTraversalSource;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
 import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerFactory;
 import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.aerospike.movement.config.core.ConfigurationBase.Keys.*;
@@ -51,7 +64,9 @@ import static com.aerospike.movement.output.files.DirectoryOutput.EDGES;
 import static com.aerospike.movement.output.files.DirectoryOutput.VERTICES;
 import static com.aerospike.movement.emitter.files.FileTestUtil.writeClassicGraphToDirectory;
 import static com.aerospike.movement.test.core.AbstractMovementTest.iteratePhasesAndCloseRuntime;
+import static com.aerospike.movement.test.core.AbstractMovementTest.iteratePhasesTimed;
 import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class TestDirectoryLoader {
@@ -222,4 +237,231 @@ public class TestDirectoryLoader {
         assertTrue(tempPath.resolve("vertices").toFile().isDirectory());
     }
 
+    @Test
+    public void testDanglingEdgeFilterRejectsMissingEndpoints() throws Exception {
+        Graph shared = SharedEmptyTinkerGraphGraphProvider.open().getProvided(GraphProvider.GraphProviderContext.OUTPUT);
+        shared.traversal().V().drop().iterate();
+        shared.close();
+        Path tempPath = IOUtil.createTempDir();
+        assertTrue(tempPath.resolve(VERTICES).toFile().mkdir());
+        assertTrue(tempPath.resolve(EDGES).toFile().mkdir());
+        Files.move(IOUtil.copyFromResourcesIntoNewTempFile("missing_vertices/classic_missing_peter.csv", "classic_missing_peter.csv").toPath(),
+                tempPath.resolve(VERTICES).resolve("classic_missing_peter.csv"));
+        Files.move(IOUtil.copyFromResourcesIntoNewTempFile("missing_vertices/classic_edges.csv", "classic_edges.csv").toPath(),
+                tempPath.resolve(EDGES).resolve("classic_edges.csv"));
+
+        final Configuration testConfig = new MapConfiguration(
+                new HashMap<>() {{
+                    put(LocalParallelStreamRuntime.Config.Keys.THREADS, 4);
+                    put(EMITTER, DirectoryEmitter.class.getName());
+                    put(DECODER, GraphCSVDecoder.class.getName());
+                    put(ENCODER, TinkerPopTraversalEncoder.class.getName());
+                    put(OUTPUT, TinkerPopTraversalOutput.class.getName());
+                    put(TinkerPopTraversalEncoder.Config.Keys.TRAVERSAL_PROVIDER, SharedEmptyTinkerGraphTraversalProvider.class.getName());
+                    put(DirectoryEmitter.Config.Keys.BASE_PATH, tempPath.toAbsolutePath().toString());
+                    put(DirectoryEmitter.Config.Keys.PHASE_ONE_SUBDIR, VERTICES);
+                    put(DirectoryEmitter.Config.Keys.PHASE_TWO_SUBDIR, EDGES);
+                    put(WORK_CHUNK_DRIVER_PHASE_ONE, RecursiveDirectoryTraversalDriver.class.getName());
+                    put(WORK_CHUNK_DRIVER_PHASE_TWO, RecursiveDirectoryTraversalDriver.class.getName());
+                    put(TinkerPopTraversalEncoder.Config.Keys.DROP_DANGLING_EDGES, true);
+                    put(VertexIdFilter.Config.Keys.ENABLED, true);
+                    put(VertexIdFilter.Config.Keys.EXPECTED_VERTICES, 100);
+                    put(OUTPUT_ID_DRIVER, PassthroughOutputIdDriver.class.getName());
+                }});
+
+        final Runtime runtime = LocalParallelStreamRuntime.open(testConfig);
+        // the runtime is kept open between the phases, closing it discards the filter
+        final Iterator<RunningPhase> phases = runtime.runPhases(List.of(Runtime.PHASE.ONE, Runtime.PHASE.TWO), testConfig);
+        final RunningPhase phaseOne = phases.next();
+        phaseOne.get();
+        phaseOne.close();
+
+        final VertexIdFilter filter = VertexIdFilter.current().orElseThrow();
+        assertTrue(filter.isComplete());
+        assertEquals(5L, filter.status().get("VERTICES"));
+        IntStream.rangeClosed(1, 5).forEach(id -> assertTrue(filter.mightContain(String.valueOf(id))));
+        assertFalse(filter.mightContain("6"));
+
+        iteratePhasesAndCloseRuntime(phases, runtime);
+        assertTrue(VertexIdFilter.current().isEmpty());
+        shared = SharedEmptyTinkerGraphGraphProvider.open().getProvided(GraphProvider.GraphProviderContext.OUTPUT);
+        assertEquals(5L, shared.traversal().V().count().next().longValue());
+        assertEquals(5L, shared.traversal().E().count().next().longValue());
+        shared.close();
+    }
+
+    @Test
+    public void testByteLineReaderSplitsLinesAcrossBufferRefills() throws Exception {
+        final Path file = Files.createTempFile("byteLineReader", ".csv");
+        final String longLine = "x".repeat(100);
+        Files.writeString(file, "~id,~label,name\r\n1,person,marko\n\n2,person,\u00e9l\u00e8ve\n" + longLine);
+        final List<String> lines = new ArrayList<>();
+        final ByteLineReader reader = ByteLineReader.open(file, 8);
+        reader.forEachRemaining(line -> lines.add(line.toString()));
+        Files.delete(file);
+        assertEquals(List.of("~id,~label,name", "1,person,marko", "", "2,person,\u00e9l\u00e8ve", longLine), lines);
+
+        final CSVLine csvLine = new CSVLine(lines.get(3), lines.get(0));
+        assertEquals("\u00e9l\u00e8ve", csvLine.getEntry("name"));
+        assertEquals(CSVLine.CSVField.EMPTY, new CSVLine("3,,", lines.get(0)).getEntry("~label"));
+    }
+
+    @Test
+    public void testByteRangesReturnEveryLineOnce() throws Exception {
+        final Path file = Files.createTempFile("byteLineReader", ".csv");
+        final List<String> expected = IntStream.range(0, 200).mapToObj(i -> i + ",person,name" + i).collect(Collectors.toList());
+        Files.writeString(file, String.join("\n", expected) + "\n");
+        final long size = Files.size(file);
+        for (final int splitSize : List.of(1, 7, 16, 64, 1000)) {
+            final List<String> lines = new ArrayList<>();
+            for (long start = 0; start < size; start += splitSize) {
+                ByteLineReader.open(file, start, start + splitSize, 8).forEachRemaining(line -> lines.add(line.toString()));
+            }
+            assertEquals(expected, lines);
+        }
+        Files.delete(file);
+    }
+
+    @Test
+    public void testCompressedDirectoryRoundTrip() throws Exception {
+        final Graph graph = SharedEmptyTinkerGraphGraphProvider.open().getProvided(GraphProvider.GraphProviderContext.OUTPUT);
+        graph.traversal().V().drop().iterate();
+        graph.close();
+        final Path outputDirectory = Path.of(System.getProperty("java.io.tmpdir")).resolve("generate");
+        FileUtil.recursiveDelete(outputDirectory);
+        writeClassicGraphToDirectory(outputDirectory, Map.of(DirectoryOutput.Config.Keys.COMPRESSION, "gzip"));
+        assertTrue(Files.walk(outputDirectory).filter(Files::isRegularFile).allMatch(it -> it.toString().endsWith(".csv.gz")));
+        final Configuration testConfig = new MapConfiguration(
+                new HashMap<>() {{
+                    put(LocalParallelStreamRuntime.Config.Keys.THREADS, 1);
+                    put(EMITTER, DirectoryEmitter.class.getName());
+                    put(DECODER, GraphCSVDecoder.class.getName());
+                    put(ENCODER, TinkerPopGraphEncoder.class.getName());
+                    put(OUTPUT, TinkerPopGraphOutput.class.getName());
+                    put(TinkerPopGraphEncoder.Config.Keys.GRAPH_PROVIDER, SharedEmptyTinkerGraphGraphProvider.class.getName());
+                    put(DirectoryEmitter.Config.Keys.BASE_PATH, outputDirectory.toAbsolutePath().toString());
+                    put(WORK_CHUNK_DRIVER_PHASE_ONE, RecursiveDirectoryTraversalDriver.class.getName());
+                    put(WORK_CHUNK_DRIVER_PHASE_TWO, RecursiveDirectoryTraversalDriver.class.getName());
+                    put(OUTPUT_ID_DRIVER, PassthroughOutputIdDriver.class.getName());
+                }});
+        final Runtime runtime = LocalParallelStreamRuntime.open(testConfig);
+        iteratePhasesAndCloseRuntime(runtime.runPhases(List.of(Runtime.PHASE.ONE, Runtime.PHASE.TWO), testConfig), runtime);
+        final Graph shared = SharedEmptyTinkerGraphGraphProvider.open().getProvided(GraphProvider.GraphProviderContext.OUTPUT);
+        final long loadedVertices = shared.traversal().V().count().next();
+        final long loadedEdges = shared.traversal().E().count().next();
+        shared.traversal().V().drop().iterate();
+        shared.close();
+        assertEquals(6, loadedVertices);
+        assertEquals(6, loadedEdges);
+    }
+
+    @Test
+    public void testColumnarDirectoryRoundTrip() throws Exception {
+        final Path outputDirectory = Path.of(System.getProperty("java.io.tmpdir")).resolve("generate");
+        FileUtil.recursiveDelete(outputDirectory);
+        writeClassicGraphToDirectory(outputDirectory, Map.of(
+                ENCODER, GraphColumnarEncoder.class.getName(),
+                GraphColumnarEncoder.Config.Keys.ROW_GROUP_SIZE, "2"));
+        assertTrue(Files.walk(outputDirectory).filter(Files::isRegularFile).allMatch(ColumnarFormat::isColumnar));
+
+        final Graph loaded = loadDirectory(outputDirectory, Map.of(DECODER, GraphColumnarDecoder.class.getName()));
+        final Graph classic = TinkerFactory.createClassic();
+        assertEquals(6L, (long) loaded.traversal().V().count().next());
+        assertEquals(6L, (long) loaded.traversal().E().count().next());
+        assertEquals(classic.traversal().V().has("name", "marko").values("age").next(), loaded.traversal().V().has("name", "marko").values("age").next());
+        assertEquals(Integer.class, loaded.traversal().V().values("age").next().getClass());
+        loaded.traversal().V().drop().iterate();
+        loaded.close();
+
+        final Graph projected = loadDirectory(outputDirectory, Map.of(
+                DECODER, GraphColumnarDecoder.class.getName(),
+                GraphColumnarDecoder.Config.Keys.COLUMNS, "name"));
+        assertEquals(6L, (long) projected.traversal().V().has("name").count().next());
+        assertEquals(0L, (long) projected.traversal().V().values("age").count().next());
+        projected.traversal().V().drop().iterate();
+        projected.close();
+    }
+
+    @Test
+    public void testCheckpointSkipsAcknowledgedChunks() throws Exception {
+        final Path outputDirectory = Path.of(System.getProperty("java.io.tmpdir")).resolve("generate");
+        FileUtil.recursiveDelete(outputDirectory);
+        writeClassicGraphToDirectory(outputDirectory);
+        final Path checkpoint = IOUtil.createTempDir().resolve("checkpoint.log");
+        final Map<String, Object> checkpointConfig = Map.of(CheckpointLog.Config.Keys.PATH, checkpoint.toString());
+
+        final Graph loaded = loadDirectory(outputDirectory, checkpointConfig);
+        assertEquals(6L, (long) loaded.traversal().V().count().next());
+        assertEquals(6L, (long) loaded.traversal().E().count().next());
+        loaded.traversal().V().drop().iterate();
+        loaded.close();
+        // the job completed, its log is moved aside with every chunk acknowledged
+        assertFalse(Files.exists(checkpoint));
+        final Path completed = CheckpointLog.completedPath(checkpoint);
+        final Map<Runtime.PHASE, Set<String>> acknowledged = CheckpointLog.read(completed);
+        assertEquals(Files.walk(outputDirectory.resolve(VERTICES)).filter(Files::isRegularFile).count(), acknowledged.get(Runtime.PHASE.ONE).size());
+        assertEquals(Files.walk(outputDirectory.resolve(EDGES)).filter(Files::isRegularFile).count(), acknowledged.get(Runtime.PHASE.TWO).size());
+
+        // running the completed job again loads everything again
+        final Graph rerun = loadDirectory(outputDirectory, checkpointConfig);
+        assertEquals(6L, (long) rerun.traversal().V().count().next());
+        assertEquals(6L, (long) rerun.traversal().E().count().next());
+        rerun.traversal().V().drop().iterate();
+        rerun.close();
+
+        // a crash before the vertex chunks were acknowledged only redoes those
+        Files.write(checkpoint, Files.readAllLines(completed).stream()
+                .filter(it -> !it.startsWith(Runtime.PHASE.ONE.name()))
+                .collect(Collectors.toList()));
+        final Graph resumed = loadDirectory(outputDirectory, checkpointConfig);
+        assertEquals(6L, (long) resumed.traversal().V().count().next());
+        assertEquals(0L, (long) resumed.traversal().E().count().next());
+        resumed.traversal().V().drop().iterate();
+        resumed.close();
+    }
+
+    @Test
+    public void testStagedExecutorLoadsAndAcknowledgesEveryChunk() throws Exception {
+        final Path outputDirectory = Path.of(System.getProperty("java.io.tmpdir")).resolve("generate");
+        FileUtil.recursiveDelete(outputDirectory);
+        writeClassicGraphToDirectory(outputDirectory);
+        final Path checkpoint = IOUtil.createTempDir().resolve("checkpoint.log");
+
+        final Graph loaded = loadDirectory(outputDirectory, Map.of(
+                LocalParallelStreamRuntime.Config.Keys.THREADS, 2,
+                LocalParallelStreamRuntime.Config.Keys.EXECUTOR, LocalParallelStreamRuntime.Config.Executor.STAGED.name(),
+                LocalParallelStreamRuntime.Config.Keys.STAGED_EMIT_THREADS, 1,
+                LocalParallelStreamRuntime.Config.Keys.STAGED_QUEUE_SIZE, 2,
+                CheckpointLog.Config.Keys.PATH, checkpoint.toString()));
+        assertEquals(6L, (long) loaded.traversal().V().count().next());
+        assertEquals(6L, (long) loaded.traversal().E().count().next());
+        loaded.traversal().V().drop().iterate();
+        loaded.close();
+        final Map<Runtime.PHASE, Set<String>> acknowledged = CheckpointLog.read(CheckpointLog.completedPath(checkpoint));
+        assertEquals(Files.walk(outputDirectory.resolve(VERTICES)).filter(Files::isRegularFile).count(), acknowledged.get(Runtime.PHASE.ONE).size());
+        assertEquals(Files.walk(outputDirectory.resolve(EDGES)).filter(Files::isRegularFile).count(), acknowledged.get(Runtime.PHASE.TWO).size());
+    }
+
+    private static Graph loadDirectory(final Path directory, final Map<String, Object> overrides) {
+        final Graph graph = SharedEmptyTinkerGraphGraphProvider.open().getProvided(GraphProvider.GraphProviderContext.OUTPUT);
+        graph.traversal().V().drop().iterate();
+        final Configuration testConfig = new MapConfiguration(
+                new HashMap<>() {{
+                    put(LocalParallelStreamRuntime.Config.Keys.THREADS, 1);
+                    put(EMITTER, DirectoryEmitter.class.getName());
+                    put(DECODER, GraphCSVDecoder.class.getName());
+                    put(ENCODER, TinkerPopGraphEncoder.class.getName());
+                    put(OUTPUT, TinkerPopGraphOutput.class.getName());
+                    put(TinkerPopGraphEncoder.Config.Keys.GRAPH_PROVIDER, SharedEmptyTinkerGraphGraphProvider.class.getName());
+                    put(DirectoryEmitter.Config.Keys.BASE_PATH, directory.toAbsolutePath().toString());
+                    put(WORK_CHUNK_DRIVER_PHASE_ONE, RecursiveDirectoryTraversalDriver.class.getName());
+                    put(WORK_CHUNK_DRIVER_PHASE_TWO, RecursiveDirectoryTraversalDriver.class.getName());
+                    put(OUTPUT_ID_DRIVER, PassthroughOutputIdDriver.class.getName());
+                    putAll(overrides);
+                }});
+        final Runtime runtime = LocalParallelStreamRuntime.open(testConfig);
+        iteratePhasesAndCloseRuntime(runtime.runPhases(List.of(Runtime.PHASE.ONE, Runtime.PHASE.TWO), testConfig), runtime);
+        return SharedEmptyTinkerGraphGraphProvider.open().getProvided(GraphProvider.GraphProviderContext.OUTPUT);
+    }
+
 }
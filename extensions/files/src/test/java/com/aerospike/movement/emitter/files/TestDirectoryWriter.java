@@ -23,8 +23,13 @@ import org.junit.Test;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static com.aerospike.movement.emitter.core.Emitter.encodeToOutput;
@@ -86,6 +91,52 @@ public class TestDirectoryWriter extends AbstractMovementTest {
         Files.walk(outputDirectory).forEach(System.out::println);
     }
 
+    @Test
+    public void testResumedRunKeepsTheFilesOfTheEarlierRun() throws IOException {
+        MockUtil.setDefaultMockCallbacks();
+        final Configuration testConfig = getMockConfiguration(new HashMap<>() {{
+            put(DirectoryOutput.Config.Keys.OUTPUT_DIRECTORY, outputDirectory.toAbsolutePath().toString());
+        }});
+        // every run numbers its files from 1, as a new process resuming from a checkpoint does
+        for (int run = 0; run < 2; run++) {
+            SplitFileLineOutput.fileIncr.set(0);
+            final DirectoryOutput o = DirectoryOutput.open(testConfig);
+            o.writer(MockEmitable.class, "b").writeToOutput(Optional.of(new MockEmitable("z", true, ConfigUtil.empty())));
+            o.close();
+        }
+        final Path labelDirectory = outputDirectory.resolve("mock").resolve("b");
+        assertTrue(labelDirectory.resolve("b_1.csv").toFile().exists());
+        assertTrue(labelDirectory.resolve("b_2.csv").toFile().exists());
+        assertEquals(2, countLinesInDirectory(labelDirectory) - countFilesInDirectory(labelDirectory));
+    }
+
+    @Test
+    public void testConcurrentWritesToOneLabel() throws Exception {
+        MockUtil.setDefaultMockCallbacks();
+        final Configuration testConfig = getMockConfiguration(new HashMap<>() {{
+            put(DirectoryOutput.Config.Keys.OUTPUT_DIRECTORY, outputDirectory.toAbsolutePath().toString());
+        }});
+        final int threads = 8;
+        final int writesPerThread = 1000;
+        final DirectoryOutput o = DirectoryOutput.open(testConfig);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Future<?>> writers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            writers.add(executor.submit(() -> {
+                for (int j = 0; j < writesPerThread; j++) {
+                    o.writer(MockEmitable.class, "b").writeToOutput(Optional.of(new MockEmitable("z", true, ConfigUtil.empty())));
+                }
+            }));
+        }
+        for (final Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+        o.close();
+        final Path labelDirectory = outputDirectory.resolve("mock").resolve("b");
+        assertEquals(threads * writesPerThread, countLinesInDirectory(labelDirectory) - countFilesInDirectory(labelDirectory));
+    }
+
     public static long countLinesInDirectory(Path path) throws IOException {
         return Files.walk(path)
                 .filter(it -> it.toFile().exists() && it.toFile().isFile())
@@ -0,0 +1,107 @@
+package com.aerospike.movement.encoding.files.columnar;
+
+import com.aerospike.movement.util.core.runtime.IOUtil;
+import com.aerospike.movement.util.files.AsyncFileChannelWriter;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestColumnarFormat {
+
+    @Test
+    public void testMixedTypeColumnKeepsTheTypeOfEveryValue() {
+        final Path path = IOUtil.createTempDir().resolve("mixed." + ColumnarFormat.EXTENSION);
+        final List<Object> mixed = Arrays.asList(29, "twenty nine", true, null, 2.5d, -7L, 0.5f, 30, (short) 3, (byte) -4, 'c');
+        final ColumnarFileWriter writer = ColumnarFileWriter.open(path, List.of("~id", "~label", "age"), 3, 1024,
+                AsyncFileChannelWriter.ForcePolicy.NONE);
+        for (int i = 0; i < mixed.size(); i++) {
+            writer.addRow(new Object[]{(long) i, "person", mixed.get(i)});
+        }
+        AsyncFileChannelWriter.await(writer.closeAsync());
+
+        final List<Object> ids = new ArrayList<>();
+        final List<Object> read = new ArrayList<>();
+        try (final ColumnarFileReader reader = ColumnarFileReader.open(path)) {
+            while (reader.hasNext()) {
+                final ColumnarRow row = reader.next();
+                ids.add(row.get("~id"));
+                read.add(row.get("age"));
+            }
+        }
+        assertEquals(mixed, read);
+        for (int i = 0; i < mixed.size(); i++) {
+            assertEquals((long) i, ids.get(i));
+            if (mixed.get(i) != null)
+                assertEquals(mixed.get(i).getClass(), read.get(i).getClass());
+        }
+        assertFalse(read.contains("29"));
+    }
+
+    @Test
+    public void testColumnsOfSmallIntegralTypesKeepTheirType() {
+        final Path path = IOUtil.createTempDir().resolve("small." + ColumnarFormat.EXTENSION);
+        final ColumnarFileWriter writer = ColumnarFileWriter.open(path, List.of("short", "byte", "char"), 10, 1024,
+                AsyncFileChannelWriter.ForcePolicy.NONE);
+        for (int i = 0; i < 5; i++) {
+            writer.addRow(new Object[]{(short) (1000 - i), (byte) i, (char) ('a' + i)});
+        }
+        AsyncFileChannelWriter.await(writer.closeAsync());
+
+        try (final ColumnarFileReader reader = ColumnarFileReader.open(path)) {
+            for (int i = 0; i < 5; i++) {
+                final ColumnarRow row = reader.next();
+                assertEquals((short) (1000 - i), row.get("short"));
+                assertEquals((byte) i, row.get("byte"));
+                assertEquals((char) ('a' + i), row.get("char"));
+            }
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void testValuesOfOtherTypesAreRejected() throws IOException {
+        assertTrue(ColumnarFormat.isSupported(null));
+        assertTrue(ColumnarFormat.isSupported('c'));
+        assertFalse(ColumnarFormat.isSupported(new Date()));
+        assertFalse(ColumnarFormat.isSupported(List.of(1, 2)));
+        try {
+            ColumnarFormat.encodeColumn(new Object[]{1, new Date()}, 2);
+            fail("a date must not be written as its toString()");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testFlushWritesTheBufferedRowsAsARowGroup() throws IOException {
+        final Path path = IOUtil.createTempDir().resolve("flushed." + ColumnarFormat.EXTENSION);
+        final ColumnarFileWriter writer = ColumnarFileWriter.open(path, List.of("~id"), 3, 1024,
+                AsyncFileChannelWriter.ForcePolicy.NONE);
+        writer.addRow(new Object[]{0L});
+        final long empty = Files.size(path);
+        writer.flush();
+        assertTrue(Files.size(path) > empty);
+        for (long i = 1; i < 5; i++) {
+            writer.addRow(new Object[]{i});
+        }
+        AsyncFileChannelWriter.await(writer.closeAsync());
+
+        final List<Object> ids = new ArrayList<>();
+        try (final ColumnarFileReader reader = ColumnarFileReader.open(path)) {
+            while (reader.hasNext()) {
+                ids.add(reader.next().get("~id"));
+            }
+        }
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L), ids);
+    }
+}
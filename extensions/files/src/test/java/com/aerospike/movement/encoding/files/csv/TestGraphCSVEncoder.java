@@ -0,0 +1,152 @@
+package com.aerospike.movement.encoding.files.csv;
+
+import com.aerospike.movement.emitter.core.Emitable;
+import com.aerospike.movement.encoding.core.Encoder;
+import com.aerospike.movement.output.core.Output;
+import com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime;
+import com.aerospike.movement.structure.core.EmittedId;
+import com.aerospike.movement.structure.core.graph.EmittedEdge;
+import com.aerospike.movement.structure.core.graph.EmittedVertex;
+import com.aerospike.movement.test.core.AbstractMovementTest;
+import com.aerospike.movement.test.mock.MockCallback;
+import com.aerospike.movement.test.mock.MockUtil;
+import com.aerospike.movement.test.mock.emitter.MockEmitter;
+import com.aerospike.movement.util.core.runtime.RuntimeUtil;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestGraphCSVEncoder extends AbstractMovementTest {
+    private Encoder<String> encoder;
+
+    @Before
+    public void setup() {
+        super.setup();
+        LocalParallelStreamRuntime.closeStatic();
+        MockUtil.setDefaultMockCallbacks();
+        MockUtil.setCallback(MockEmitter.class, MockEmitter.Methods.GET_ALL_PROPERTY_KEYS_FOR_VERTEX_LABEL,
+                MockCallback.create((object, args) -> Optional.of(List.of("name", "age"))));
+        MockUtil.setCallback(MockEmitter.class, MockEmitter.Methods.GET_ALL_PROPERTY_KEYS_FOR_EDGE_LABEL,
+                MockCallback.create((object, args) -> Optional.of(List.of("weight"))));
+        final Configuration config = getMockConfiguration(new HashMap<>());
+        RuntimeUtil.loadEmitter(config);
+        encoder = GraphCSVEncoder.open(config);
+    }
+
+    @After
+    public void cleanup() {
+        encoder.close();
+        LocalParallelStreamRuntime.closeStatic();
+        super.cleanup();
+    }
+
+    @Test
+    public void testVertexPlanFillsMissingAndDropsExtraProperties() {
+        final Map<String, Object> full = Map.of("~id", 1L, "~label", "person", "name", "marko", "age", 29);
+        // no age, and a property the emitter did not report for the label
+        final Map<String, Object> partial = Map.of("~id", 2L, "~label", "person", "name", "vadas", "nickname", "v");
+
+        assertEquals("~id,~label,age,name", encoder.encodeItemMetadata(vertex(full)).get());
+        assertEquals("1,person,29,marko", encoder.encode(vertex(full)).get());
+        assertEquals("2,person,,vadas", encoder.encode(vertex(partial)).get());
+    }
+
+    @Test
+    public void testEdgePlanMatchesEdgeFieldLookup() {
+        final EmittedEdge weighted = edge(1L, 2L, Map.of("weight", 0.5));
+        final EmittedEdge unweighted = edge(1L, 3L, Map.of("since", 2010));
+
+        assertEquals("~label,~from,~to,weight", encoder.encodeItemMetadata(weighted).get());
+        assertEquals("knows,1,2,0.5", encoder.encode(weighted).get());
+        assertEquals("knows,1,3,", encoder.encode(unweighted).get());
+        for (final EmittedEdge edge : List.of(weighted, unweighted)) {
+            assertEquals(String.join(",", EmittedEdge.getFieldFromEdge(edge, EmittedEdge.LABEL),
+                            EmittedEdge.getFieldFromEdge(edge, EmittedEdge.FROM),
+                            EmittedEdge.getFieldFromEdge(edge, EmittedEdge.TO),
+                            EmittedEdge.getFieldFromEdge(edge, "weight")),
+                    encoder.encode(edge).get());
+        }
+    }
+
+    private static EmittedVertex vertex(final Map<String, Object> fields) {
+        return new EmittedVertex() {
+            @Override
+            public EmittedId id() {
+                return EmittedId.from(fields.get("~id"));
+            }
+
+            @Override
+            public Stream<String> propertyNames() {
+                return fields.keySet().stream().filter(it -> !it.startsWith("~"));
+            }
+
+            @Override
+            public Optional<Object> propertyValue(final String name) {
+                return Optional.ofNullable(fields.get(name));
+            }
+
+            @Override
+            public String label() {
+                return (String) fields.get("~label");
+            }
+
+            @Override
+            public Stream<Emitable> emit(final Output output) {
+                return Stream.empty();
+            }
+
+            @Override
+            public Stream<Emitable> stream() {
+                return Stream.empty();
+            }
+        };
+    }
+
+    private static EmittedEdge edge(final Object from, final Object to, final Map<String, Object> properties) {
+        return new EmittedEdge() {
+            @Override
+            public EmittedId fromId() {
+                return EmittedId.from(from);
+            }
+
+            @Override
+            public EmittedId toId() {
+                return EmittedId.from(to);
+            }
+
+            @Override
+            public Stream<String> propertyNames() {
+                return properties.keySet().stream();
+            }
+
+            @Override
+            public Optional<Object> propertyValue(final String name) {
+                return Optional.ofNullable(properties.get(name));
+            }
+
+            @Override
+            public String label() {
+                return "knows";
+            }
+
+            @Override
+            public Stream<Emitable> emit(final Output output) {
+                return Stream.empty();
+            }
+
+            @Override
+            public Stream<Emitable> stream() {
+                return Stream.empty();
+            }
+        };
+    }
+}
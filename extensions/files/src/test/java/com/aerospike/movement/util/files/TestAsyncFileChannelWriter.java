@@ -0,0 +1,131 @@
+package com.aerospike.movement.util.files;
+
+import com.aerospike.movement.util.core.runtime.IOUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class TestAsyncFileChannelWriter {
+    private Path directory;
+
+    @Before
+    public void setup() {
+        directory = IOUtil.createTempDir();
+    }
+
+    @Test
+    public void testBuffersSwapWhileTheirDrainIsInFlight() throws IOException {
+        final Path path = directory.resolve("swap.csv");
+        final StringBuilder expected = new StringBuilder();
+        // a buffer much smaller than what is written, so most writes commit while the previous drain is running
+        final AsyncFileChannelWriter writer = AsyncFileChannelWriter.open(path, 64, AsyncFileChannelWriter.ForcePolicy.NONE);
+        for (int i = 0; i < 20_000; i++) {
+            final String line = i + (i % 1000 == 0 ? "x".repeat(200) : "") + "\n";
+            writer.write(line);
+            expected.append(line);
+            if (i % 7 == 0)
+                writer.commit();
+            if (i % 500 == 0) {
+                writer.flush();
+                assertEquals(expected.length(), Files.size(path));
+            }
+        }
+        writer.close();
+        assertEquals(expected.toString(), Files.readString(path));
+    }
+
+    @Test
+    public void testEveryForcePolicyWritesTheSameFile() throws IOException {
+        for (final AsyncFileChannelWriter.ForcePolicy policy : AsyncFileChannelWriter.ForcePolicy.values()) {
+            final Path path = directory.resolve(policy.name() + ".csv");
+            final AsyncFileChannelWriter writer = AsyncFileChannelWriter.open(path, 1024, policy);
+            writer.write("a,b\n");
+            writer.commit();
+            writer.write("1,2\n".getBytes(StandardCharsets.UTF_8));
+            writer.flush();
+            assertEquals(policy.name(), "a,b\n1,2\n", Files.readString(path));
+            writer.write("3,4\n");
+            writer.close();
+            assertEquals(policy.name(), "a,b\n1,2\n3,4\n", Files.readString(path));
+        }
+    }
+
+    @Test
+    public void testCommittedGzipPrefixCanBeDecompressed() throws IOException {
+        final Path path = directory.resolve("prefix.csv.gz");
+        final AsyncFileChannelWriter writer = AsyncFileChannelWriter.open(path, 1024, AsyncFileChannelWriter.ForcePolicy.COMMIT, FileCodec.GZIP, 6);
+        writer.write("a,b\n1,2\n");
+        writer.flush();
+
+        // the trailer is not written yet, read up to the end of what was flushed
+        final ByteArrayOutputStream prefix = new ByteArrayOutputStream();
+        try (final InputStream in = FileCodec.GZIP.decompress(Files.newInputStream(path))) {
+            final byte[] buffer = new byte[256];
+            for (int read = in.read(buffer); read > 0; read = in.read(buffer)) {
+                prefix.write(buffer, 0, read);
+            }
+        } catch (EOFException expected) {
+        }
+        assertEquals("a,b\n1,2\n", prefix.toString(StandardCharsets.UTF_8));
+
+        writer.write("3,4\n");
+        writer.close();
+        try (final InputStream in = FileCodec.GZIP.decompress(Files.newInputStream(path))) {
+            assertEquals("a,b\n1,2\n3,4\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testGzipOnlySyncFlushesWhenAsked() throws IOException {
+        for (final boolean syncFlush : List.of(true, false)) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final OutputStream compressed = FileCodec.GZIP.compress(out, 6, syncFlush);
+            compressed.write("a,b\n1,2\n".getBytes(StandardCharsets.UTF_8));
+            compressed.flush();
+            // only the 10 byte gzip header is written until the deflater is flushed or finished
+            assertEquals(syncFlush, out.size() > 10);
+        }
+    }
+
+    @Test
+    public void testFailedCloseReturnsBuffersToThePool() {
+        final Path full = Path.of("/dev/full");
+        assumeTrue(Files.isWritable(full));
+        final AsyncFileChannelWriter writer = AsyncFileChannelWriter.open(full, 1024, AsyncFileChannelWriter.ForcePolicy.COMMIT);
+        final int pooled = AsyncFileChannelWriter.pooledBuffers();
+        writer.write("does not fit\n");
+        try {
+            writer.closeAsync().join();
+            fail("writing to a full device should fail the close");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof RuntimeException);
+        }
+        assertEquals(Math.min(pooled + 2, AsyncFileChannelWriter.MAX_POOLED_BUFFERS), AsyncFileChannelWriter.pooledBuffers());
+    }
+
+    @Test
+    public void testThePoolKeepsAtMostMaxPooledBuffers() {
+        final List<AsyncFileChannelWriter> writers = new ArrayList<>();
+        for (int i = 0; i < AsyncFileChannelWriter.MAX_POOLED_BUFFERS; i++) {
+            writers.add(AsyncFileChannelWriter.open(directory.resolve(i + ".csv"), 1024, AsyncFileChannelWriter.ForcePolicy.NONE));
+        }
+        writers.forEach(AsyncFileChannelWriter::close);
+        assertEquals(AsyncFileChannelWriter.MAX_POOLED_BUFFERS, AsyncFileChannelWriter.pooledBuffers());
+    }
+}
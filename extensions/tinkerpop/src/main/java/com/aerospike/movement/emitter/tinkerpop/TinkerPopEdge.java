@@ -16,6 +16,7 @@ import org.apache.tinkerpop.gremlin.structure.Property;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static com.aerospike.movement.emitter.core.Emitter.encodeToOutput;
@@ -29,10 +30,15 @@ public class TinkerPopEdge implements EmittedEdge {
 
     @Override
     public Stream<Emitable> emit(final Output output) {
-        encodeToOutput(this,output);
+        emitTo(output, emitable -> {});
         return Stream.empty();
     }
 
+    @Override
+    public void emitTo(final Output output, final Consumer<Emitable> sink) {
+        encodeToOutput(this,output);
+    }
+
     @Override
     public EmittedId fromId() {
         return EmittedId.from(Long.valueOf(edge.outVertex().id().toString()));
@@ -15,6 +15,7 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static com.aerospike.movement.emitter.core.Emitter.encodeToOutput;
@@ -28,10 +29,15 @@ public class TinkerPopVertex implements EmittedVertex {
 
     @Override
     public Stream<Emitable> emit(final Output output) {
-        encodeToOutput(this,output);
+        emitTo(output, emitable -> {});
         return Stream.empty();
     }
 
+    @Override
+    public void emitTo(final Output output, final Consumer<Emitable> sink) {
+        encodeToOutput(this,output);
+    }
+
     @Override
     public Stream<String> propertyNames() {
         return IteratorUtils.stream(vertex.properties()).map(p -> p.key());
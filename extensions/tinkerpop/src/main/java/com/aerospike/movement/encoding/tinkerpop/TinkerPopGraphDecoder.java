@@ -23,6 +23,7 @@ import org.apache.commons.configuration2.Configuration;
 import org.apache.tinkerpop.gremlin.structure.*;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static com.aerospike.movement.emitter.core.Emitter.encodeToOutput;
@@ -109,8 +110,13 @@ public class TinkerPopGraphDecoder extends Loadable implements Decoder<Element>
 
                 @Override
                 public Stream<Emitable> emit(final Output output) {
+                    emitTo(output, emitable -> {});
+                    return Stream.empty();
+                }
+
+                @Override
+                public void emitTo(final Output output, final Consumer<Emitable> sink) {
                     encodeToOutput(this, output);
-                    return stream();
                 }
             };
         } else if (Edge.class.isAssignableFrom(encodedElement.getClass())) {
@@ -147,9 +153,14 @@ public class TinkerPopGraphDecoder extends Loadable implements Decoder<Element>
                 }
 
                 @Override
-                public Stream<Emitable> emit(Output output) {
+                public Stream<Emitable> emit(final Output output) {
+                    emitTo(output, emitable -> {});
+                    return Stream.empty();
+                }
+
+                @Override
+                public void emitTo(final Output output, final Consumer<Emitable> sink) {
                     encodeToOutput(this, output);
-                    return stream();
                 }
             };
         } else {
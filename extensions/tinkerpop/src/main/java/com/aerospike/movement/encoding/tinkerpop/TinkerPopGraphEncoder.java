@@ -9,19 +9,23 @@ package com.aerospike.movement.encoding.tinkerpop;
 import com.aerospike.movement.config.core.ConfigurationBase;
 import com.aerospike.movement.emitter.core.Emitable;
 import com.aerospike.movement.encoding.core.Encoder;
+import com.aerospike.movement.runtime.core.Runtime;
 import com.aerospike.movement.runtime.core.local.Loadable;
+import com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime;
 import com.aerospike.movement.structure.core.graph.EmittedEdge;
 import com.aerospike.movement.structure.core.graph.EmittedVertex;
+import com.aerospike.movement.structure.core.graph.VertexIdFilter;
 import com.aerospike.movement.tinkerpop.common.GraphProvider;
 import com.aerospike.movement.tinkerpop.common.TinkerPopGraphProvider;
 import com.aerospike.movement.util.core.configuration.ConfigUtil;
 import com.aerospike.movement.util.core.error.ErrorUtil;
-import com.aerospike.movement.util.core.iterator.ext.IteratorUtils;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import org.apache.commons.configuration2.Configuration;
 import org.apache.tinkerpop.gremlin.structure.*;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.aerospike.movement.emitter.core.Emitter.encodeToOutput;
@@ -59,22 +63,71 @@ public class TinkerPopGraphEncoder extends Loadable implements Encoder<Element>
         public static class Keys {
             public static final String GRAPH_PROVIDER = "encoder.graphProvider";
             public static final String DROP_DANGLING_EDGES = "encoder.graph.dropDanglingEdges";
+            public static final String BULK = "encoder.graph.bulk";
 
         }
 
         private static final Map<String, String> DEFAULTS = new HashMap<>() {{
             put(Keys.GRAPH_PROVIDER, TinkerPopGraphProvider.class.getName());
             put(Keys.DROP_DANGLING_EDGES, String.valueOf(false));
+            put(Keys.BULK, String.valueOf(false));
         }};
     }
 
     public static final Config CONFIG = new Config();
 
+    /*
+     * Bulk mode keeps every vertex added in PHASE.ONE by id, per output graph, so edges in PHASE.TWO find their
+     * endpoints without querying the graph. Meant for embedded in memory graphs, the index holds a reference to
+     * every loaded vertex until the last PHASE.TWO encoder of the graph closes, or the runtime does if PHASE.TWO
+     * never runs.
+     */
+    private static final Map<Graph, Map<Object, Vertex>> bulkVertexIndex = new ConcurrentHashMap<>();
+    // open bulk encoders per output graph, guarded by itself
+    private static final Map<Graph, Integer> bulkIndexUsers = new HashMap<>();
+
+    static {
+        LocalParallelStreamRuntime.cleanupCallbacks.put(TinkerPopGraphEncoder.class.getSimpleName(), () -> {
+            synchronized (bulkIndexUsers) {
+                bulkIndexUsers.clear();
+                bulkVertexIndex.clear();
+            }
+        });
+    }
+
     private final Graph graph;
+    private final boolean bulk;
+    private final boolean dropDanglingEdges;
+    private final Optional<VertexIdFilter> vertexFilter;
 
     public TinkerPopGraphEncoder(final Graph graph, final Configuration config) {
         super(Config.INSTANCE, config);
         this.graph = graph;
+        this.bulk = Boolean.parseBoolean(CONFIG.getOrDefault(Config.Keys.BULK, config));
+        this.dropDanglingEdges = Boolean.parseBoolean(CONFIG.getOrDefault(Config.Keys.DROP_DANGLING_EDGES, config));
+        this.vertexFilter = VertexIdFilter.acquire(config);
+        if (bulk)
+            acquireBulkIndex(graph);
+    }
+
+    private static void acquireBulkIndex(final Graph graph) {
+        synchronized (bulkIndexUsers) {
+            bulkIndexUsers.merge(graph, 1, Integer::sum);
+        }
+    }
+
+    // the last PHASE.TWO encoder of a graph to close discards its index, earlier ones leave it to the others
+    private static void releaseBulkIndex(final Graph graph, final Runtime.PHASE phase) {
+        synchronized (bulkIndexUsers) {
+            final int remaining = bulkIndexUsers.getOrDefault(graph, 1) - 1;
+            if (remaining > 0) {
+                bulkIndexUsers.put(graph, remaining);
+                return;
+            }
+            bulkIndexUsers.remove(graph);
+            if (phase.equals(Runtime.PHASE.TWO))
+                bulkVertexIndex.remove(graph);
+        }
     }
 
     public static TinkerPopGraphEncoder open(final Configuration config) {
@@ -84,32 +137,57 @@ public class TinkerPopGraphEncoder extends Loadable implements Encoder<Element>
     }
 
 
-    public Optional<Element> encodeEdge(final EmittedEdge edge) {
-        final List<Object> args = edge.propertyNames().flatMap(name -> {
-            final ArrayList<Object> results = new ArrayList<Object>();
-            Optional<Object> op = edge.propertyValue(name);
-            if (op.isPresent()) {
-                results.add(name);
-                results.add(op.get());
+    // key value pairs for addVertex / addEdge, after the given leading pairs
+    private static Object[] keyValues(final List<String> names, final Function<String, Optional<Object>> values, final Object... leading) {
+        final Object[] keyValues = new Object[leading.length + names.size() * 2];
+        System.arraycopy(leading, 0, keyValues, 0, leading.length);
+        int i = leading.length;
+        for (final String name : names) {
+            final Optional<Object> value = values.apply(name);
+            if (value.isPresent()) {
+                keyValues[i++] = name;
+                keyValues[i++] = value.get();
             }
-            return results.stream();
-        }).collect(Collectors.toList());
-        final List<Vertex> inV = new ArrayList<>(IteratorUtils.list(graph.vertices(edge.toId().unwrap())));
-        final List<Vertex> outV = new ArrayList<>(IteratorUtils.list(graph.vertices(edge.fromId().unwrap())));
-        if (inV.size() > 1 || outV.size() > 1)
+        }
+        return i == keyValues.length ? keyValues : Arrays.copyOf(keyValues, i);
+    }
+
+    private Vertex lookupVertex(final Object id) {
+        if (bulk) {
+            final Vertex indexed = bulkVertexIndex.getOrDefault(graph, Map.of()).get(id);
+            if (indexed != null)
+                return indexed;
+        }
+        final Iterator<Vertex> vertices = graph.vertices(id);
+        if (!vertices.hasNext())
+            return null;
+        final Vertex vertex = vertices.next();
+        if (vertices.hasNext())
             throw new RuntimeException("Graph should never return more then 1 vertex for an id");
+        return vertex;
+    }
+
+    private boolean isDefinitelyMissing(final Object id) {
+        return dropDanglingEdges && vertexFilter.isPresent() && !vertexFilter.get().mightContain(id);
+    }
+
+    public Optional<Element> encodeEdge(final EmittedEdge edge) {
+        final Object[] keyValues = keyValues(edge.propertyNames().collect(Collectors.toList()), edge::propertyValue);
+        final Vertex inV = isDefinitelyMissing(edge.toId().unwrap()) ? null : lookupVertex(edge.toId().unwrap());
+        final Vertex outV = (inV == null && dropDanglingEdges) || isDefinitelyMissing(edge.fromId().unwrap()) ?
+                null : lookupVertex(edge.fromId().unwrap());
 
         try {
-            if (inV.isEmpty() || outV.isEmpty()) {
-                final String errorMessage = String.format("could not find vertex %s when creating edge", inV.isEmpty() ? edge.toId() : edge.fromId().unwrap());
-                if (Boolean.parseBoolean(CONFIG.getOrDefault(Config.Keys.DROP_DANGLING_EDGES, config))) {
+            if (inV == null || outV == null) {
+                final String errorMessage = String.format("could not find vertex %s when creating edge", inV == null ? edge.toId() : edge.fromId().unwrap());
+                if (dropDanglingEdges) {
                     RuntimeUtil.getLogger(this).warn(errorMessage, edge);
                 } else {
                     throw errorHandler.handleFatalError(new RuntimeException(errorMessage), edge);
                 }
                 return Optional.empty();
             } else {
-                return Optional.of(outV.get(0).addEdge(EmittedEdge.getFieldFromEdge(edge, "~label"), inV.get(0), args.toArray()));
+                return Optional.of(outV.addEdge(EmittedEdge.getFieldFromEdge(edge, "~label"), inV, keyValues));
             }
         } catch (Exception e) {
             throw errorHandler.handleFatalError(e, edge);
@@ -118,27 +196,18 @@ public class TinkerPopGraphEncoder extends Loadable implements Encoder<Element>
 
 
     public Optional<Element> encodeVertex(final EmittedVertex vertex) {
-        final List<Object> args = vertex.propertyNames().flatMap(name -> {
-            final ArrayList<Object> results = new ArrayList<Object>();
-            Optional<Object> op = vertex.propertyValue(name);
-            if (op.isPresent()) {
-                results.add(name);
-                results.add(op.get());
-            }
-            return results.stream();
-        }).collect(Collectors.toList());
-        args.addAll(0, new ArrayList() {{
-            add(T.id);
-            add(vertex.id().unwrap());
-            add(T.label);
-            add(vertex.label());
-        }});
+        final Object id = vertex.id().unwrap();
+        final Object[] keyValues = keyValues(vertex.propertyNames().collect(Collectors.toList()), vertex::propertyValue,
+                T.id, id, T.label, vertex.label());
         Vertex x;
         try {
-            x = graph.addVertex(args.toArray());
+            x = graph.addVertex(keyValues);
         } catch (Exception e) {
             throw errorHandler.handleFatalError(e, vertex);
         }
+        if (bulk)
+            bulkVertexIndex.computeIfAbsent(graph, it -> new ConcurrentHashMap<>()).put(id, x);
+        vertexFilter.ifPresent(filter -> filter.add(id));
         return Optional.of(x);
     }
 
@@ -170,6 +239,9 @@ public class TinkerPopGraphEncoder extends Loadable implements Encoder<Element>
 
     @Override
     public void onClose() {
+        if (bulk)
+            releaseBulkIndex(graph, RuntimeUtil.getCurrentPhase(config));
+        vertexFilter.ifPresent(filter -> VertexIdFilter.release(filter, config));
         try {
             graph.close();
         } catch (Exception e) {
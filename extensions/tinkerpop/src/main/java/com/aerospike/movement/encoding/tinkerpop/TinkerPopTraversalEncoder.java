@@ -9,8 +9,11 @@ package com.aerospike.movement.encoding.tinkerpop;
 
 import com.aerospike.movement.config.core.ConfigurationBase;
 import com.aerospike.movement.emitter.core.Emitable;
+import com.aerospike.movement.structure.core.graph.EmitableGraphElement;
 import com.aerospike.movement.structure.core.graph.EmittedEdge;
 import com.aerospike.movement.structure.core.graph.EmittedVertex;
+import com.aerospike.movement.structure.core.graph.VertexIdFilter;
+import com.aerospike.movement.structure.core.graph.VertexIdIndex;
 import com.aerospike.movement.encoding.core.Encoder;
 import com.aerospike.movement.runtime.core.local.Loadable;
 import com.aerospike.movement.tinkerpop.common.GraphProvider;
@@ -18,13 +21,19 @@ import com.aerospike.movement.tinkerpop.common.TraversalProvider;
 import com.aerospike.movement.util.core.configuration.ConfigUtil;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import org.apache.commons.configuration2.Configuration;
+import org.apache.tinkerpop.gremlin.process.remote.traversal.strategy.decoration.RemoteStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 
 import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 
@@ -62,12 +71,17 @@ public class TinkerPopTraversalEncoder extends Loadable implements Encoder<Eleme
             public static final String CLEAR = "encoder.clear";
             public static final String TRAVERSAL_PROVIDER = "encoder.traversal.provider";
             public static final String DROP_DANGLING_EDGES = "encoder.traversal.dropDanglingEdges";
-
+            public static final String BATCH_SIZE = "encoder.traversal.batchSize";
+            public static final String MAX_OUTSTANDING_BATCHES = "encoder.traversal.maxOutstandingBatches";
+            public static final String VERTEX_INDEX = "encoder.traversal.vertexIndex";
         }
 
         private static final Map<String, String> DEFAULTS = new HashMap<>() {{
             put(Keys.CLEAR, "false");
             put(Keys.DROP_DANGLING_EDGES, String.valueOf(false));
+            put(Keys.BATCH_SIZE, "1");
+            put(Keys.MAX_OUTSTANDING_BATCHES, "4");
+            put(Keys.VERTEX_INDEX, "false");
         }};
     }
 
@@ -75,12 +89,29 @@ public class TinkerPopTraversalEncoder extends Loadable implements Encoder<Eleme
 
 
     private final GraphTraversalSource g;
+    private final int batchSize;
+    private final boolean remote;
+    private final Semaphore outstandingBatches;
+    private final int maxOutstandingBatches;
+    private final AtomicReference<Throwable> batchFailure = new AtomicReference<>();
+    private List<Emitable> pending;
+    // emitted vertex id to output vertex id, shared by the encoders of both phases
+    private final Optional<VertexIdIndex> vertexIndex;
+    private final Optional<VertexIdFilter> vertexFilter;
 
 
     protected TinkerPopTraversalEncoder(final GraphTraversalSource g, final Configuration config) {
         super(Config.INSTANCE, config);
         this.config = config;
         this.g = g;
+        this.batchSize = Integer.parseInt(CONFIG.getOrDefault(Config.Keys.BATCH_SIZE, config));
+        this.maxOutstandingBatches = Integer.parseInt(CONFIG.getOrDefault(Config.Keys.MAX_OUTSTANDING_BATCHES, config));
+        this.outstandingBatches = new Semaphore(maxOutstandingBatches);
+        this.remote = g.getStrategies().getStrategy(RemoteStrategy.class).isPresent();
+        this.pending = new ArrayList<>(batchSize);
+        this.vertexIndex = Boolean.parseBoolean(CONFIG.getOrDefault(Config.Keys.VERTEX_INDEX, config)) ?
+                Optional.of(VertexIdIndex.acquire(RuntimeUtil.getCurrentPhase(config))) : Optional.empty();
+        this.vertexFilter = VertexIdFilter.acquire(config);
     }
 
     public GraphTraversalSource getTraversal() {
@@ -106,9 +137,26 @@ public class TinkerPopTraversalEncoder extends Loadable implements Encoder<Eleme
             }
             return results.stream();
         }).collect(Collectors.toList());
+        final Map<Object, Object> keyValues = new HashMap<>();
+        final Iterator<Object> i = args.iterator();
+        while (i.hasNext()) {
+            keyValues.put(i.next(), i.next());
+        }
+        final String label = EmittedEdge.getFieldFromEdge((EmittedEdge) edge, "~label");
+        if (vertexIndex.isPresent()) {
+            final Optional<Object> outId = vertexIndex.get().get(edge.fromId().unwrap());
+            final Optional<Object> inId = vertexIndex.get().get(edge.toId().unwrap());
+            if (outId.isPresent() && inId.isPresent())
+                return Optional.of(g.V(outId.get()).addE(label).to(__.V(inId.get())).property(keyValues).next());
+        }
         final Vertex inV, outV;
         final Object toId = edge.toId().unwrap();
+        final Object fromId = edge.fromId().unwrap();
         final boolean danglingSupport = Boolean.parseBoolean(CONFIG.getOrDefault(Config.Keys.DROP_DANGLING_EDGES, config));
+        if (danglingSupport && !(mightExist(toId) && mightExist(fromId))) {
+            RuntimeUtil.getLogger(this).warn(String.format("could not find vertex %s when creating edge", mightExist(toId) ? fromId : toId), edge);
+            return Optional.empty();
+        }
         try {
             inV = g.V(toId).next();
         } catch (NoSuchElementException nse) {
@@ -120,7 +168,6 @@ public class TinkerPopTraversalEncoder extends Loadable implements Encoder<Eleme
                 throw errorHandler.handleFatalError(nse, errorMessage);
             }
         }
-        final Object fromId = edge.fromId().unwrap();
         try {
             outV = g.V(fromId).next();
         } catch (NoSuchElementException nse) {
@@ -132,14 +179,9 @@ public class TinkerPopTraversalEncoder extends Loadable implements Encoder<Eleme
                 throw errorHandler.handleFatalError(nse, errorMessage);
             }
         }
-        final Map<Object, Object> keyValues = new HashMap<>();
-        final Iterator<Object> i = args.iterator();
-        while (i.hasNext()) {
-            keyValues.put(i.next(), i.next());
-        }
         final Edge x = g
                 .V(outV)
-                .addE(EmittedEdge.getFieldFromEdge((EmittedEdge) edge, "~label"))
+                .addE(label)
                 .to(inV)
                 .property(keyValues)
                 .next();
@@ -168,15 +210,209 @@ public class TinkerPopTraversalEncoder extends Loadable implements Encoder<Eleme
                     .property(keyValues)
                     .next();
             RuntimeUtil.getLogger(this).debug("wrote vertex: " + x);
+            vertexIndex.ifPresent(index -> index.put(vertex.id().unwrap(), x.id()));
+            vertexFilter.ifPresent(filter -> filter.add(vertex.id().unwrap()));
             return Optional.of(x);
         } catch (Exception e) {
             RuntimeUtil.getLogger(this).warn("Error encoding vertex: %s", vertex);
+            // the write may have failed because the vertex already exists, an edge to it must not be dropped as dangling
+            final Object id = vertex.id().unwrap();
+            if ((vertexIndex.isPresent() || vertexFilter.isPresent()) && mayBeWritten(id))
+                recordVertex(id);
         }
         return Optional.empty();
     }
 
+    /*
+     * Batched writes chain one addV/addE step per element into a single traversal, so a batch costs one round trip.
+     * Chaining keeps create semantics (mergeE would collapse parallel edges) and edge endpoints are resolved inline
+     * with V(id). Against a remote source batches are submitted with promise(), at most maxOutstandingBatches at once.
+     */
+    private void buffer(final Emitable item) {
+        final List<Emitable> batch;
+        synchronized (this) {
+            pending.add(item);
+            if (pending.size() < batchSize)
+                return;
+            batch = pending;
+            pending = new ArrayList<>(batchSize);
+        }
+        submit(batch);
+    }
+
+    public void flush() {
+        final List<Emitable> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new ArrayList<>(batchSize);
+        }
+        if (!batch.isEmpty())
+            submit(batch);
+        try {
+            outstandingBatches.acquire(maxOutstandingBatches);
+            outstandingBatches.release(maxOutstandingBatches);
+        } catch (InterruptedException e) {
+            throw errorHandler.handleFatalError(e, this);
+        }
+        checkBatchFailure();
+    }
+
+    private void checkBatchFailure() {
+        final Throwable failure = batchFailure.getAndSet(null);
+        if (failure != null)
+            throw errorHandler.handleFatalError(failure, this);
+    }
+
+    private void submit(final List<Emitable> batch) {
+        checkBatchFailure();
+        final Optional<GraphTraversal<?, ?>> traversal = batchTraversal(batch);
+        if (traversal.isEmpty())
+            return;
+        try {
+            outstandingBatches.acquire();
+        } catch (InterruptedException e) {
+            throw errorHandler.handleFatalError(e, this);
+        }
+        if (remote) {
+            traversal.get().promise(Traversal::iterate).whenComplete((result, throwable) -> {
+                try {
+                    if (throwable != null)
+                        onBatchFailure(batch, throwable);
+                    else
+                        recordVertices(batch);
+                } catch (Throwable t) {
+                    batchFailure.compareAndSet(null, t);
+                } finally {
+                    outstandingBatches.release();
+                }
+            });
+        } else {
+            try {
+                traversal.get().iterate();
+                recordVertices(batch);
+            } catch (Exception e) {
+                onBatchFailure(batch, e);
+            } finally {
+                outstandingBatches.release();
+            }
+        }
+    }
+
+    // batched vertices are written with their emitted id as T.id
+    private void recordVertices(final List<Emitable> batch) {
+        if (vertexIndex.isEmpty() && vertexFilter.isEmpty())
+            return;
+        batch.stream()
+                .filter(it -> EmittedVertex.class.isAssignableFrom(it.getClass()))
+                .map(it -> ((EmittedVertex) it).id().unwrap())
+                .forEach(this::recordVertex);
+    }
+
+    private void recordVertex(final Object id) {
+        vertexIndex.ifPresent(index -> index.put(id, id));
+        vertexFilter.ifPresent(filter -> filter.add(id));
+    }
+
+    // false only if the vertex filter knows no vertex with this id was written
+    private boolean mightExist(final Object emittedId) {
+        return vertexFilter.isEmpty() || vertexFilter.get().mightContain(emittedId);
+    }
+
+    private Object outputId(final Object emittedId) {
+        return vertexIndex.flatMap(index -> index.get(emittedId)).orElse(emittedId);
+    }
+
+    private boolean isIndexed(final Object emittedId) {
+        return vertexIndex.isPresent() && vertexIndex.get().get(emittedId).isPresent();
+    }
+
+    /*
+     * A failed vertex batch is retried one element at a time, which logs elements that cannot be written like encodeVertex does.
+     * The batch may have written some of its vertices before it failed, and their retry fails because they already exist.
+     * encodeVertex still records those.
+     */
+    private void onBatchFailure(final List<Emitable> batch, final Throwable throwable) {
+        if (batch.stream().allMatch(it -> EmittedVertex.class.isAssignableFrom(it.getClass()))) {
+            for (final Emitable it : batch) {
+                encodeVertex((EmittedVertex) it);
+            }
+        } else {
+            throw errorHandler.handleFatalError(throwable, this);
+        }
+    }
+
+    // a vertex that cannot be looked up is assumed to be there, recording a missing vertex only costs a lookup later
+    private boolean mayBeWritten(final Object id) {
+        try {
+            return g.V(id).hasNext();
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private Optional<GraphTraversal<?, ?>> batchTraversal(final List<Emitable> batch) {
+        final Set<Object> existingEndpoints = Boolean.parseBoolean(CONFIG.getOrDefault(Config.Keys.DROP_DANGLING_EDGES, config)) ?
+                existingEndpoints(batch) : null;
+        GraphTraversal<?, ?> traversal = null;
+        for (final Emitable item : batch) {
+            if (EmittedVertex.class.isAssignableFrom(item.getClass())) {
+                final EmittedVertex vertex = (EmittedVertex) item;
+                traversal = (traversal == null ? g.addV(vertex.label()) : traversal.addV(vertex.label()))
+                        .property(T.id, vertex.id().unwrap());
+                traversal = withProperties(traversal, vertex);
+            } else if (EmittedEdge.class.isAssignableFrom(item.getClass())) {
+                final EmittedEdge edge = (EmittedEdge) item;
+                final Object fromId = edge.fromId().unwrap();
+                final Object toId = edge.toId().unwrap();
+                if (existingEndpoints != null && !(existingEndpoints.contains(fromId) && existingEndpoints.contains(toId))) {
+                    RuntimeUtil.getLogger(this).warn(String.format("could not find vertex %s when creating edge",
+                            existingEndpoints.contains(fromId) ? toId : fromId), edge);
+                    continue;
+                }
+                final String label = EmittedEdge.getFieldFromEdge(edge, EmittedEdge.LABEL);
+                traversal = (traversal == null ? g.addE(label) : traversal.addE(label))
+                        .from(__.V(outputId(fromId)))
+                        .to(__.V(outputId(toId)));
+                traversal = withProperties(traversal, edge);
+            } else {
+                throw errorHandler.error("Unknown type: %s", item.getClass().getName());
+            }
+        }
+        return Optional.ofNullable(traversal);
+    }
+
+    // endpoints in the vertex index are known to exist, endpoints the vertex filter rules out are known not to,
+    // only the others are looked up
+    private Set<Object> existingEndpoints(final List<Emitable> batch) {
+        final Set<Object> existing = new HashSet<>();
+        final Set<Object> lookups = new HashSet<>();
+        for (final Emitable item : batch) {
+            if (!EmittedEdge.class.isAssignableFrom(item.getClass()))
+                continue;
+            for (final Object endpoint : List.of(((EmittedEdge) item).fromId().unwrap(), ((EmittedEdge) item).toId().unwrap())) {
+                if (isIndexed(endpoint))
+                    existing.add(endpoint);
+                else if (mightExist(endpoint))
+                    lookups.add(endpoint);
+            }
+        }
+        if (!lookups.isEmpty())
+            existing.addAll(g.V(lookups.toArray()).id().toList());
+        return existing;
+    }
+
+    private static GraphTraversal<?, ?> withProperties(final GraphTraversal<?, ?> traversal, final EmitableGraphElement element) {
+        final Map<Object, Object> keyValues = new HashMap<>();
+        element.propertyNames().forEach(name -> element.propertyValue(name).ifPresent(value -> keyValues.put(name, value)));
+        return keyValues.isEmpty() ? traversal : traversal.property(keyValues);
+    }
+
     @Override
     public Optional<Element> encode(final Emitable item) {
+        if (batchSize > 1 && (EmittedVertex.class.isAssignableFrom(item.getClass()) || EmittedEdge.class.isAssignableFrom(item.getClass()))) {
+            buffer(item);
+            return Optional.empty();
+        }
         if (EmittedVertex.class.isAssignableFrom(item.getClass())) {
             RuntimeUtil.getLogger(this).debug("encoding vertex" + ((EmittedVertex) item).id().unwrap());
             return encodeVertex((EmittedVertex) item);
@@ -200,9 +436,14 @@ public class TinkerPopTraversalEncoder extends Loadable implements Encoder<Eleme
     @Override
     public void onClose() {
         try {
+            flush();
             g.close();
         } catch (Exception e) {
             throw errorHandler.handleError(e, this);
+        } finally {
+            if (vertexIndex.isPresent())
+                VertexIdIndex.release(RuntimeUtil.getCurrentPhase(config));
+            vertexFilter.ifPresent(filter -> VertexIdFilter.release(filter, config));
         }
     }
 }
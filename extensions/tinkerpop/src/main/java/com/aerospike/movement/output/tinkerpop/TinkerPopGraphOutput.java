@@ -13,6 +13,7 @@ import com.aerospike.movement.emitter.core.Emitter;
 import com.aerospike.movement.emitter.tinkerpop.TinkerPopGraphEmitter;
 import com.aerospike.movement.encoding.tinkerpop.TinkerPopGraphEncoder;
 import com.aerospike.movement.runtime.tinkerpop.TinkerPopGraphDriver;
+import com.aerospike.movement.tinkerpop.common.instrumentation.impl.CachedGraph;
 import com.aerospike.movement.structure.core.graph.EmittedEdge;
 import com.aerospike.movement.structure.core.graph.EmittedVertex;
 import com.aerospike.movement.encoding.core.Encoder;
@@ -22,6 +23,7 @@ import com.aerospike.movement.output.core.OutputWriter;
 import com.aerospike.movement.runtime.core.local.Loadable;
 import com.aerospike.movement.runtime.core.Runtime;
 import com.aerospike.movement.util.core.configuration.ConfigUtil;
+import com.aerospike.movement.util.core.metrics.MetricsRegistry;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import com.aerospike.movement.encoding.tinkerpop.TinkerPopGraphDecoder;
 import org.apache.commons.configuration2.Configuration;
@@ -110,6 +112,8 @@ public class TinkerPopGraphOutput extends Loadable implements Output, OutputWrit
             put(RuntimeUtil.IO_OPS, vertexMetric.get() + edgeMetric.get());
             put("vertices", vertexMetric.get());
             put("edges", edgeMetric.get());
+            if (encoder instanceof TinkerPopGraphEncoder && ((TinkerPopGraphEncoder) encoder).getGraph() instanceof CachedGraph)
+                putAll(((CachedGraph) ((TinkerPopGraphEncoder) encoder).getGraph()).getMetrics());
         }};
     }
 
@@ -119,7 +123,10 @@ public class TinkerPopGraphOutput extends Loadable implements Output, OutputWrit
         if(item.isPresent()){
             Emitable emitable = item.get();
             incrementMetrics(emitable);
+            final long start = MetricsRegistry.start();
             encoder.encode(emitable);
+            if (start != 0)
+                MetricsRegistry.current().record(MetricsRegistry.Stage.ENCODE, emitable.type(), start);
         }else {
             RuntimeUtil.getLogger(this).info("empty emitable");
         }
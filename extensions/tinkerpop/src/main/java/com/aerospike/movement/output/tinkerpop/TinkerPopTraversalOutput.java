@@ -12,12 +12,13 @@ import com.aerospike.movement.emitter.core.Emitable;
 import com.aerospike.movement.emitter.core.Emitter;
 import com.aerospike.movement.encoding.core.Encoder;
 import com.aerospike.movement.encoding.tinkerpop.TinkerPopTraversalEncoder;
-import com.aerospike.movement.output.core.Output;
+import com.aerospike.movement.output.core.ConcurrentOutput;
 import com.aerospike.movement.output.core.OutputWriter;
 import com.aerospike.movement.runtime.core.local.Loadable;
 import com.aerospike.movement.runtime.core.Runtime;
 import com.aerospike.movement.util.core.configuration.ConfigUtil;
 import com.aerospike.movement.util.core.error.ErrorUtil;
+import com.aerospike.movement.util.core.metrics.MetricsRegistry;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import org.apache.commons.configuration2.Configuration;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
@@ -32,9 +33,11 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * @author Grant Haywood (<a href="http://iowntheinter.net">http://iowntheinter.net</a>)
  */
-public class TinkerPopTraversalOutput extends Loadable implements Output, OutputWriter {
+public class TinkerPopTraversalOutput extends Loadable implements ConcurrentOutput, OutputWriter {
     private final Encoder<Element> encoder;
     private final AtomicLong ioOperations;
+    private final AtomicLong inFlight;
+    private final AtomicLong maxInFlight;
 
     public static class Config extends ConfigurationBase {
         public static final Config INSTANCE = new Config();
@@ -65,6 +68,8 @@ public class TinkerPopTraversalOutput extends Loadable implements Output, Output
         super(Config.INSTANCE, config);
         this.encoder = encoder;
         this.ioOperations = new AtomicLong(0);
+        this.inFlight = new AtomicLong(0);
+        this.maxInFlight = new AtomicLong(0);
     }
 
 
@@ -88,13 +93,23 @@ public class TinkerPopTraversalOutput extends Loadable implements Output, Output
     public Map<String, Object> getMetrics() {
         return new HashMap<>() {{
             put(RuntimeUtil.IO_OPS, ioOperations.get());
+            put(RuntimeUtil.IN_FLIGHT, inFlight.get());
+            put(RuntimeUtil.MAX_IN_FLIGHT, maxInFlight.get());
         }};
     }
 
 
     @Override
     public void writeToOutput(final Optional<Emitable> vertex) {
-        vertex.flatMap(encoder::encode); //written during encoding
+        maxInFlight.getAndUpdate(existingMax -> Math.max(existingMax, inFlight.incrementAndGet()));
+        final long start = MetricsRegistry.start();
+        try {
+            vertex.flatMap(encoder::encode); //written during encoding
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        if (start != 0 && vertex.isPresent())
+            MetricsRegistry.current().record(MetricsRegistry.Stage.ENCODE, vertex.get().type(), start);
         ioOperations.addAndGet(1);
     }
 
@@ -104,8 +119,7 @@ public class TinkerPopTraversalOutput extends Loadable implements Output, Output
 
     @Override
     public void flush() {
-
-
+        ((TinkerPopTraversalEncoder) encoder).flush();
     }
 
     @Override
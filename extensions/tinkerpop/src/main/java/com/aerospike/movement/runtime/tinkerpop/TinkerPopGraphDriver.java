@@ -9,19 +9,21 @@ package com.aerospike.movement.runtime.tinkerpop;
 import com.aerospike.movement.config.core.ConfigurationBase;
 import com.aerospike.movement.emitter.tinkerpop.TinkerPopGraphEmitter;
 import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.driver.AdaptiveBatchSize;
 import com.aerospike.movement.runtime.core.driver.WorkChunk;
 import com.aerospike.movement.runtime.core.driver.WorkChunkDriver;
 import com.aerospike.movement.runtime.core.driver.WorkList;
+import com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime;
 import com.aerospike.movement.tinkerpop.common.GraphProvider;
 import com.aerospike.movement.util.core.configuration.ConfigUtil;
-import com.aerospike.movement.util.core.iterator.Batched;
-import com.aerospike.movement.util.core.iterator.ext.IteratorUtils;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
 import org.apache.commons.configuration2.Configuration;
+import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TinkerPopGraphDriver extends WorkChunkDriver {
     private Runtime.PHASE phase;
@@ -46,15 +48,36 @@ public class TinkerPopGraphDriver extends WorkChunkDriver {
 
 
         public static class Keys {
+            // auto, partitioned or shared, see ScanMode. Partitioned lists every vertex id (PHASE.ONE) or edge id
+            // (PHASE.TWO) of the input graph up front and holds them in memory until the phase ends, roughly one
+            // boxed id per element. Set shared when the graph's ids do not fit in the heap.
+            public static final String SCAN = "driver.tinkerpop.scan";
         }
 
         private static final Map<String, String> DEFAULTS = new HashMap<>() {{
+            put(Keys.SCAN, ScanMode.AUTO.name().toLowerCase());
         }};
 
+        public enum ScanMode {
+            // partitioned when there is more than one runtime thread, shared otherwise
+            AUTO,
+            // the element ids are collected once and split into one partition per runtime thread,
+            // every id of the graph is held in memory for the length of the phase
+            PARTITIONED,
+            // every pipeline pulls batches from one iterator over the graph
+            SHARED;
+
+            public static ScanMode fromConfig(final Configuration config) {
+                return valueOf(((String) CONFIG.getOrDefault(Keys.SCAN, config)).toUpperCase());
+            }
+        }
+
     }
 
+    public static final Config CONFIG = Config.INSTANCE;
+
     private static final AtomicBoolean initialized = new AtomicBoolean(false);
-    private static Iterator<List<Object>> iterator;
+    private static Scan scan;
 
     private TinkerPopGraphDriver(Runtime.PHASE phase, final Configuration config) {
         super(Config.INSTANCE, config);
@@ -78,16 +101,9 @@ public class TinkerPopGraphDriver extends WorkChunkDriver {
                 final Class providerClass = RuntimeUtil.loadClass(TinkerPopGraphEmitter.CONFIG.getOrDefault(TinkerPopGraphEmitter.Config.Keys.GRAPH_PROVIDER, config));
                 final GraphProvider graphProvider = (GraphProvider) RuntimeUtil.openClass(providerClass, config);
                 final Graph graph = graphProvider.getProvided(GraphProvider.GraphProviderContext.INPUT);
-                if (phase.equals(Runtime.PHASE.ONE)) {
-//                    TinkerPopGraphDriver.iterator = Batched.batch(graph.vertices(), RuntimeUtil.getBatchSize(config));
-                    TinkerPopGraphDriver.iterator = IteratorUtils.map(graph.vertices(), it -> List.of(it));
-
-                } else if (phase.equals(Runtime.PHASE.TWO)) {
-//                    TinkerPopGraphDriver.iterator = Batched.batch(graph.edges(), RuntimeUtil.getBatchSize(config));
-                    TinkerPopGraphDriver.iterator = IteratorUtils.map(graph.edges(), it -> List.of(it));
-                } else {
+                if (!phase.equals(Runtime.PHASE.ONE) && !phase.equals(Runtime.PHASE.TWO))
                     throw RuntimeUtil.getErrorHandler(this).handleFatalError(new RuntimeException("unknown phase"), phase);
-                }
+                TinkerPopGraphDriver.scan = openScan(graph, phase, config);
                 initialized.set(true);
             }
         }
@@ -97,25 +113,130 @@ public class TinkerPopGraphDriver extends WorkChunkDriver {
     public void onClose()  {
         synchronized (TinkerPopGraphDriver.class) {
             if (initialized.compareAndSet(true, false)) {
-                iterator = null;
+                scan = null;
             }
         }
     }
 
 
+    private Scan openScan(final Graph graph, final Runtime.PHASE phase, final Configuration config) {
+        final int partitions = Integer.parseInt(LocalParallelStreamRuntime.CONFIG.getOrDefault(LocalParallelStreamRuntime.Config.Keys.THREADS, config));
+        final Config.ScanMode mode = Config.ScanMode.fromConfig(config);
+        if (mode == Config.ScanMode.SHARED || (mode == Config.ScanMode.AUTO && partitions < 2))
+            return new SharedScan(phase.equals(Runtime.PHASE.ONE) ? graph.vertices() : graph.edges());
+        final List<Object> ids;
+        try {
+            ids = phase.equals(Runtime.PHASE.ONE) ? graph.traversal().V().id().toList() : graph.traversal().E().id().toList();
+        } catch (UnsupportedOperationException e) {
+            if (mode == Config.ScanMode.PARTITIONED)
+                throw RuntimeUtil.getErrorHandler(this).handleFatalError(e, graph);
+            RuntimeUtil.getLogger(this).warn("cannot list element ids, falling back to a shared scan: " + e.getMessage());
+            return new SharedScan(phase.equals(Runtime.PHASE.ONE) ? graph.vertices() : graph.edges());
+        }
+        final boolean passthrough = Boolean.parseBoolean(TinkerPopGraphEmitter.CONFIG.getOrDefault(TinkerPopGraphEmitter.Config.Keys.PASSTHRU, config));
+        return new PartitionedScan(graph, phase, passthrough, ids.toArray(), partitions);
+    }
+
     @Override
     public Optional<WorkChunk> getNext() {
-        if (!initialized.get() || iterator == null)
+        if (!initialized.get() || scan == null)
             throw new IllegalStateException("TinkerPopGraphDriver not initialized");
-        synchronized (iterator) {
-            try {
-                if (!iterator.hasNext()) return Optional.empty();
-            } catch (IllegalStateException ise) {
-                throw new RuntimeException(ise);
+        final List<Object> batch = scan.next(batchSize);
+        if (batch.isEmpty())
+            return Optional.empty();
+        final WorkList list = WorkList.from(batch);
+        onNextValue(list);
+        return Optional.of(list);
+    }
+
+    private interface Scan {
+        List<Object> next(AdaptiveBatchSize batchSize);
+    }
+
+    private static class SharedScan implements Scan {
+        private final Iterator<?> iterator;
+
+        private SharedScan(final Iterator<?> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public List<Object> next(final AdaptiveBatchSize batchSize) {
+            batchSize.waiting();
+            synchronized (iterator) {
+                batchSize.done();
+                final int size = batchSize.next();
+                final List<Object> batch = new ArrayList<>(size);
+                try {
+                    while (batch.size() < size && iterator.hasNext()) {
+                        batch.add(iterator.next());
+                    }
+                } catch (IllegalStateException ise) {
+                    throw new RuntimeException(ise);
+                }
+                return batch;
+            }
+        }
+    }
+
+    /*
+     * The collected ids split into contiguous partitions, one per runtime thread. Each thread takes batches from its
+     * own partition without locking and moves on to the next partition with work left once its own is drained.
+     * In passthrough mode the ids are resolved to elements here, on the pipeline's thread.
+     */
+    private static class PartitionedScan implements Scan {
+        private final Graph graph;
+        private final Runtime.PHASE phase;
+        private final boolean passthrough;
+        private final Object[] ids;
+        private final AtomicInteger[] cursors;
+        private final int[] ends;
+        private final AtomicInteger nextHome = new AtomicInteger(0);
+        private final ThreadLocal<Integer> home;
+
+        private PartitionedScan(final Graph graph, final Runtime.PHASE phase, final boolean passthrough, final Object[] ids, final int partitions) {
+            this.graph = graph;
+            this.phase = phase;
+            this.passthrough = passthrough;
+            this.ids = ids;
+            this.cursors = new AtomicInteger[partitions];
+            this.ends = new int[partitions];
+            for (int partition = 0; partition < partitions; partition++) {
+                cursors[partition] = new AtomicInteger((int) ((long) ids.length * partition / partitions));
+                ends[partition] = (int) ((long) ids.length * (partition + 1) / partitions);
+            }
+            this.home = ThreadLocal.withInitial(() -> nextHome.getAndIncrement() % partitions);
+        }
+
+        private long remaining() {
+            long remaining = 0;
+            for (int partition = 0; partition < cursors.length; partition++) {
+                remaining += Math.max(0, ends[partition] - cursors[partition].get());
+            }
+            return remaining;
+        }
+
+        @Override
+        public List<Object> next(final AdaptiveBatchSize batchSize) {
+            final int size = batchSize.next(remaining());
+            final int start = home.get();
+            for (int i = 0; i < cursors.length; i++) {
+                final int partition = (start + i) % cursors.length;
+                if (cursors[partition].get() >= ends[partition])
+                    continue;
+                final int from = cursors[partition].getAndAdd(size);
+                if (from >= ends[partition])
+                    continue;
+                home.set(partition);
+                final Object[] slice = Arrays.copyOfRange(ids, from, Math.min(from + size, ends[partition]));
+                if (!passthrough)
+                    return Arrays.asList(slice);
+                final Iterator<? extends Element> elements = phase.equals(Runtime.PHASE.ONE) ? graph.vertices(slice) : graph.edges(slice);
+                final List<Object> batch = new ArrayList<>(slice.length);
+                elements.forEachRemaining(batch::add);
+                return batch;
             }
-            final WorkList list = WorkList.from(iterator.next());
-            onNextValue(list);
-            return Optional.of(list);
+            return List.of();
         }
     }
 
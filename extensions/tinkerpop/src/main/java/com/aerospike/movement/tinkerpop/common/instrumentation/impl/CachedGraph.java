@@ -12,13 +12,13 @@ import com.aerospike.movement.tinkerpop.common.GraphProvider;
 import com.aerospike.movement.util.core.configuration.ConfigUtil;
 import com.aerospike.movement.util.core.iterator.ext.IteratorUtils;
 import com.aerospike.movement.util.core.runtime.RuntimeUtil;
-import com.google.common.cache.*;
 import org.apache.commons.configuration2.Configuration;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
 import org.apache.tinkerpop.gremlin.structure.*;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 public class CachedGraph implements Graph {
     public static class Config extends ConfigurationBase {
@@ -41,33 +41,34 @@ public class CachedGraph implements Graph {
         public static class Keys {
             public static final String CONTEXT = GraphProvider.Keys.CONTEXT;
             public static final String GRAPH_PROVIDER = "cached.graph.provider";
+            // total weight of cached vertices, a vertex weighs one plus its number of property keys
             public static final String CACHE_SIZE = "cached.graph.cache.size";
+            public static final String NEGATIVE_CACHE_SIZE = "cached.graph.cache.negative.size";
+            // how long an id the graph did not have is taken as missing, 0 disables the negative cache
+            public static final String NEGATIVE_CACHE_TTL_MS = "cached.graph.cache.negative.ttlMs";
 
         }
 
         private static final Map<String, String> DEFAULTS = new HashMap<>() {{
             put(Keys.CACHE_SIZE, String.valueOf(10000L));
+            put(Keys.NEGATIVE_CACHE_SIZE, String.valueOf(10000L));
+            put(Keys.NEGATIVE_CACHE_TTL_MS, String.valueOf(1000L));
         }};
     }
 
 
     public final Graph graph;
-    public final LoadingCache<Object, Vertex> vertexCache;
+    public final VertexCache vertexCache;
     public final Configuration config;
 
 
     public CachedGraph(final Graph graph, final Configuration config) {
         this.config = config;
         this.graph = graph;
-        this.vertexCache = CacheBuilder.newBuilder()
-                .maximumSize(Long.parseLong(Config.INSTANCE.getOrDefault(Config.Keys.CACHE_SIZE, config)))
-                .build(new CacheLoader<>() {
-                    @Override
-                    public Vertex load(final Object vertexId) {
-                        Vertex x = graph.vertices(vertexId).next();
-                        return x;
-                    }
-                });
+        this.vertexCache = new VertexCache(
+                Long.parseLong(Config.INSTANCE.getOrDefault(Config.Keys.CACHE_SIZE, config)),
+                Long.parseLong(Config.INSTANCE.getOrDefault(Config.Keys.NEGATIVE_CACHE_SIZE, config)),
+                TimeUnit.MILLISECONDS.toNanos(Long.parseLong(Config.INSTANCE.getOrDefault(Config.Keys.NEGATIVE_CACHE_TTL_MS, config))));
     }
 
     public static CachedGraph open(final Configuration config) {
@@ -81,7 +82,7 @@ public class CachedGraph implements Graph {
         final Optional<Object> idOption = ElementHelper.getIdValue(keyValues);
         idOption.ifPresent(vertexCache::invalidate);
         final Vertex x = graph.addVertex(keyValues);
-        vertexCache.put(x.id(), x);
+        vertexCache.putWritten(x);
         return x;
     }
 
@@ -97,11 +98,43 @@ public class CachedGraph implements Graph {
 
     @Override
     public Iterator<Vertex> vertices(final Object... vertexIds) {
-        return IteratorUtils.stream(graph.vertices(vertexIds)).map(vertexFromBackingStore -> {
-            vertexCache.put(vertexFromBackingStore.id(), vertexFromBackingStore);
-            return vertexFromBackingStore;
-        }).iterator();
+        // a full scan is passed through, it would only evict the vertices being looked up by id
+        if (vertexIds.length == 0)
+            return graph.vertices();
+        final List<Vertex> results = new ArrayList<>(vertexIds.length);
+        final List<Object> uncached = new ArrayList<>();
+        for (final Object vertexId : vertexIds) {
+            final Object id = vertexId instanceof Vertex ? ((Vertex) vertexId).id() : vertexId;
+            final Optional<Vertex> cached = vertexCache.get(id);
+            if (cached.isPresent())
+                results.add(cached.get());
+            else if (!vertexCache.isKnownMissing(id))
+                uncached.add(id);
+        }
+        if (uncached.isEmpty())
+            return results.iterator();
+        final List<Vertex> fromBackingStore = IteratorUtils.list(graph.vertices(uncached.toArray()));
+        results.addAll(fromBackingStore);
+        // the graph may convert the id it is given, so a single lookup is cached under the id it was asked for
+        if (uncached.size() == 1) {
+            if (fromBackingStore.isEmpty())
+                vertexCache.putMissing(uncached.get(0));
+            else
+                vertexCache.putRead(uncached.get(0), fromBackingStore.get(0));
+            return results.iterator();
+        }
+        final Set<Object> found = new HashSet<>();
+        fromBackingStore.forEach(vertex -> {
+            found.add(vertex.id());
+            vertexCache.putRead(vertex.id(), vertex);
+        });
+        if (uncached.containsAll(found))
+            uncached.stream().filter(id -> !found.contains(id)).forEach(vertexCache::putMissing);
+        return results.iterator();
+    }
 
+    public Map<String, Object> getMetrics() {
+        return vertexCache.getMetrics();
     }
 
     @Override
@@ -0,0 +1,249 @@
+package com.aerospike.movement.tinkerpop.common.instrumentation.impl;
+
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Vertex cache behind CachedGraph, bounded by weight rather than entry count. A vertex weighs one plus its number
+ * of property keys. Keys are spread over stripes, each an LRU guarded by its own lock with a small frequency sketch.
+ * When a read would evict, the candidate is only admitted if it has been asked for more often than the LRU victim
+ * (TinyLFU admission), so a scan over cold ids cannot flush the hot set. Vertices the caller just wrote are always
+ * admitted.
+ *
+ * Ids the backing graph did not have are remembered in a separate bounded negative cache, so repeated lookups of a
+ * missing endpoint do not reach the graph. Writing a vertex through this cache removes its id from the negative cache,
+ * a vertex written by anyone else is seen once the negative entry expires, missingTtlNanos after it was cached.
+ */
+public class VertexCache {
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+    private final AtomicLong rejections = new AtomicLong(0);
+    private final AtomicLong negativeHits = new AtomicLong(0);
+
+    private final long missingTtlNanos;
+
+    public VertexCache(final long maximumWeight, final long maximumMissing, final long missingTtlNanos) {
+        this.missingTtlNanos = missingTtlNanos;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(Math.max(1, maximumWeight / STRIPES), Math.max(1, maximumMissing / STRIPES));
+        }
+    }
+
+    private Stripe stripe(final Object id) {
+        final int hash = id.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static int weigh(final Vertex vertex) {
+        return 1 + vertex.keys().size();
+    }
+
+    public Optional<Vertex> get(final Object id) {
+        final Optional<Vertex> result = stripe(id).get(id);
+        (result.isPresent() ? hits : misses).incrementAndGet();
+        return result;
+    }
+
+    public boolean isKnownMissing(final Object id) {
+        final boolean missing = stripe(id).isMissing(id);
+        if (missing)
+            negativeHits.incrementAndGet();
+        return missing;
+    }
+
+    // a vertex read from the backing graph, subject to admission
+    public void putRead(final Object id, final Vertex vertex) {
+        stripe(id).put(id, vertex, weigh(vertex), false);
+    }
+
+    // a vertex written through the cache, always admitted
+    public void putWritten(final Vertex vertex) {
+        stripe(vertex.id()).put(vertex.id(), vertex, weigh(vertex), true);
+    }
+
+    public void putMissing(final Object id) {
+        stripe(id).putMissing(id);
+    }
+
+    public void invalidate(final Object id) {
+        stripe(id).invalidate(id);
+    }
+
+    public long size() {
+        return Arrays.stream(stripes).mapToLong(Stripe::size).sum();
+    }
+
+    public long weight() {
+        return Arrays.stream(stripes).mapToLong(Stripe::weight).sum();
+    }
+
+    public Map<String, Object> getMetrics() {
+        return new HashMap<>() {{
+            put("cache_hits", hits.get());
+            put("cache_misses", misses.get());
+            put("cache_negative_hits", negativeHits.get());
+            put("cache_evictions", evictions.get());
+            put("cache_rejections", rejections.get());
+            put("cache_entries", VertexCache.this.size());
+            put("cache_weight", weight());
+        }};
+    }
+
+    private static class Entry {
+        private final Vertex vertex;
+        private final int weight;
+
+        private Entry(final Vertex vertex, final int weight) {
+            this.vertex = vertex;
+            this.weight = weight;
+        }
+    }
+
+    private class Stripe {
+        private final long maximumWeight;
+        private final long maximumMissing;
+        private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        // id to the System.nanoTime() its negative entry expires at, oldest first
+        private final LinkedHashMap<Object, Long> missing = new LinkedHashMap<>();
+        private final FrequencySketch sketch;
+        private long weight = 0;
+
+        private Stripe(final long maximumWeight, final long maximumMissing) {
+            this.maximumWeight = maximumWeight;
+            this.maximumMissing = maximumMissing;
+            this.sketch = new FrequencySketch(maximumWeight);
+        }
+
+        private synchronized Optional<Vertex> get(final Object id) {
+            sketch.increment(id);
+            final Entry entry = entries.get(id);
+            return entry == null ? Optional.empty() : Optional.of(entry.vertex);
+        }
+
+        private synchronized boolean isMissing(final Object id) {
+            final Long expiry = missing.get(id);
+            if (expiry == null)
+                return false;
+            if (expiry - System.nanoTime() > 0)
+                return true;
+            missing.remove(id);
+            return false;
+        }
+
+        private synchronized void put(final Object id, final Vertex vertex, final int entryWeight, final boolean admit) {
+            missing.remove(id);
+            final Entry previous = entries.remove(id);
+            if (previous != null)
+                weight -= previous.weight;
+            if (entryWeight > maximumWeight) {
+                rejections.incrementAndGet();
+                return;
+            }
+            while (weight + entryWeight > maximumWeight) {
+                final Map.Entry<Object, Entry> victim = entries.entrySet().iterator().next();
+                if (!admit && previous == null && sketch.frequency(id) <= sketch.frequency(victim.getKey())) {
+                    rejections.incrementAndGet();
+                    return;
+                }
+                entries.remove(victim.getKey());
+                weight -= victim.getValue().weight;
+                evictions.incrementAndGet();
+            }
+            entries.put(id, new Entry(vertex, entryWeight));
+            weight += entryWeight;
+        }
+
+        private synchronized void putMissing(final Object id) {
+            if (missingTtlNanos <= 0 || entries.containsKey(id) || missing.containsKey(id))
+                return;
+            final long now = System.nanoTime();
+            missing.put(id, now + missingTtlNanos);
+            // every entry lives as long, so the expired ones are at the head
+            final Iterator<Long> eldest = missing.values().iterator();
+            while (eldest.hasNext()) {
+                final long expiry = eldest.next();
+                if (missing.size() <= maximumMissing && expiry - now > 0)
+                    break;
+                eldest.remove();
+            }
+        }
+
+        private synchronized void invalidate(final Object id) {
+            missing.remove(id);
+            final Entry previous = entries.remove(id);
+            if (previous != null)
+                weight -= previous.weight;
+        }
+
+        private synchronized long size() {
+            return entries.size();
+        }
+
+        private synchronized long weight() {
+            return weight;
+        }
+    }
+
+    /*
+     * Count-min sketch of 4 bit counters, four per key. Counters are halved once the sample reaches ten times the
+     * table size, so frequencies follow recent traffic. Callers hold the stripe lock.
+     */
+    private static class FrequencySketch {
+        private static final long[] SEEDS = {0x97cb3127L, 0xab2d9c1fL, 0x5f356495L, 0xc2b2ae35L};
+
+        private final long[] table;
+        private final int sampleSize;
+        private int additions = 0;
+
+        private FrequencySketch(final long maximumWeight) {
+            final int counters = (int) Math.min(1 << 24, Math.max(64, Long.highestOneBit(maximumWeight) << 2));
+            this.table = new long[counters / 16];
+            this.sampleSize = 10 * counters;
+        }
+
+        // counter index for the given hash function, 16 counters per long
+        private int index(final Object key, final int function) {
+            long hash = (key.hashCode() + SEEDS[function]) * SEEDS[(function + 1) & 3];
+            hash ^= hash >>> 32;
+            return (int) hash & (table.length * 16 - 1);
+        }
+
+        private int counter(final int index) {
+            return (int) (table[index >>> 4] >>> ((index & 15) << 2)) & 0xf;
+        }
+
+        private void increment(final Object key) {
+            boolean added = false;
+            for (int function = 0; function < SEEDS.length; function++) {
+                final int index = index(key, function);
+                if (counter(index) < 15) {
+                    table[index >>> 4] += 1L << ((index & 15) << 2);
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize)
+                reset();
+        }
+
+        private int frequency(final Object key) {
+            int frequency = 15;
+            for (int function = 0; function < SEEDS.length; function++) {
+                frequency = Math.min(frequency, counter(index(key, function)));
+            }
+            return frequency;
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+            }
+            additions /= 2;
+        }
+    }
+}
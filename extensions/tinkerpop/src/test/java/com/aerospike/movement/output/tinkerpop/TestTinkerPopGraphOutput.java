@@ -7,9 +7,12 @@
 package com.aerospike.movement.output.tinkerpop;
 
 import com.aerospike.movement.config.core.ConfigurationBase;
+import com.aerospike.movement.emitter.tinkerpop.TinkerPopEdge;
 import com.aerospike.movement.emitter.tinkerpop.TinkerPopGraphEmitter;
+import com.aerospike.movement.emitter.tinkerpop.TinkerPopVertex;
 import com.aerospike.movement.encoding.tinkerpop.TinkerPopGraphEncoder;
 import com.aerospike.movement.runtime.core.Runtime;
+import com.aerospike.movement.runtime.core.driver.WorkChunk;
 import com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime;
 import com.aerospike.movement.runtime.tinkerpop.TinkerPopGraphDriver;
 import com.aerospike.movement.test.core.AbstractMovementTest;
@@ -20,16 +23,33 @@ import com.aerospike.movement.tinkerpop.common.GraphProvider;
 import com.aerospike.movement.util.core.configuration.ConfigUtil;
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.MapConfiguration;
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Transaction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.BATCH_SIZE;
 import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.THREADS;
 import static junit.framework.TestCase.assertEquals;
 
@@ -120,6 +140,149 @@ public class TestTinkerPopGraphOutput extends AbstractMovementTest {
 
         assertEquals(PHASE_TWO_TEST_SIZE, SharedEmptyTinkerGraphGraphProvider.open().getProvided(GraphProvider.GraphProviderContext.OUTPUT).traversal().E().count().next().longValue());
     }
+    @Test
+    public void testBulkModeTransfersEdgesFromGraphAToGraphB() {
+        final Configuration config = ConfigUtil.withOverrides(graphTransferConfig, new MapConfiguration(new HashMap<>() {{
+            put(ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_ONE, TinkerPopGraphDriver.class.getName());
+            put(ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_TWO, TinkerPopGraphDriver.class.getName());
+            put(TinkerPopGraphEncoder.Config.Keys.BULK, "true");
+        }}));
+        registerCleanupCallback(() -> {
+            SharedEmptyTinkerGraphGraphProvider.open().getProvided(GraphProvider.GraphProviderContext.OUTPUT).traversal().V().drop().iterate();
+            LocalParallelStreamRuntime.getInstance(config).close();
+        });
+
+        final Runtime runtime = LocalParallelStreamRuntime.getInstance(config);
+        iteratePhasesTimed(runtime, List.of(Runtime.PHASE.ONE, Runtime.PHASE.TWO), config);
+
+        final GraphTraversalSource loaded = SharedEmptyTinkerGraphGraphProvider.open().getProvided(GraphProvider.GraphProviderContext.OUTPUT).traversal();
+        assertEquals(PHASE_TWO_TEST_SIZE, loaded.E().count().next().longValue());
+        assertEquals(TinkerFactory.createClassic().traversal().V().has("name", "marko").out("knows").values("name").toSet(),
+                loaded.V().has("name", "marko").out("knows").values("name").toSet());
+    }
+
+    @Test
+    public void testBulkModeResolvesEdgeEndpointsFromTheIndex() {
+        final Graph source = TinkerFactory.createClassic();
+        final TinkerGraph loaded = TinkerGraph.open();
+        final CountingGraph target = new CountingGraph(loaded);
+        final TinkerPopGraphEncoder vertexEncoder = bulkEncoder(target, Runtime.PHASE.ONE);
+        source.vertices().forEachRemaining(it -> vertexEncoder.encode(new TinkerPopVertex(it)));
+        vertexEncoder.close();
+        // the first PHASE.TWO encoder to close leaves the index to the one still running
+        final TinkerPopGraphEncoder edgeEncoder = bulkEncoder(target, Runtime.PHASE.TWO);
+        final TinkerPopGraphEncoder otherEdgeEncoder = bulkEncoder(target, Runtime.PHASE.TWO);
+        final Iterator<Edge> edges = source.edges();
+        edgeEncoder.encode(new TinkerPopEdge(edges.next()));
+        edgeEncoder.close();
+        edges.forEachRemaining(it -> otherEdgeEncoder.encode(new TinkerPopEdge(it)));
+        otherEdgeEncoder.close();
+        assertEquals(0L, target.lookups.get());
+        assertEquals(PHASE_TWO_TEST_SIZE, loaded.traversal().E().count().next().longValue());
+
+        // an index left behind by a PHASE.ONE that PHASE.TWO never followed goes with the runtime
+        final CountingGraph abandoned = new CountingGraph(TinkerGraph.open());
+        final TinkerPopGraphEncoder abandonedVertexEncoder = bulkEncoder(abandoned, Runtime.PHASE.ONE);
+        source.vertices().forEachRemaining(it -> abandonedVertexEncoder.encode(new TinkerPopVertex(it)));
+        abandonedVertexEncoder.close();
+        LocalParallelStreamRuntime.closeStatic();
+        final TinkerPopGraphEncoder lateEdgeEncoder = bulkEncoder(abandoned, Runtime.PHASE.TWO);
+        source.edges().forEachRemaining(it -> lateEdgeEncoder.encode(new TinkerPopEdge(it)));
+        lateEdgeEncoder.close();
+        assertEquals(2 * PHASE_TWO_TEST_SIZE, abandoned.lookups.get());
+    }
+
+    private static TinkerPopGraphEncoder bulkEncoder(final Graph graph, final Runtime.PHASE phase) {
+        return new TinkerPopGraphEncoder(graph, new MapConfiguration(new HashMap<>() {{
+            put(TinkerPopGraphEncoder.Config.Keys.BULK, "true");
+            put(ConfigurationBase.Keys.INTERNAL_PHASE_INDICATOR, phase.name());
+        }}));
+    }
+
+    // counts vertex lookups by id, and leaves the graph open when the encoder closes it
+    private static class CountingGraph implements Graph {
+        private final Graph graph;
+        private final AtomicLong lookups = new AtomicLong(0);
+
+        private CountingGraph(final Graph graph) {
+            this.graph = graph;
+        }
+
+        @Override
+        public Vertex addVertex(final Object... keyValues) {
+            return graph.addVertex(keyValues);
+        }
+
+        @Override
+        public <C extends GraphComputer> C compute(final Class<C> graphComputerClass) {
+            return graph.compute(graphComputerClass);
+        }
+
+        @Override
+        public GraphComputer compute() {
+            return graph.compute();
+        }
+
+        @Override
+        public Iterator<Vertex> vertices(final Object... vertexIds) {
+            lookups.incrementAndGet();
+            return graph.vertices(vertexIds);
+        }
+
+        @Override
+        public Iterator<Edge> edges(final Object... edgeIds) {
+            return graph.edges(edgeIds);
+        }
+
+        @Override
+        public Transaction tx() {
+            return graph.tx();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Variables variables() {
+            return graph.variables();
+        }
+
+        @Override
+        public org.apache.commons.configuration2.Configuration configuration() {
+            return graph.configuration();
+        }
+    }
+
+    @Test
+    public void testPartitionedScanCoversEveryElementOnce() throws Exception {
+        final int scanThreads = 4;
+        final Configuration config = ConfigUtil.withOverrides(graphTransferConfig, new MapConfiguration(new HashMap<>() {{
+            put(THREADS, String.valueOf(scanThreads));
+            put(BATCH_SIZE, "1");
+            put(TinkerPopGraphDriver.Config.Keys.SCAN, TinkerPopGraphDriver.Config.ScanMode.PARTITIONED.name());
+            put(ConfigurationBase.Keys.INTERNAL_PHASE_INDICATOR, Runtime.PHASE.TWO.name());
+        }}));
+        final TinkerPopGraphDriver driver = TinkerPopGraphDriver.open(config);
+        driver.init(config);
+        final List<Object> scanned = Collections.synchronizedList(new ArrayList<>());
+        final ExecutorService executor = Executors.newFixedThreadPool(scanThreads);
+        final List<Future<?>> scans = IntStream.range(0, scanThreads).mapToObj(i -> executor.submit(() -> {
+            Optional<WorkChunk> chunk;
+            while ((chunk = driver.getNext()).isPresent()) {
+                chunk.get().stream().map(it -> ((Edge) it.get().unwrap()).id()).forEach(scanned::add);
+            }
+        })).collect(Collectors.toList());
+        for (final Future<?> scan : scans) {
+            scan.get();
+        }
+        executor.shutdown();
+        driver.close();
+        final List<Object> expected = TinkerFactory.createClassic().traversal().E().id().toList();
+        assertEquals(expected.size(), scanned.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(scanned));
+    }
+
     @Test
     public void loopEdgeTest() {
         IntStream.range(0, 1000).forEach(i -> {
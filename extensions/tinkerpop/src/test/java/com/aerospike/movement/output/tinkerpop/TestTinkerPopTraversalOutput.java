@@ -13,6 +13,8 @@ import com.aerospike.movement.runtime.core.Runtime;
 import com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime;
 import com.aerospike.movement.runtime.core.local.RunningPhase;
 import com.aerospike.movement.runtime.tinkerpop.TinkerPopGraphDriver;
+import com.aerospike.movement.structure.core.graph.VertexIdFilter;
+import com.aerospike.movement.structure.core.graph.VertexIdIndex;
 import com.aerospike.movement.test.core.AbstractMovementTest;
 import com.aerospike.movement.test.tinkerpop.SharedTinkerClassicGraphProvider;
 import com.aerospike.movement.test.tinkerpop.SharedEmptyTinkerGraphTraversalProvider;
@@ -27,6 +29,7 @@ import org.apache.commons.configuration2.MapConfiguration;
 import org.apache.tinkerpop.gremlin.driver.remote.DriverRemoteConnection;
 import org.apache.tinkerpop.gremlin.process.traversal.AnonymousTraversalSource;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerFactory;
 import org.junit.After;
 import org.junit.Before;
@@ -40,6 +43,8 @@ import java.util.stream.IntStream;
 
 import static com.aerospike.movement.runtime.core.local.LocalParallelStreamRuntime.Config.Keys.THREADS;
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
 
 public class TestTinkerPopTraversalOutput extends AbstractMovementTest {
     final int THREAD_COUNT = 1; //TinkerGraph is single threaded
@@ -147,6 +152,94 @@ public class TestTinkerPopTraversalOutput extends AbstractMovementTest {
         }
     }
 
+    @Test
+    public void testWillTransferGraphAToGraphBByBatchedTraversal() {
+        final GraphTraversalSource outputSink = SharedEmptyTinkerGraphTraversalProvider.open().getProvided(GraphProvider.GraphProviderContext.OUTPUT);
+        final Configuration config = ConfigUtil.withOverrides(graphTransferConfig, new MapConfiguration(new HashMap<>() {{
+            put(ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_ONE, TinkerPopGraphDriver.class.getName());
+            put(ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_TWO, TinkerPopGraphDriver.class.getName());
+            put(TinkerPopTraversalEncoder.Config.Keys.BATCH_SIZE, "4");
+        }}));
+        registerCleanupCallback(() -> LocalParallelStreamRuntime.getInstance(config).close());
+
+        final Runtime runtime = LocalParallelStreamRuntime.getInstance(config);
+        iteratePhasesAndCloseRuntime(runtime.runPhases(List.of(Runtime.PHASE.ONE, Runtime.PHASE.TWO), config), runtime);
+
+        assertEquals(PHASE_ONE_TEST_SIZE, outputSink.V().count().next().longValue());
+        assertEquals(PHASE_TWO_TEST_SIZE, outputSink.E().count().next().longValue());
+        assertEquals(TinkerFactory.createClassic().traversal().E().has("weight", 0.4).count().next(), outputSink.E().has("weight", 0.4).count().next());
+    }
+
+    @Test
+    public void testVertexIndexResolvesEdgeEndpoints() {
+        final GraphTraversalSource outputSink = SharedEmptyTinkerGraphTraversalProvider.open().getProvided(GraphProvider.GraphProviderContext.OUTPUT);
+        final Configuration config = ConfigUtil.withOverrides(graphTransferConfig, new MapConfiguration(new HashMap<>() {{
+            put(ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_ONE, TinkerPopGraphDriver.class.getName());
+            put(ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_TWO, TinkerPopGraphDriver.class.getName());
+            put(TinkerPopTraversalEncoder.Config.Keys.VERTEX_INDEX, "true");
+        }}));
+        registerCleanupCallback(() -> LocalParallelStreamRuntime.getInstance(config).close());
+
+        final Runtime runtime = LocalParallelStreamRuntime.getInstance(config);
+        // the runtime is kept open between the phases, closing it empties the index
+        final Iterator<RunningPhase> phases = runtime.runPhases(List.of(Runtime.PHASE.ONE, Runtime.PHASE.TWO), config);
+        final RunningPhase phaseOne = phases.next();
+        phaseOne.get();
+        phaseOne.close();
+        final VertexIdIndex index = VertexIdIndex.acquire(Runtime.PHASE.TWO);
+        try {
+            assertEquals(PHASE_ONE_TEST_SIZE, index.size());
+            iteratePhasesAndCloseRuntime(phases, runtime);
+        } finally {
+            // the last PHASE.TWO user empties the index for the next test
+            VertexIdIndex.release(Runtime.PHASE.TWO);
+        }
+        assertEquals(0L, index.size());
+
+        assertEquals(PHASE_ONE_TEST_SIZE, outputSink.V().count().next().longValue());
+        assertEquals(PHASE_TWO_TEST_SIZE, outputSink.E().count().next().longValue());
+        assertEquals(TinkerFactory.createClassic().traversal().V().has("name", "marko").out("knows").count().next(),
+                outputSink.V().has("name", "marko").out("knows").count().next());
+    }
+
+    @Test
+    public void testVerticesOfAFailedBatchThatAlreadyExistAreNotDroppedAsDangling() {
+        // the batch holding marko fails, and its retry finds marko already written
+        assertExistingVertexIsNotDroppedAsDangling(4);
+    }
+
+    @Test
+    public void testAVertexThatAlreadyExistsIsNotDroppedAsDangling() {
+        assertExistingVertexIsNotDroppedAsDangling(1);
+    }
+
+    private void assertExistingVertexIsNotDroppedAsDangling(final int batchSize) {
+        final GraphTraversalSource outputSink = SharedEmptyTinkerGraphTraversalProvider.open().getProvided(GraphProvider.GraphProviderContext.OUTPUT);
+        final Configuration config = ConfigUtil.withOverrides(graphTransferConfig, new MapConfiguration(new HashMap<>() {{
+            put(ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_ONE, TinkerPopGraphDriver.class.getName());
+            put(ConfigurationBase.Keys.WORK_CHUNK_DRIVER_PHASE_TWO, TinkerPopGraphDriver.class.getName());
+            put(TinkerPopTraversalEncoder.Config.Keys.BATCH_SIZE, String.valueOf(batchSize));
+            put(TinkerPopTraversalEncoder.Config.Keys.DROP_DANGLING_EDGES, "true");
+            put(VertexIdFilter.Config.Keys.ENABLED, "true");
+        }}));
+        registerCleanupCallback(() -> LocalParallelStreamRuntime.getInstance(config).close());
+        final Long marko = Long.valueOf(TinkerFactory.createClassic().traversal().V().has("name", "marko").id().next().toString());
+        outputSink.addV("person").property(T.id, marko).property("name", "marko").iterate();
+
+        final Runtime runtime = LocalParallelStreamRuntime.getInstance(config);
+        // the runtime is kept open between the phases, closing it discards the filter
+        final Iterator<RunningPhase> phases = runtime.runPhases(List.of(Runtime.PHASE.ONE, Runtime.PHASE.TWO), config);
+        final RunningPhase phaseOne = phases.next();
+        phaseOne.get();
+        phaseOne.close();
+        assertTrue(VertexIdFilter.current().get().mightContain(marko));
+        iteratePhasesAndCloseRuntime(phases, runtime);
+
+        assertFalse(VertexIdFilter.current().isPresent());
+        assertEquals(PHASE_ONE_TEST_SIZE, outputSink.V().count().next().longValue());
+        assertEquals(PHASE_TWO_TEST_SIZE, outputSink.E().count().next().longValue());
+    }
+
     public static final String REMOTE_TRAVERSAL_TARGET = "graph.synth.remote.target";
 
     @Test
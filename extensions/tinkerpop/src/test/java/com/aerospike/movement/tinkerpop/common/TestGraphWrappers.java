@@ -23,8 +23,10 @@ import org.junit.Test;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 //@todo dev-next branch
@@ -123,6 +125,52 @@ public class TestGraphWrappers {
 
     }
 
+    @Test
+    public void testCachedGraphServesRepeatedLookupsFromCache() {
+        final CachedGraph graph = CachedGraph.open(new MapConfiguration(new HashMap<>() {{
+            put(GraphProvider.Keys.CONTEXT, GraphProvider.GraphProviderContext.OUTPUT.toString());
+            put(CachedGraph.Config.Keys.GRAPH_PROVIDER, SharedEmptyTinkerGraphGraphProvider.class.getName());
+        }}));
+        final Vertex a = graph.addVertex(T.id, 1L, Tokens.VALUE, 1L);
+        graph.graph.addVertex(T.id, 2L, Tokens.VALUE, 2L);
+
+        assertEquals(a, graph.vertices(1L).next());
+        assertEquals(2L, graph.vertices(2L).next().id());
+        assertEquals(2L, graph.vertices(2L).next().id());
+        assertFalse(graph.vertices(3L).hasNext());
+        assertFalse(graph.vertices(3L).hasNext());
+
+        final Map<String, Object> metrics = graph.getMetrics();
+        assertEquals(2L, metrics.get("cache_hits"));
+        assertEquals(3L, metrics.get("cache_misses"));
+        assertEquals(1L, metrics.get("cache_negative_hits"));
+        assertEquals(2L, metrics.get("cache_entries"));
+
+        graph.addVertex(T.id, 3L);
+        assertTrue(graph.vertices(3L).hasNext());
+    }
+
+    @Test
+    public void testCachedGraphSeesVerticesWrittenElsewhereOnceNegativeEntriesExpire() throws InterruptedException {
+        final Map<String, Object> base = Map.of(
+                GraphProvider.Keys.CONTEXT, GraphProvider.GraphProviderContext.OUTPUT.toString(),
+                CachedGraph.Config.Keys.GRAPH_PROVIDER, SharedEmptyTinkerGraphGraphProvider.class.getName());
+        final CachedGraph expiring = CachedGraph.open(new MapConfiguration(new HashMap<>(base) {{
+            put(CachedGraph.Config.Keys.NEGATIVE_CACHE_TTL_MS, "50");
+        }}));
+        final CachedGraph uncachedMisses = CachedGraph.open(new MapConfiguration(new HashMap<>(base) {{
+            put(CachedGraph.Config.Keys.NEGATIVE_CACHE_TTL_MS, "0");
+        }}));
+        final CachedGraph writer = CachedGraph.open(new MapConfiguration(new HashMap<>(base)));
+        assertFalse(expiring.vertices(4L).hasNext());
+        assertFalse(uncachedMisses.vertices(4L).hasNext());
+
+        writer.addVertex(T.id, 4L);
+        assertTrue(uncachedMisses.vertices(4L).hasNext());
+        Thread.sleep(100);
+        assertTrue(expiring.vertices(4L).hasNext());
+    }
+
     @Test
     public void testThrottledGraph() {
         final long delayTime = 200;